@@ -0,0 +1,111 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.benchmarks;
+
+import io.temporal.activity.ActivityInterface;
+import io.temporal.activity.ActivityOptions;
+import io.temporal.activity.LocalActivityOptions;
+import io.temporal.workflow.Workflow;
+import io.temporal.workflow.WorkflowInterface;
+import io.temporal.workflow.WorkflowMethod;
+import java.time.Duration;
+
+/** Workflows and activities shared by the benchmarks. */
+public final class BenchmarkWorkflows {
+
+  @ActivityInterface
+  public interface EchoActivity {
+    String echo(String input);
+  }
+
+  public static class EchoActivityImpl implements EchoActivity {
+    @Override
+    public String echo(String input) {
+      return input;
+    }
+  }
+
+  @WorkflowInterface
+  public interface ActivitySequenceWorkflow {
+    @WorkflowMethod
+    String execute(int steps);
+  }
+
+  /** Executes {@code steps} activities one after another, one workflow task per activity. */
+  public static class ActivitySequenceWorkflowImpl implements ActivitySequenceWorkflow {
+    private final EchoActivity activity =
+        Workflow.newActivityStub(
+            EchoActivity.class,
+            ActivityOptions.newBuilder().setStartToCloseTimeout(Duration.ofSeconds(10)).build());
+
+    @Override
+    public String execute(int steps) {
+      String result = "";
+      for (int i = 0; i < steps; i++) {
+        result = activity.echo("step-" + i);
+      }
+      return result;
+    }
+  }
+
+  @WorkflowInterface
+  public interface LocalActivitySequenceWorkflow {
+    @WorkflowMethod
+    String execute(int steps);
+  }
+
+  /** Executes {@code steps} short local activities one after another. */
+  public static class LocalActivitySequenceWorkflowImpl implements LocalActivitySequenceWorkflow {
+    private final EchoActivity activity =
+        Workflow.newLocalActivityStub(
+            EchoActivity.class,
+            LocalActivityOptions.newBuilder()
+                .setStartToCloseTimeout(Duration.ofMillis(500))
+                .build());
+
+    @Override
+    public String execute(int steps) {
+      String result = "";
+      for (int i = 0; i < steps; i++) {
+        result = activity.echo("step-" + i);
+      }
+      return result;
+    }
+  }
+
+  @WorkflowInterface
+  public interface TimerSequenceWorkflow {
+    @WorkflowMethod
+    String execute(int steps);
+  }
+
+  /** Sleeps {@code steps} times, one workflow task per timer. */
+  public static class TimerSequenceWorkflowImpl implements TimerSequenceWorkflow {
+    @Override
+    public String execute(int steps) {
+      for (int i = 0; i < steps; i++) {
+        Workflow.sleep(Duration.ofSeconds(1));
+      }
+      return "done";
+    }
+  }
+
+  private BenchmarkWorkflows() {}
+}
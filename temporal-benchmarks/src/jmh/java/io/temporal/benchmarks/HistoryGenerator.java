@@ -0,0 +1,97 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.benchmarks;
+
+import io.temporal.api.common.v1.WorkflowExecution;
+import io.temporal.api.history.v1.History;
+import io.temporal.api.workflowservice.v1.GetWorkflowExecutionHistoryRequest;
+import io.temporal.benchmarks.BenchmarkWorkflows.ActivitySequenceWorkflow;
+import io.temporal.benchmarks.BenchmarkWorkflows.ActivitySequenceWorkflowImpl;
+import io.temporal.benchmarks.BenchmarkWorkflows.EchoActivityImpl;
+import io.temporal.benchmarks.BenchmarkWorkflows.TimerSequenceWorkflow;
+import io.temporal.benchmarks.BenchmarkWorkflows.TimerSequenceWorkflowImpl;
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowOptions;
+import io.temporal.testing.TestWorkflowEnvironment;
+import io.temporal.worker.Worker;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Produces real workflow histories by running the benchmark workflows to completion against an
+ * in-memory {@link TestWorkflowEnvironment}, so benchmarks that replay histories don't need a
+ * Temporal service or checked in history files.
+ */
+public final class HistoryGenerator {
+
+  public static final String TASK_QUEUE = "benchmark";
+
+  /** @return history of {@link ActivitySequenceWorkflow} that executed {@code steps} activities */
+  public static History activitySequence(int steps) {
+    return generate(
+        ActivitySequenceWorkflowImpl.class,
+        client ->
+            WorkflowClient.start(
+                client.newWorkflowStub(ActivitySequenceWorkflow.class, newWorkflowOptions())
+                    ::execute,
+                steps));
+  }
+
+  /** @return history of {@link TimerSequenceWorkflow} that fired {@code steps} timers */
+  public static History timerSequence(int steps) {
+    return generate(
+        TimerSequenceWorkflowImpl.class,
+        client ->
+            WorkflowClient.start(
+                client.newWorkflowStub(TimerSequenceWorkflow.class, newWorkflowOptions())::execute,
+                steps));
+  }
+
+  public static WorkflowOptions newWorkflowOptions() {
+    return WorkflowOptions.newBuilder().setTaskQueue(TASK_QUEUE).build();
+  }
+
+  private static History generate(
+      Class<?> workflowImplementationType, Function<WorkflowClient, WorkflowExecution> starter) {
+    TestWorkflowEnvironment testEnvironment = TestWorkflowEnvironment.newInstance();
+    try {
+      Worker worker = testEnvironment.newWorker(TASK_QUEUE);
+      worker.registerWorkflowImplementationTypes(workflowImplementationType);
+      worker.registerActivitiesImplementations(new EchoActivityImpl());
+      testEnvironment.start();
+      WorkflowClient client = testEnvironment.getWorkflowClient();
+      WorkflowExecution execution = starter.apply(client);
+      client.newUntypedWorkflowStub(execution, Optional.empty()).getResult(String.class);
+      return testEnvironment
+          .getWorkflowService()
+          .blockingStub()
+          .getWorkflowExecutionHistory(
+              GetWorkflowExecutionHistoryRequest.newBuilder()
+                  .setNamespace(testEnvironment.getNamespace())
+                  .setExecution(execution)
+                  .build())
+          .getHistory();
+    } finally {
+      testEnvironment.close();
+    }
+  }
+
+  private HistoryGenerator() {}
+}
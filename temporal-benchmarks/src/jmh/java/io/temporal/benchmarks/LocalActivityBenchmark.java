@@ -0,0 +1,91 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.benchmarks;
+
+import io.temporal.benchmarks.BenchmarkWorkflows.EchoActivityImpl;
+import io.temporal.benchmarks.BenchmarkWorkflows.LocalActivitySequenceWorkflow;
+import io.temporal.benchmarks.BenchmarkWorkflows.LocalActivitySequenceWorkflowImpl;
+import io.temporal.testing.TestWorkflowEnvironment;
+import io.temporal.worker.Worker;
+import io.temporal.worker.WorkerOptions;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the end to end latency of a workflow that executes {@code steps} trivial local
+ * activities sequentially, with local activities handed to the local activity worker ({@code
+ * none}) or executed inline on the workflow task thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class LocalActivityBenchmark {
+
+  @Param({"10", "100"})
+  public int steps;
+
+  @Param({"none", "PT1S"})
+  public String inlineExecutionThreshold;
+
+  private TestWorkflowEnvironment testEnvironment;
+
+  @Setup
+  public void setUp() {
+    testEnvironment = TestWorkflowEnvironment.newInstance();
+    WorkerOptions.Builder options = WorkerOptions.newBuilder();
+    if (!"none".equals(inlineExecutionThreshold)) {
+      options.setLocalActivityInlineExecutionThreshold(Duration.parse(inlineExecutionThreshold));
+    }
+    Worker worker = testEnvironment.newWorker(HistoryGenerator.TASK_QUEUE, options.build());
+    worker.registerWorkflowImplementationTypes(LocalActivitySequenceWorkflowImpl.class);
+    worker.registerActivitiesImplementations(new EchoActivityImpl());
+    testEnvironment.start();
+  }
+
+  @Benchmark
+  public String execute() {
+    LocalActivitySequenceWorkflow workflow =
+        testEnvironment
+            .getWorkflowClient()
+            .newWorkflowStub(
+                LocalActivitySequenceWorkflow.class, HistoryGenerator.newWorkflowOptions());
+    return workflow.execute(steps);
+  }
+
+  @TearDown
+  public void tearDown() {
+    testEnvironment.close();
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.common.converter;
+
+import io.temporal.api.common.v1.Payloads;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the CPU cost of {@link CompressingDataConverter} on a JSON round trip of a list of
+ * records that serializes to roughly {@code payloadSize} bytes, compared to the uncompressed
+ * default converter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class CompressingDataConverterBenchmark {
+
+  @Param({"512", "4096", "65536", "524288"})
+  public int payloadSize;
+
+  @Param({"none", "deflate"})
+  public String compression;
+
+  private DataConverter dataConverter;
+  private List<Record> value;
+
+  @Setup
+  public void setUp() {
+    DataConverter defaultConverter = DefaultDataConverter.newDefaultInstance();
+    if ("none".equals(compression)) {
+      dataConverter = defaultConverter;
+    } else {
+      dataConverter = new CompressingDataConverter(defaultConverter);
+    }
+    Random random = new Random(0);
+    value = new ArrayList<>();
+    // Serialized list is the serialized records separated by commas and enclosed in brackets.
+    int size = 1;
+    while (size < payloadSize) {
+      Record record = Record.newRandom(random, value.size());
+      value.add(record);
+      size += defaultConverter.toPayload(record).get().getData().size() + 1;
+    }
+  }
+
+  @Benchmark
+  public Object roundTrip() {
+    Optional<Payloads> payloads = dataConverter.toPayloads(value);
+    return dataConverter.fromPayloads(0, payloads, List.class, List.class);
+  }
+
+  public static class Record {
+    public int id;
+    public String status;
+    public String description;
+    public long amount;
+
+    static Record newRandom(Random random, int id) {
+      Record record = new Record();
+      record.id = id;
+      record.status = random.nextBoolean() ? "COMPLETED" : "PENDING";
+      record.description = "record " + id + " of customer " + random.nextInt(100);
+      record.amount = random.nextInt(1_000_000);
+      return record;
+    }
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.common.converter;
+
+import io.temporal.api.common.v1.Payloads;
+import io.temporal.api.common.v1.WorkflowExecution;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a {@link DefaultDataConverter} round trip, {@link DataConverter#toPayloads(Object...)}
+ * followed by {@link DataConverter#fromPayloads(int, Optional, Class, java.lang.reflect.Type)},
+ * through each of the standard {@link PayloadConverter}s with a value it is meant for.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class DataConverterBenchmark {
+
+  @Param({"null", "byteArray", "protobufJson", "protobuf", "jackson", "gson"})
+  public String converter;
+
+  private DataConverter dataConverter;
+  private Object value;
+  private Class<?> valueClass;
+
+  @Setup
+  public void setUp() {
+    WorkflowExecution execution =
+        WorkflowExecution.newBuilder()
+            .setWorkflowId("order-processing-0123456789")
+            .setRunId("5f2a6c1e-8d3b-4e7a-9c0f-1b2d3e4f5a6b")
+            .build();
+    switch (converter) {
+      case "null":
+        dataConverter = new DefaultDataConverter(new NullPayloadConverter());
+        value = null;
+        valueClass = Object.class;
+        break;
+      case "byteArray":
+        byte[] bytes = new byte[1024];
+        ThreadLocalRandom.current().nextBytes(bytes);
+        dataConverter = new DefaultDataConverter(new ByteArrayPayloadConverter());
+        value = bytes;
+        valueClass = byte[].class;
+        break;
+      case "protobufJson":
+        dataConverter = new DefaultDataConverter(new ProtobufJsonPayloadConverter());
+        value = execution;
+        valueClass = WorkflowExecution.class;
+        break;
+      case "protobuf":
+        dataConverter = new DefaultDataConverter(new ProtobufPayloadConverter());
+        value = execution;
+        valueClass = WorkflowExecution.class;
+        break;
+      case "jackson":
+        dataConverter = new DefaultDataConverter(new JacksonJsonPayloadConverter());
+        value = Order.newSample();
+        valueClass = Order.class;
+        break;
+      case "gson":
+        dataConverter = new DefaultDataConverter(new GsonJsonPayloadConverter());
+        value = Order.newSample();
+        valueClass = Order.class;
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown converter: " + converter);
+    }
+  }
+
+  @Benchmark
+  public Object roundTrip() {
+    Optional<Payloads> payloads = dataConverter.toPayloads(value);
+    return dataConverter.fromPayloads(0, payloads, valueClass, valueClass);
+  }
+
+  public static class Order {
+    public String id;
+    public String customer;
+    public List<String> items;
+    public double amount;
+    public long createdTime;
+
+    static Order newSample() {
+      Order order = new Order();
+      order.id = "order-0123456789";
+      order.customer = "customer-9876543210";
+      order.items = new ArrayList<>();
+      for (int i = 0; i < 10; i++) {
+        order.items.add("item-" + i);
+      }
+      order.amount = 1234.56;
+      order.createdTime = 1600000000000L;
+      return order;
+    }
+  }
+}
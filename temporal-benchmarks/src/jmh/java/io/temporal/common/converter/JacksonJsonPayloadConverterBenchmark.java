@@ -0,0 +1,120 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.common.converter;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.google.protobuf.ByteString;
+import io.temporal.api.common.v1.Payload;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares a {@link JacksonJsonPayloadConverter} round trip with the byte array based conversion
+ * it used before, which serialized into a byte array and copied it into the payload and copied the
+ * payload data back into a byte array to parse it. Run with {@code -prof gc} to compare the
+ * allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class JacksonJsonPayloadConverterBenchmark {
+
+  @Param({"10", "1000", "10000"})
+  public int recordCount;
+
+  private JacksonJsonPayloadConverter converter;
+  private ObjectMapper mapper;
+  private Records value;
+
+  @Setup
+  public void setUp() {
+    converter = new JacksonJsonPayloadConverter();
+    mapper = new ObjectMapper();
+    mapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+    mapper.registerModule(new JavaTimeModule());
+    mapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+    Random random = new Random(0);
+    value = new Records();
+    value.records = new ArrayList<>(recordCount);
+    for (int i = 0; i < recordCount; i++) {
+      value.records.add(Record.newRandom(random, i));
+    }
+  }
+
+  @Benchmark
+  public Records converterRoundTrip() {
+    Payload payload = converter.toData(value).get();
+    return converter.fromData(payload, Records.class, Records.class);
+  }
+
+  @Benchmark
+  public Records byteArrayRoundTrip() throws IOException {
+    Payload payload =
+        Payload.newBuilder()
+            .putMetadata(EncodingKeys.METADATA_ENCODING_KEY, EncodingKeys.METADATA_ENCODING_JSON)
+            .setData(ByteString.copyFrom(mapper.writeValueAsBytes(value)))
+            .build();
+    @SuppressWarnings("deprecation")
+    JavaType reference = mapper.getTypeFactory().constructType(Records.class, Records.class);
+    return mapper.readValue(payload.getData().toByteArray(), reference);
+  }
+
+  public static class Records {
+    public List<Record> records;
+  }
+
+  public static class Record {
+    public int id;
+    public String status;
+    public String description;
+    public long amount;
+
+    static Record newRandom(Random random, int id) {
+      Record record = new Record();
+      record.id = id;
+      record.status = random.nextBoolean() ? "COMPLETED" : "PENDING";
+      record.description = "record " + id + " of customer " + random.nextInt(100);
+      record.amount = random.nextInt(1_000_000);
+      return record;
+    }
+  }
+}
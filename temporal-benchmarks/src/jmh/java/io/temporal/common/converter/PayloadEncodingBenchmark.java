@@ -0,0 +1,110 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.common.converter;
+
+import io.temporal.api.common.v1.Payload;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares encoding and decoding speed of a numeric heavy value by the JSON and CBOR payload
+ * converters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class PayloadEncodingBenchmark {
+
+  @Param({"jackson", "gson", "cbor"})
+  public String converter;
+
+  @Param({"10", "1000"})
+  public int sampleCount;
+
+  private PayloadConverter payloadConverter;
+  private Series value;
+  private Payload payload;
+
+  @Setup
+  public void setUp() {
+    switch (converter) {
+      case "jackson":
+        payloadConverter = new JacksonJsonPayloadConverter();
+        break;
+      case "gson":
+        payloadConverter = new GsonJsonPayloadConverter();
+        break;
+      case "cbor":
+        payloadConverter = new JacksonCborPayloadConverter();
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown converter: " + converter);
+    }
+    Random random = new Random(0);
+    value = new Series();
+    value.name = "cpu-utilization";
+    value.samples = new ArrayList<>(sampleCount);
+    for (int i = 0; i < sampleCount; i++) {
+      Sample sample = new Sample();
+      sample.timestamp = 1600000000000L + i * 1000L;
+      sample.value = random.nextDouble() * 100;
+      sample.count = random.nextInt(10_000);
+      value.samples.add(sample);
+    }
+    payload = payloadConverter.toData(value).get();
+  }
+
+  @Benchmark
+  public Payload encode() {
+    return payloadConverter.toData(value).get();
+  }
+
+  @Benchmark
+  public Series decode() {
+    return payloadConverter.fromData(payload, Series.class, Series.class);
+  }
+
+  public static class Series {
+    public String name;
+    public List<Sample> samples;
+  }
+
+  public static class Sample {
+    public long timestamp;
+    public double value;
+    public int count;
+  }
+}
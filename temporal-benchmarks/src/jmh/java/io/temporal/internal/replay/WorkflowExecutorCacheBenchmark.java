@@ -0,0 +1,129 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.internal.replay;
+
+import com.uber.m3.tally.NoopScope;
+import io.temporal.api.common.v1.Payloads;
+import io.temporal.api.common.v1.WorkflowExecution;
+import io.temporal.api.query.v1.WorkflowQuery;
+import io.temporal.api.workflowservice.v1.PollWorkflowTaskQueueResponse;
+import io.temporal.api.workflowservice.v1.PollWorkflowTaskQueueResponseOrBuilder;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the throughput of the sticky cache under contention. Every operation takes a random
+ * workflow run out of {@code runCount} for processing the way a sticky workflow task does, adds it
+ * to the cache on a miss and releases it. Use {@code -t} to change the number of concurrent
+ * threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Threads(8)
+public class WorkflowExecutorCacheBenchmark {
+
+  @Param({"600", "1200"})
+  public int cacheSize;
+
+  @Param({"1000"})
+  public int runCount;
+
+  private final NoopScope metricsScope = new NoopScope();
+  private WorkflowExecutorCache cache;
+  private PollWorkflowTaskQueueResponse[] stickyTasks;
+
+  @Setup
+  public void setUp() {
+    cache = new WorkflowExecutorCache(cacheSize, metricsScope);
+    stickyTasks = new PollWorkflowTaskQueueResponse[runCount];
+    for (int i = 0; i < runCount; i++) {
+      String runId = UUID.randomUUID().toString();
+      stickyTasks[i] =
+          PollWorkflowTaskQueueResponse.newBuilder()
+              .setWorkflowExecution(
+                  WorkflowExecution.newBuilder().setWorkflowId("workflow-" + i).setRunId(runId))
+              .build();
+      cache.addToCache(runId, new IdleRunTaskHandler());
+    }
+  }
+
+  @Benchmark
+  public WorkflowRunTaskHandler getOrCreate() throws Exception {
+    PollWorkflowTaskQueueResponse task =
+        stickyTasks[ThreadLocalRandom.current().nextInt(stickyTasks.length)];
+    String runId = task.getWorkflowExecution().getRunId();
+    AtomicBoolean createdNew = new AtomicBoolean();
+    WorkflowRunTaskHandler handler =
+        cache.getOrCreate(
+            task,
+            metricsScope,
+            () -> {
+              createdNew.set(true);
+              return new IdleRunTaskHandler();
+            });
+    if (createdNew.get()) {
+      cache.addToCache(runId, handler);
+    }
+    cache.markProcessingDone(runId);
+    return handler;
+  }
+
+  private static final class IdleRunTaskHandler implements WorkflowRunTaskHandler {
+
+    @Override
+    public WorkflowTaskResult handleWorkflowTask(
+        PollWorkflowTaskQueueResponseOrBuilder workflowTask) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Optional<Payloads> handleQueryWorkflowTask(
+        PollWorkflowTaskQueueResponseOrBuilder workflowTask, WorkflowQuery query) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long getEstimatedRetainedSize() {
+      return 0;
+    }
+
+    @Override
+    public void close() {}
+  }
+}
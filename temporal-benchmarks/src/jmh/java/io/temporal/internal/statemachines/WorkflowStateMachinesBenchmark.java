@@ -0,0 +1,139 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.internal.statemachines;
+
+import io.temporal.api.command.v1.Command;
+import io.temporal.api.command.v1.StartTimerCommandAttributes;
+import io.temporal.api.enums.v1.EventType;
+import io.temporal.api.history.v1.HistoryEvent;
+import io.temporal.api.history.v1.TimerStartedEventAttributes;
+import io.temporal.benchmarks.HistoryGenerator;
+import io.temporal.workflow.Functions;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Feeds a complete workflow history through {@link WorkflowStateMachines#handleEvent(HistoryEvent,
+ * boolean)} the way a full replay does, without workflow threads or data conversion. The history
+ * is recorded from a workflow that fires {@code timerCount} timers sequentially and the listener
+ * issues the same timer commands in the same order. The largest case produces a history of about
+ * 100k events. Run with {@code -prof gc} to compare the allocation rate of the event handling.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class WorkflowStateMachinesBenchmark {
+
+  @Param({"10", "100", "1000", "20000"})
+  public int timerCount;
+
+  private List<HistoryEvent> events;
+  private List<StartTimerCommandAttributes> timers;
+
+  @Setup
+  public void setUp() {
+    events = HistoryGenerator.timerSequence(timerCount).getEventsList();
+    timers = new ArrayList<>(timerCount);
+    for (HistoryEvent event : events) {
+      if (event.getEventType() == EventType.EVENT_TYPE_TIMER_STARTED) {
+        TimerStartedEventAttributes attributes = event.getTimerStartedEventAttributes();
+        timers.add(
+            StartTimerCommandAttributes.newBuilder()
+                .setTimerId(attributes.getTimerId())
+                .setStartToFireTimeout(attributes.getStartToFireTimeout())
+                .build());
+      }
+    }
+  }
+
+  @Benchmark
+  public List<Command> handleEvents() {
+    TimerSequenceListener listener = new TimerSequenceListener(timers);
+    WorkflowStateMachines stateMachines = new WorkflowStateMachines(listener);
+    listener.stateMachines = stateMachines;
+    stateMachines.setStartedIds(Long.MAX_VALUE, Long.MAX_VALUE);
+    int last = events.size() - 1;
+    for (int i = 0; i <= last; i++) {
+      stateMachines.handleEvent(events.get(i), i < last);
+    }
+    return stateMachines.takeCommands();
+  }
+
+  private static final class TimerSequenceListener implements EntityManagerListener {
+
+    private final List<StartTimerCommandAttributes> timers;
+    private final Queue<Functions.Proc> callbacks = new ArrayDeque<>();
+    private WorkflowStateMachines stateMachines;
+    private int nextTimer;
+
+    private TimerSequenceListener(List<StartTimerCommandAttributes> timers) {
+      this.timers = timers;
+    }
+
+    @Override
+    public void start(HistoryEvent startWorkflowEvent) {
+      callbacks.add(this::startNextTimer);
+    }
+
+    @Override
+    public void signal(HistoryEvent signalEvent) {}
+
+    @Override
+    public void cancel(HistoryEvent cancelEvent) {}
+
+    @Override
+    public void eventLoop() {
+      while (true) {
+        Functions.Proc callback = callbacks.poll();
+        if (callback == null) {
+          break;
+        }
+        callback.apply();
+      }
+    }
+
+    private void startNextTimer() {
+      if (nextTimer < timers.size()) {
+        stateMachines.newTimer(
+            timers.get(nextTimer++), (firedEvent) -> callbacks.add(this::startNextTimer));
+      } else {
+        stateMachines.completeWorkflow(Optional.empty());
+      }
+    }
+  }
+}
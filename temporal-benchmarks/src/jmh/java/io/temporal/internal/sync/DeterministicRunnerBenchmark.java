@@ -0,0 +1,105 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.internal.sync;
+
+import io.temporal.internal.common.VirtualThreads;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of {@link DeterministicRunner#runUntilAllBlocked(long)} switching control
+ * through {@code threadCount} workflow threads that are all unblocked by the same condition, which
+ * is dominated by the hand off between the workflow task thread and the workflow threads. The
+ * {@code virtual} thread pool requires a JVM that supports virtual threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class DeterministicRunnerBenchmark {
+
+  @Param({"1", "10", "100"})
+  public int threadCount;
+
+  @Param({"platform", "virtual"})
+  public String threadPool;
+
+  private volatile int tick;
+  private ExecutorService executor;
+  private DeterministicRunner runner;
+
+  @Setup
+  public void setUp() {
+    if ("virtual".equals(threadPool)) {
+      if (!VirtualThreads.isSupported()) {
+        throw new IllegalStateException("Virtual threads are not supported by the current JVM");
+      }
+      executor = VirtualThreads.newThreadPerTaskExecutor("workflow-benchmark-");
+    } else {
+      executor = Executors.newCachedThreadPool();
+    }
+    runner =
+        new DeterministicRunnerImpl(
+            executor,
+            null,
+            () -> {
+              for (int i = 1; i < threadCount; i++) {
+                WorkflowThread.newThread(this::awaitTicks, false).start();
+              }
+              awaitTicks();
+            });
+    runner.runUntilAllBlocked(DeterministicRunner.getDeadlockDetectionTimeout());
+  }
+
+  @Benchmark
+  public void runUntilAllBlocked() {
+    tick++;
+    runner.runUntilAllBlocked(DeterministicRunner.getDeadlockDetectionTimeout());
+  }
+
+  @TearDown
+  public void tearDown() throws InterruptedException {
+    runner.close();
+    executor.shutdownNow();
+    executor.awaitTermination(10, TimeUnit.SECONDS);
+  }
+
+  private void awaitTicks() {
+    while (true) {
+      int seen = tick;
+      WorkflowThread.await("tick", () -> tick != seen);
+    }
+  }
+}
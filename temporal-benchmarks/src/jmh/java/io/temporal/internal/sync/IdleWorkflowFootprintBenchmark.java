@@ -0,0 +1,156 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.internal.sync;
+
+import io.temporal.internal.common.VirtualThreads;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the footprint of idle cached workflows, whose workflow threads are parked in {@code
+ * WorkflowThreadContext.yield} until the next workflow task. Each iteration starts {@code
+ * workflowCount} workflows with {@code threadsPerWorkflow} workflow threads each, runs them until
+ * all their threads are blocked and reports per workflow:
+ *
+ * <ul>
+ *   <li>{@code retainedHeapBytesPerWorkflow}: growth of the used heap after a full GC. It includes
+ *       the stack chunks of parked virtual threads, but not the native stacks of platform threads.
+ *   <li>{@code liveThreadsPerWorkflow}: growth of the live platform thread count. Each of these
+ *       threads holds a native stack and a thread handle while its workflow is idle.
+ * </ul>
+ *
+ * <p>{@code platform} is the pooled platform threads used before virtual workflow threads, {@code
+ * virtual} requires a JVM that supports virtual threads. The time score only covers starting the
+ * workflows and the GCs, the footprint is in the secondary results.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class IdleWorkflowFootprintBenchmark {
+
+  @Param({"500"})
+  public int workflowCount;
+
+  @Param({"1", "10"})
+  public int threadsPerWorkflow;
+
+  @Param({"platform", "virtual"})
+  public String threadPool;
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Footprint {
+    public long retainedHeapBytesPerWorkflow;
+    public double liveThreadsPerWorkflow;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      retainedHeapBytesPerWorkflow = 0;
+      liveThreadsPerWorkflow = 0;
+    }
+  }
+
+  private final List<DeterministicRunner> runners = new ArrayList<>();
+  private ExecutorService executor;
+  private long usedHeapBefore;
+  private int liveThreadsBefore;
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    // A new executor per iteration, so the platform threads of the previous one are not reused.
+    if ("virtual".equals(threadPool)) {
+      if (!VirtualThreads.isSupported()) {
+        throw new IllegalStateException("Virtual threads are not supported by the current JVM");
+      }
+      executor = VirtualThreads.newThreadPerTaskExecutor("workflow-benchmark-");
+    } else {
+      executor = Executors.newCachedThreadPool();
+    }
+    usedHeapBefore = usedHeapAfterGc();
+    liveThreadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+  }
+
+  @Benchmark
+  public void parkIdleWorkflows(Footprint footprint) {
+    for (int i = 0; i < workflowCount; i++) {
+      DeterministicRunner runner =
+          new DeterministicRunnerImpl(
+              executor,
+              null,
+              () -> {
+                for (int j = 1; j < threadsPerWorkflow; j++) {
+                  WorkflowThread.newThread(IdleWorkflowFootprintBenchmark::awaitForever, false)
+                      .start();
+                }
+                awaitForever();
+              });
+      runner.runUntilAllBlocked(DeterministicRunner.getDeadlockDetectionTimeout());
+      runners.add(runner);
+    }
+    footprint.retainedHeapBytesPerWorkflow = (usedHeapAfterGc() - usedHeapBefore) / workflowCount;
+    int liveThreads = ManagementFactory.getThreadMXBean().getThreadCount() - liveThreadsBefore;
+    footprint.liveThreadsPerWorkflow = (double) liveThreads / workflowCount;
+  }
+
+  @TearDown(Level.Iteration)
+  public void tearDown() throws InterruptedException {
+    for (DeterministicRunner runner : runners) {
+      runner.close();
+    }
+    runners.clear();
+    executor.shutdownNow();
+    executor.awaitTermination(10, TimeUnit.SECONDS);
+  }
+
+  private static void awaitForever() {
+    WorkflowThread.await("idle", () -> false);
+  }
+
+  private static long usedHeapAfterGc() {
+    MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    // Repeated, as a single full GC doesn't always collect everything that is unreachable.
+    for (int i = 0; i < 3; i++) {
+      memory.gc();
+    }
+    return memory.getHeapMemoryUsage().getUsed();
+  }
+}
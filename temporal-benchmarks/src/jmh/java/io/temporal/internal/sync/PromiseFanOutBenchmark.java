@@ -0,0 +1,99 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.internal.sync;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link DeterministicRunner#runUntilAllBlocked(long)} for a fan-out of {@code branches}
+ * workflow threads that each block on their own promise while only one of the promises is
+ * completed per invocation. Only the thread waiting on the completed promise should be switched
+ * to, so the cost should not grow with the number of blocked branches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class PromiseFanOutBenchmark {
+
+  @Param({"100", "1000", "10000"})
+  public int branches;
+
+  private CompletablePromiseImpl<Void>[] promises;
+  private int next;
+  private ExecutorService executor;
+  private DeterministicRunner runner;
+
+  @Setup
+  @SuppressWarnings("unchecked")
+  public void setUp() {
+    promises = new CompletablePromiseImpl[branches];
+    executor = Executors.newCachedThreadPool();
+    runner =
+        new DeterministicRunnerImpl(
+            executor,
+            null,
+            () -> {
+              for (int i = 0; i < branches; i++) {
+                int branch = i;
+                WorkflowThread.newThread(() -> awaitPromises(branch), false).start();
+              }
+            });
+    runner.runUntilAllBlocked(DeterministicRunner.getDeadlockDetectionTimeout());
+  }
+
+  @Benchmark
+  public void completeOneBranch() {
+    promises[next].complete(null);
+    next = (next + 1) % branches;
+    runner.runUntilAllBlocked(DeterministicRunner.getDeadlockDetectionTimeout());
+  }
+
+  @TearDown
+  public void tearDown() throws InterruptedException {
+    runner.close();
+    executor.shutdownNow();
+    executor.awaitTermination(10, TimeUnit.SECONDS);
+  }
+
+  private void awaitPromises(int branch) {
+    while (true) {
+      CompletablePromiseImpl<Void> promise = new CompletablePromiseImpl<>();
+      promises[branch] = promise;
+      promise.get();
+    }
+  }
+}
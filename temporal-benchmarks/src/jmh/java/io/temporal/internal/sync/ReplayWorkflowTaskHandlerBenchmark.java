@@ -0,0 +1,206 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.internal.sync;
+
+import com.google.protobuf.ByteString;
+import com.uber.m3.tally.NoopScope;
+import io.temporal.api.common.v1.WorkflowExecution;
+import io.temporal.api.common.v1.WorkflowType;
+import io.temporal.api.enums.v1.EventType;
+import io.temporal.api.history.v1.History;
+import io.temporal.api.history.v1.HistoryEvent;
+import io.temporal.api.workflowservice.v1.PollWorkflowTaskQueueResponse;
+import io.temporal.benchmarks.BenchmarkWorkflows.ActivitySequenceWorkflowImpl;
+import io.temporal.benchmarks.HistoryGenerator;
+import io.temporal.common.interceptors.WorkerInterceptor;
+import io.temporal.internal.replay.ReplayWorkflowTaskHandler;
+import io.temporal.internal.replay.WorkflowExecutorCache;
+import io.temporal.internal.testservice.TestWorkflowService;
+import io.temporal.internal.worker.SingleWorkerOptions;
+import io.temporal.internal.worker.WorkflowTaskHandler;
+import io.temporal.serviceclient.WorkflowServiceStubs;
+import io.temporal.worker.WorkflowImplementationOptions;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures handling of the last workflow task of a workflow that executed {@code steps}
+ * activities.
+ *
+ * <ul>
+ *   <li>{@code full} - the task carries the whole history and the workflow is replayed from the
+ *       beginning, as on a cache miss or a non sticky worker.
+ *   <li>{@code sticky} - the workflow run is already cached up to the previous workflow task and
+ *       the task carries only the new events, as on a sticky task queue. The cache is primed before
+ *       every invocation outside of the measured time.
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ReplayWorkflowTaskHandlerBenchmark {
+
+  @Param({"10", "100"})
+  public int steps;
+
+  @Param({"full", "sticky"})
+  public String mode;
+
+  private TestWorkflowService testService;
+  private WorkflowServiceStubs service;
+  private ExecutorService workflowThreadPool;
+  private WorkflowExecutorCache cache;
+  private WorkflowTaskHandler taskHandler;
+  private PollWorkflowTaskQueueResponse primingTask;
+  private PollWorkflowTaskQueueResponse measuredTask;
+
+  @Setup
+  public void setUp() {
+    List<HistoryEvent> events = HistoryGenerator.activitySequence(steps).getEventsList();
+    List<Integer> startedIndexes = new ArrayList<>();
+    for (int i = 0; i < events.size(); i++) {
+      if (events.get(i).getEventType() == EventType.EVENT_TYPE_WORKFLOW_TASK_STARTED
+          && events.get(i + 1).getEventType() == EventType.EVENT_TYPE_WORKFLOW_TASK_COMPLETED) {
+        startedIndexes.add(i);
+      }
+    }
+    int tasks = startedIndexes.size();
+    int last = startedIndexes.get(tasks - 1);
+    int previous = startedIndexes.get(tasks - 2);
+    long previousStartedEventId = events.get(previous).getEventId();
+    long beforePreviousStartedEventId =
+        tasks > 2 ? events.get(startedIndexes.get(tasks - 3)).getEventId() : 0;
+
+    WorkflowExecution execution =
+        WorkflowExecution.newBuilder()
+            .setWorkflowId("benchmark")
+            .setRunId(UUID.randomUUID().toString())
+            .build();
+    WorkflowType workflowType =
+        events.get(0).getWorkflowExecutionStartedEventAttributes().getWorkflowType();
+    primingTask =
+        newTask(
+            execution,
+            workflowType,
+            events.subList(0, previous + 1),
+            beforePreviousStartedEventId);
+    if ("full".equals(mode)) {
+      measuredTask =
+          newTask(execution, workflowType, events.subList(0, last + 1), previousStartedEventId);
+    } else {
+      measuredTask =
+          newTask(
+              execution,
+              workflowType,
+              events.subList(previous + 1, last + 1),
+              previousStartedEventId);
+    }
+
+    testService = new TestWorkflowService(true);
+    service = testService.newClientStub();
+    workflowThreadPool = Executors.newCachedThreadPool();
+    cache = new WorkflowExecutorCache(16, new NoopScope());
+    SingleWorkerOptions options = SingleWorkerOptions.newBuilder().build();
+    POJOWorkflowImplementationFactory factory =
+        new POJOWorkflowImplementationFactory(
+            options, workflowThreadPool, new WorkerInterceptor[0], cache);
+    factory.registerWorkflowImplementationTypes(
+        WorkflowImplementationOptions.newBuilder().build(),
+        new Class<?>[] {ActivitySequenceWorkflowImpl.class});
+    taskHandler =
+        new ReplayWorkflowTaskHandler(
+            "benchmark",
+            factory,
+            cache,
+            options,
+            "benchmark-sticky",
+            Duration.ofSeconds(5),
+            service,
+            () -> false,
+            null);
+  }
+
+  @Setup(Level.Invocation)
+  public void primeCache() throws Exception {
+    if ("sticky".equals(mode)) {
+      handle(primingTask);
+    }
+  }
+
+  @Benchmark
+  public WorkflowTaskHandler.Result handleWorkflowTask() throws Exception {
+    return handle(measuredTask);
+  }
+
+  @TearDown
+  public void tearDown() throws InterruptedException {
+    cache.invalidateAll();
+    workflowThreadPool.shutdownNow();
+    workflowThreadPool.awaitTermination(10, TimeUnit.SECONDS);
+    service.shutdownNow();
+    service.awaitTermination(10, TimeUnit.SECONDS);
+    testService.close();
+  }
+
+  private WorkflowTaskHandler.Result handle(PollWorkflowTaskQueueResponse task) throws Exception {
+    WorkflowTaskHandler.Result result = taskHandler.handleWorkflowTask(task);
+    if (result.getTaskCompleted() == null) {
+      throw new IllegalStateException("Workflow task failed: " + result);
+    }
+    return result;
+  }
+
+  private static PollWorkflowTaskQueueResponse newTask(
+      WorkflowExecution execution,
+      WorkflowType workflowType,
+      List<HistoryEvent> events,
+      long previousStartedEventId) {
+    return PollWorkflowTaskQueueResponse.newBuilder()
+        .setTaskToken(ByteString.copyFromUtf8("benchmark"))
+        .setWorkflowExecution(execution)
+        .setWorkflowType(workflowType)
+        .setHistory(History.newBuilder().addAllEvents(events))
+        .setStartedEventId(events.get(events.size() - 1).getEventId())
+        .setPreviousStartedEventId(previousStartedEventId)
+        .setAttempt(1)
+        .build();
+  }
+}
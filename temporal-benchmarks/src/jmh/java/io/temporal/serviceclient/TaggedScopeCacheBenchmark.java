@@ -0,0 +1,103 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.serviceclient;
+
+import com.uber.m3.tally.RootScopeBuilder;
+import com.uber.m3.tally.Scope;
+import com.uber.m3.tally.StatsReporter;
+import com.uber.m3.util.Duration;
+import com.uber.m3.util.ImmutableMap;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.temporal.common.reporter.MicrometerClientStatsReporter;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares tagging a metrics scope with the workflow and activity types of a task through {@link
+ * Scope#tagged(Map)} against looking the tagged scope up in {@link TaggedScopeCache}, the way
+ * workers do it for every task. Run with {@code -PjmhProfilers=gc} to see the allocation rate.
+ */
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class TaggedScopeCacheBenchmark {
+
+  private static final int TYPE_COUNT = 10;
+
+  private final String[] workflowTypes = new String[TYPE_COUNT];
+  private final String[] activityTypes = new String[TYPE_COUNT];
+  private final TaggedScopeCache workflowTypeScopes =
+      new TaggedScopeCache(MetricsTag.WORKFLOW_TYPE);
+  private final TaggedScopeCache activityTypeScopes =
+      new TaggedScopeCache(MetricsTag.ACTIVITY_TYPE);
+  private Scope scope;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    for (int i = 0; i < TYPE_COUNT; i++) {
+      workflowTypes[i] = "Workflow" + i;
+      activityTypes[i] = "Activity" + i;
+    }
+    StatsReporter reporter = new MicrometerClientStatsReporter(new SimpleMeterRegistry());
+    scope = new RootScopeBuilder().reporter(reporter).reportEvery(Duration.ofSeconds(10));
+  }
+
+  @TearDown
+  public void tearDown() {
+    scope.close();
+  }
+
+  @Benchmark
+  public Scope tagged() {
+    int i = nextType();
+    return scope.tagged(
+        ImmutableMap.of(
+            MetricsTag.ACTIVITY_TYPE,
+            activityTypes[i],
+            MetricsTag.WORKFLOW_TYPE,
+            workflowTypes[i]));
+  }
+
+  @Benchmark
+  public Scope cached() {
+    int i = nextType();
+    return activityTypeScopes.tagged(
+        workflowTypeScopes.tagged(scope, workflowTypes[i]), activityTypes[i]);
+  }
+
+  private int nextType() {
+    next = (next + 1) % TYPE_COUNT;
+    return next;
+  }
+}
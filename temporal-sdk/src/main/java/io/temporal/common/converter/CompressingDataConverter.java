@@ -0,0 +1,145 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.common.converter;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.protobuf.ByteString;
+import com.uber.m3.tally.NoopScope;
+import com.uber.m3.tally.Scope;
+import com.uber.m3.tally.Stopwatch;
+import io.temporal.api.common.v1.Payload;
+import io.temporal.internal.metrics.MetricsType;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Objects;
+
+/**
+ * DataConverter that compresses the payloads produced by another DataConverter if their data is
+ * larger than a threshold. Compressed payloads are marked with the name of the {@link
+ * PayloadCompression} in their metadata and are transparently decompressed before being passed to
+ * the wrapped converter. Payloads without the mark are passed as is, so the converter can read
+ * payloads written before the compression was enabled.
+ *
+ * <p>All the workers and clients that can read compressed payloads, including the ones that replay
+ * histories containing them, must use this converter with the same {@link PayloadCompression}.
+ */
+public class CompressingDataConverter extends PayloadWrappingDataConverter {
+
+  public static final int DEFAULT_COMPRESSION_THRESHOLD_BYTES = 1024;
+
+  private final PayloadCompression compression;
+  private final ByteString compressionName;
+  private final int compressionThresholdBytes;
+  private final Scope metricsScope;
+
+  /**
+   * Creates a converter that compresses payloads larger than {@link
+   * #DEFAULT_COMPRESSION_THRESHOLD_BYTES} with {@link DeflatePayloadCompression}.
+   */
+  public CompressingDataConverter(DataConverter delegate) {
+    this(
+        delegate,
+        new DeflatePayloadCompression(),
+        DEFAULT_COMPRESSION_THRESHOLD_BYTES,
+        new NoopScope());
+  }
+
+  /**
+   * @param delegate converter that converts values to payloads and back
+   * @param compression algorithm used to compress and decompress payload data
+   * @param compressionThresholdBytes payloads with data of this size or larger are compressed
+   * @param metricsScope scope to report the compression latencies and the number of saved bytes
+   */
+  public CompressingDataConverter(
+      DataConverter delegate,
+      PayloadCompression compression,
+      int compressionThresholdBytes,
+      Scope metricsScope) {
+    super(delegate);
+    if (compressionThresholdBytes < 0) {
+      throw new IllegalArgumentException(
+          "negative compressionThresholdBytes: " + compressionThresholdBytes);
+    }
+    this.compression = Objects.requireNonNull(compression);
+    this.compressionName = ByteString.copyFrom(compression.getName(), UTF_8);
+    this.compressionThresholdBytes = compressionThresholdBytes;
+    this.metricsScope = Objects.requireNonNull(metricsScope);
+  }
+
+  @Override
+  Payload wrap(Payload payload) {
+    ByteString data = payload.getData();
+    if (data.size() < compressionThresholdBytes
+        || payload.containsMetadata(EncodingKeys.METADATA_COMPRESSION_KEY)) {
+      return payload;
+    }
+    ByteString compressed;
+    Stopwatch sw = metricsScope.timer(MetricsType.PAYLOAD_COMPRESSION_LATENCY).start();
+    try {
+      compressed = compression.compress(data);
+    } catch (IOException e) {
+      throw new DataConverterException(e);
+    } finally {
+      sw.stop();
+    }
+    // Incompressible data, for example already compressed or encrypted.
+    if (compressed.size() >= data.size()) {
+      return payload;
+    }
+    metricsScope.counter(MetricsType.PAYLOAD_COMPRESSED_COUNTER).inc(1);
+    metricsScope
+        .counter(MetricsType.PAYLOAD_COMPRESSION_BYTES_SAVED_COUNTER)
+        .inc(data.size() - compressed.size());
+    return payload
+        .toBuilder()
+        .setData(compressed)
+        .putMetadata(EncodingKeys.METADATA_COMPRESSION_KEY, compressionName)
+        .build();
+  }
+
+  @Override
+  Payload unwrap(Payload payload, Type valueType) {
+    ByteString name = payload.getMetadataMap().get(EncodingKeys.METADATA_COMPRESSION_KEY);
+    if (name == null) {
+      return payload;
+    }
+    if (!name.equals(compressionName)) {
+      throw new DataConverterException(
+          "Unknown payload compression: " + name.toString(UTF_8),
+          payload,
+          new Type[] {valueType});
+    }
+    ByteString decompressed;
+    Stopwatch sw = metricsScope.timer(MetricsType.PAYLOAD_DECOMPRESSION_LATENCY).start();
+    try {
+      decompressed = compression.decompress(payload.getData());
+    } catch (IOException e) {
+      throw new DataConverterException(payload, new Type[] {valueType}, e);
+    } finally {
+      sw.stop();
+    }
+    return payload
+        .toBuilder()
+        .setData(decompressed)
+        .removeMetadata(EncodingKeys.METADATA_COMPRESSION_KEY)
+        .build();
+  }
+}
@@ -79,6 +79,21 @@ public class DefaultDataConverter implements DataConverter {
     return new DefaultDataConverter(DEFAULT_PAYLOAD_CONVERTERS);
   }
 
+  /**
+   * Creates a new instance of {@code DefaultDataConverter} that writes values that are not null,
+   * byte arrays or protobuf messages as CBOR using {@link JacksonCborPayloadConverter} instead of
+   * JSON. It reads payloads written by the default instance. Requires {@code
+   * com.fasterxml.jackson.dataformat:jackson-dataformat-cbor} on the classpath.
+   */
+  public static DefaultDataConverter newCborInstance() {
+    return new DefaultDataConverter(
+        new NullPayloadConverter(),
+        new ByteArrayPayloadConverter(),
+        new ProtobufJsonPayloadConverter(),
+        new JacksonCborPayloadConverter(),
+        new JacksonJsonPayloadConverter());
+  }
+
   /**
    * Creates instance from ordered array of converters. When converting an object to payload the
    * array of converters is iterated from the beginning until one of the converters successfully
@@ -0,0 +1,72 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.common.converter;
+
+import com.google.protobuf.ByteString;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/** {@link PayloadCompression} that uses the {@link Deflater} of the JDK. */
+public final class DeflatePayloadCompression implements PayloadCompression {
+
+  private final int level;
+
+  /** Uses {@link Deflater#BEST_SPEED} as payloads are compressed on the hot path. */
+  public DeflatePayloadCompression() {
+    this(Deflater.BEST_SPEED);
+  }
+
+  /** @param level compression level from 0 to 9, see {@link Deflater#setLevel(int)} */
+  public DeflatePayloadCompression(int level) {
+    if ((level < 0 || level > 9) && level != Deflater.DEFAULT_COMPRESSION) {
+      throw new IllegalArgumentException("Invalid compression level: " + level);
+    }
+    this.level = level;
+  }
+
+  @Override
+  public String getName() {
+    return EncodingKeys.METADATA_COMPRESSION_DEFLATE_NAME;
+  }
+
+  @Override
+  public ByteString compress(ByteString data) throws IOException {
+    Deflater deflater = new Deflater(level);
+    try {
+      ByteString.Output output = ByteString.newOutput(Math.max(data.size() / 2, 256));
+      try (DeflaterOutputStream deflaterOutput = new DeflaterOutputStream(output, deflater)) {
+        data.writeTo(deflaterOutput);
+      }
+      return output.toByteString();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  @Override
+  public ByteString decompress(ByteString data) throws IOException {
+    try (InputStream input = new InflaterInputStream(data.newInput())) {
+      return ByteString.readFrom(input);
+    }
+  }
+}
@@ -19,15 +19,30 @@
 
 package io.temporal.common.converter;
 
+import com.google.protobuf.MessageLite;
 import io.temporal.api.common.v1.Payloads;
 import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+/**
+ * Values that are either created from Java objects and serialized on demand by {@link
+ * #toPayloads()}, or created from payloads and deserialized on demand by {@link #get(int, Class,
+ * Type)}. Payloads that are never accessed are never deserialized. Immutable results (strings,
+ * boxed primitives, enums and protobuf messages) are remembered per requested type and shared by
+ * repeated calls. Any other result is deserialized again on every call, so callers never share a
+ * mutable object.
+ */
 public final class EncodedValues implements Values {
   private Optional<Payloads> payloads;
   private DataConverter converter;
   private final Object[] values;
+  // Immutable deserialized payloads, indexed by the payload index. Concurrent callers may decode
+  // the same payload twice, which is harmless as both results are equal and immutable.
+  private volatile AtomicReferenceArray<Decoded> decoded;
 
   public EncodedValues(Optional<Payloads> payloads, DataConverter converter) {
     this.payloads = Objects.requireNonNull(payloads);
@@ -55,6 +70,7 @@ public final class EncodedValues implements Values {
 
   public void setDataConverter(DataConverter converter) {
     this.converter = Objects.requireNonNull(converter);
+    decoded = null;
   }
 
   @Override
@@ -86,7 +102,57 @@ public final class EncodedValues implements Values {
       if (converter == null) {
         throw new IllegalStateException("converter not set");
       }
-      return converter.fromPayloads(index, payloads, parameterType, genericParameterType);
+      int size = getSize();
+      if (index >= size) {
+        // Default value of the type, to make adding arguments a backwards compatible change
+        return converter.fromPayloads(index, payloads, parameterType, genericParameterType);
+      }
+      AtomicReferenceArray<Decoded> cache = decoded;
+      if (cache == null) {
+        cache = new AtomicReferenceArray<>(size);
+        decoded = cache;
+      }
+      Decoded cached = cache.get(index);
+      if (cached != null && genericParameterType.equals(cached.type)) {
+        @SuppressWarnings("unchecked")
+        T result = (T) cached.value;
+        return result;
+      }
+      T result = converter.fromPayloads(index, payloads, parameterType, genericParameterType);
+      if (isImmutable(result)) {
+        cache.set(index, new Decoded(result, genericParameterType));
+      }
+      return result;
+    }
+  }
+
+  private static boolean isImmutable(Object value) {
+    if (value == null) {
+      return false;
+    }
+    Class<?> type = value.getClass();
+    return type == String.class
+        || type == Boolean.class
+        || type == Character.class
+        || type == Byte.class
+        || type == Short.class
+        || type == Integer.class
+        || type == Long.class
+        || type == Float.class
+        || type == Double.class
+        || type == BigInteger.class
+        || type == BigDecimal.class
+        || value instanceof Enum
+        || value instanceof MessageLite;
+  }
+
+  private static final class Decoded {
+    private final Object value;
+    private final Type type;
+
+    private Decoded(Object value, Type type) {
+      this.value = value;
+      this.type = type;
     }
   }
 }
@@ -25,6 +25,21 @@ import java.nio.charset.StandardCharsets;
 class EncodingKeys {
   static final String METADATA_ENCODING_KEY = "encoding";
 
+  /**
+   * Set by {@link CompressingDataConverter} to the name of the {@link PayloadCompression} that
+   * compressed the payload data. The encoding of a compressed payload is left unchanged.
+   */
+  static final String METADATA_COMPRESSION_KEY = "compression";
+
+  static final String METADATA_COMPRESSION_DEFLATE_NAME = "deflate";
+
+  /**
+   * Set by {@link OffloadingDataConverter} to the {@link PayloadStore} key of the payload data. A
+   * payload with this key has empty data and keeps the rest of the metadata of the original
+   * payload.
+   */
+  static final String METADATA_PAYLOAD_STORE_KEY = "payload-store-key";
+
   static final String METADATA_ENCODING_NULL_NAME = "binary/null";
   static final ByteString METADATA_ENCODING_NULL =
       ByteString.copyFrom(METADATA_ENCODING_NULL_NAME, StandardCharsets.UTF_8);
@@ -44,4 +59,8 @@ class EncodingKeys {
   static final String METADATA_ENCODING_PROTOBUF_NAME = "binary/protobuf";
   static final ByteString METADATA_ENCODING_PROTOBUF =
       ByteString.copyFrom(METADATA_ENCODING_PROTOBUF_NAME, StandardCharsets.UTF_8);
+
+  static final String METADATA_ENCODING_CBOR_NAME = "binary/cbor";
+  static final ByteString METADATA_ENCODING_CBOR =
+      ByteString.copyFrom(METADATA_ENCODING_CBOR_NAME, StandardCharsets.UTF_8);
 }
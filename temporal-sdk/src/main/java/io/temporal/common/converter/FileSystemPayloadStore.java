@@ -0,0 +1,107 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.common.converter;
+
+import com.google.protobuf.ByteString;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * {@link PayloadStore} that keeps each payload in a file of a local or shared directory. Files are
+ * named by the SHA-256 digest of their content, so storing the same data twice, for example when a
+ * workflow task is retried, doesn't create another file. All the workers and clients that read the
+ * payloads must have access to the directory. Nothing is ever deleted by the store.
+ */
+public final class FileSystemPayloadStore implements PayloadStore {
+
+  private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}");
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  private final Path directory;
+
+  /** @param directory directory to keep the payload files in, created if it doesn't exist */
+  public FileSystemPayloadStore(Path directory) throws IOException {
+    this.directory = Files.createDirectories(Objects.requireNonNull(directory));
+  }
+
+  @Override
+  public String put(ByteString data) throws IOException {
+    String key = digest(data);
+    Path file = directory.resolve(key);
+    if (Files.exists(file)) {
+      return key;
+    }
+    // Write into a temporary file first, so a concurrent reader never sees a partial file.
+    Path tempFile = Files.createTempFile(directory, key, ".tmp");
+    try {
+      try (OutputStream output = Files.newOutputStream(tempFile)) {
+        data.writeTo(output);
+      }
+      try {
+        Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+    return key;
+  }
+
+  @Override
+  public ByteString get(String key) throws IOException {
+    // The key comes from the payload metadata, don't let it point outside of the directory.
+    if (!KEY_PATTERN.matcher(key).matches()) {
+      throw new IOException("Invalid payload key: " + key);
+    }
+    try (InputStream input = Files.newInputStream(directory.resolve(key))) {
+      return ByteString.readFrom(input);
+    }
+  }
+
+  private static String digest(ByteString data) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+    for (ByteBuffer buffer : data.asReadOnlyByteBufferList()) {
+      digest.update(buffer);
+    }
+    byte[] hash = digest.digest();
+    char[] result = new char[hash.length * 2];
+    for (int i = 0; i < hash.length; i++) {
+      result[i * 2] = HEX_DIGITS[(hash[i] >> 4) & 0xF];
+      result[i * 2 + 1] = HEX_DIGITS[hash[i] & 0xF];
+    }
+    return new String(result);
+  }
+}
@@ -0,0 +1,52 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.common.converter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+
+/**
+ * Converts values to and from <a href="https://cbor.io">CBOR</a>, a binary encoding of the JSON
+ * data model, with Jackson. CBOR payloads are usually smaller and faster to parse than JSON,
+ * especially for values with many numeric fields. Values are mapped exactly as by {@link
+ * JacksonJsonPayloadConverter}.
+ *
+ * <p>The converter is opt-in and requires {@code
+ * com.fasterxml.jackson.dataformat:jackson-dataformat-cbor} on the classpath. Use {@link
+ * DefaultDataConverter#newCborInstance()} to write CBOR. It keeps the JSON converter for reading
+ * {@code json/plain} payloads, so an existing workflow keeps replaying after its workers switch
+ * from JSON to CBOR. Workers and clients that don't have this converter can't read the payloads it
+ * writes.
+ */
+public class JacksonCborPayloadConverter extends JacksonPayloadConverter {
+
+  public JacksonCborPayloadConverter() {
+    this(JacksonJsonPayloadConverter.configureDefaults(new CBORMapper()));
+  }
+
+  /** @param mapper mapper created with a {@link CBORFactory} */
+  public JacksonCborPayloadConverter(ObjectMapper mapper) {
+    super(mapper, EncodingKeys.METADATA_ENCODING_CBOR_NAME);
+    if (!(mapper.getFactory() instanceof CBORFactory)) {
+      throw new IllegalArgumentException("mapper is not created with a CBORFactory");
+    }
+  }
+}
@@ -21,65 +21,27 @@ package io.temporal.common.converter;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import com.google.protobuf.ByteString;
-import io.temporal.api.common.v1.Payload;
-import java.io.IOException;
-import java.lang.reflect.Type;
-import java.util.Optional;
 
-public class JacksonJsonPayloadConverter implements PayloadConverter {
-
-  private final ObjectMapper mapper;
+/** Converts values to and from JSON payloads with Jackson. */
+public class JacksonJsonPayloadConverter extends JacksonPayloadConverter {
 
   public JacksonJsonPayloadConverter() {
-    mapper = new ObjectMapper();
-    mapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
-    mapper.registerModule(new JavaTimeModule());
-    mapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+    this(configureDefaults(new ObjectMapper()));
   }
 
+  /** @param mapper mapper to use */
   public JacksonJsonPayloadConverter(ObjectMapper mapper) {
-    this.mapper = mapper;
-  }
-
-  @Override
-  public String getEncodingType() {
-    return EncodingKeys.METADATA_ENCODING_JSON_NAME;
+    super(mapper, EncodingKeys.METADATA_ENCODING_JSON_NAME);
   }
 
-  @Override
-  public Optional<Payload> toData(Object value) throws DataConverterException {
-    try {
-      byte[] serialized = mapper.writeValueAsBytes(value);
-      return Optional.of(
-          Payload.newBuilder()
-              .putMetadata(EncodingKeys.METADATA_ENCODING_KEY, EncodingKeys.METADATA_ENCODING_JSON)
-              .setData(ByteString.copyFrom(serialized))
-              .build());
-
-    } catch (JsonProcessingException e) {
-      throw new DataConverterException(e);
-    }
-  }
-
-  @Override
-  public <T> T fromData(Payload content, Class<T> valueClass, Type valueType)
-      throws DataConverterException {
-    ByteString data = content.getData();
-    if (data.isEmpty()) {
-      return null;
-    }
-    try {
-      @SuppressWarnings("deprecation")
-      JavaType reference = mapper.getTypeFactory().constructType(valueType, valueClass);
-      return mapper.readValue(content.getData().toByteArray(), reference);
-    } catch (IOException e) {
-      throw new DataConverterException(e);
-    }
+  /** Applies the configuration shared by the default JSON and binary mappers. */
+  static ObjectMapper configureDefaults(ObjectMapper mapper) {
+    mapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+    mapper.registerModule(new JavaTimeModule());
+    mapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+    return mapper;
   }
 }
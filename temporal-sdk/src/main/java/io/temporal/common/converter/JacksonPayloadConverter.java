@@ -0,0 +1,85 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.common.converter;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.ByteString;
+import io.temporal.api.common.v1.Payload;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Base of the payload converters that use a Jackson {@link ObjectMapper}. Values are serialized
+ * directly into the payload {@link ByteString} and parsed directly from it without intermediate
+ * byte arrays.
+ */
+abstract class JacksonPayloadConverter implements PayloadConverter {
+
+  private final ObjectMapper mapper;
+  private final String encodingType;
+  private final ByteString encoding;
+
+  JacksonPayloadConverter(ObjectMapper mapper, String encodingType) {
+    this.mapper = Objects.requireNonNull(mapper);
+    this.encodingType = encodingType;
+    this.encoding = ByteString.copyFrom(encodingType, StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public String getEncodingType() {
+    return encodingType;
+  }
+
+  @Override
+  public Optional<Payload> toData(Object value) throws DataConverterException {
+    try {
+      ByteString.Output output = ByteString.newOutput();
+      mapper.writeValue(output, value);
+      return Optional.of(
+          Payload.newBuilder()
+              .putMetadata(EncodingKeys.METADATA_ENCODING_KEY, encoding)
+              .setData(output.toByteString())
+              .build());
+
+    } catch (IOException e) {
+      throw new DataConverterException(e);
+    }
+  }
+
+  @Override
+  public <T> T fromData(Payload content, Class<T> valueClass, Type valueType)
+      throws DataConverterException {
+    ByteString data = content.getData();
+    if (data.isEmpty()) {
+      return null;
+    }
+    try {
+      @SuppressWarnings("deprecation")
+      JavaType reference = mapper.getTypeFactory().constructType(valueType, valueClass);
+      return mapper.readValue(data.newInput(), reference);
+    } catch (IOException e) {
+      throw new DataConverterException(e);
+    }
+  }
+}
@@ -0,0 +1,183 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.common.converter;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.protobuf.ByteString;
+import com.uber.m3.tally.NoopScope;
+import com.uber.m3.tally.Scope;
+import com.uber.m3.tally.Stopwatch;
+import io.temporal.api.common.v1.Payload;
+import io.temporal.internal.metrics.MetricsType;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * DataConverter that keeps large payloads out of workflow histories. Data of the payloads produced
+ * by another DataConverter that is larger than a threshold is put into a {@link PayloadStore} and
+ * the payload is replaced by a reference payload that contains only the store key and the original
+ * metadata. References are resolved before the payloads are passed to the wrapped converter.
+ * Payloads that are not references are passed as is.
+ *
+ * <p>Resolved and stored data is kept in an LRU cache bounded by its total size, so replaying a
+ * workflow on the same worker doesn't fetch the same data again. Wrap a {@link
+ * CompressingDataConverter} to compress the stored data.
+ *
+ * <p>All the workers and clients that read the payloads must use this converter with a store that
+ * has the same content.
+ */
+public class OffloadingDataConverter extends PayloadWrappingDataConverter {
+
+  public static final int DEFAULT_OFFLOAD_THRESHOLD_BYTES = 256 * 1024;
+  public static final long DEFAULT_CACHE_MAX_BYTES = 64 * 1024 * 1024;
+
+  private final PayloadStore store;
+  private final int offloadThresholdBytes;
+  private final Scope metricsScope;
+  private final DataCache cache;
+
+  /**
+   * Creates a converter that offloads payloads larger than {@link #DEFAULT_OFFLOAD_THRESHOLD_BYTES}
+   * and caches up to {@link #DEFAULT_CACHE_MAX_BYTES} of their data.
+   */
+  public OffloadingDataConverter(DataConverter delegate, PayloadStore store) {
+    this(
+        delegate, store, DEFAULT_OFFLOAD_THRESHOLD_BYTES, DEFAULT_CACHE_MAX_BYTES, new NoopScope());
+  }
+
+  /**
+   * @param delegate converter that converts values to payloads and back
+   * @param store store to keep the data of the large payloads in
+   * @param offloadThresholdBytes payloads with data of this size or larger are offloaded
+   * @param cacheMaxBytes maximum total size of the data cached by the converter, 0 disables the
+   *     cache
+   * @param metricsScope scope to report the store latencies and the cache hits and misses
+   */
+  public OffloadingDataConverter(
+      DataConverter delegate,
+      PayloadStore store,
+      int offloadThresholdBytes,
+      long cacheMaxBytes,
+      Scope metricsScope) {
+    super(delegate);
+    if (offloadThresholdBytes < 0) {
+      throw new IllegalArgumentException(
+          "negative offloadThresholdBytes: " + offloadThresholdBytes);
+    }
+    if (cacheMaxBytes < 0) {
+      throw new IllegalArgumentException("negative cacheMaxBytes: " + cacheMaxBytes);
+    }
+    this.store = Objects.requireNonNull(store);
+    this.offloadThresholdBytes = offloadThresholdBytes;
+    this.metricsScope = Objects.requireNonNull(metricsScope);
+    this.cache = new DataCache(cacheMaxBytes);
+  }
+
+  @Override
+  Payload wrap(Payload payload) {
+    ByteString data = payload.getData();
+    if (data.size() < offloadThresholdBytes
+        || payload.containsMetadata(EncodingKeys.METADATA_PAYLOAD_STORE_KEY)) {
+      return payload;
+    }
+    String key;
+    Stopwatch sw = metricsScope.timer(MetricsType.PAYLOAD_STORE_PUT_LATENCY).start();
+    try {
+      key = store.put(data);
+    } catch (IOException e) {
+      throw new DataConverterException("Failure storing payload data", e);
+    } finally {
+      sw.stop();
+    }
+    metricsScope.counter(MetricsType.PAYLOAD_OFFLOADED_COUNTER).inc(1);
+    cache.put(key, data);
+    return payload
+        .toBuilder()
+        .setData(ByteString.EMPTY)
+        .putMetadata(EncodingKeys.METADATA_PAYLOAD_STORE_KEY, ByteString.copyFrom(key, UTF_8))
+        .build();
+  }
+
+  @Override
+  Payload unwrap(Payload payload, Type valueType) {
+    ByteString keyBytes = payload.getMetadataMap().get(EncodingKeys.METADATA_PAYLOAD_STORE_KEY);
+    if (keyBytes == null) {
+      return payload;
+    }
+    String key = keyBytes.toString(UTF_8);
+    ByteString data = cache.get(key);
+    if (data != null) {
+      metricsScope.counter(MetricsType.PAYLOAD_STORE_CACHE_HIT).inc(1);
+    } else {
+      metricsScope.counter(MetricsType.PAYLOAD_STORE_CACHE_MISS).inc(1);
+      Stopwatch sw = metricsScope.timer(MetricsType.PAYLOAD_STORE_GET_LATENCY).start();
+      try {
+        data = store.get(key);
+      } catch (IOException e) {
+        throw new DataConverterException(payload, new Type[] {valueType}, e);
+      } finally {
+        sw.stop();
+      }
+      cache.put(key, data);
+    }
+    return payload
+        .toBuilder()
+        .setData(data)
+        .removeMetadata(EncodingKeys.METADATA_PAYLOAD_STORE_KEY)
+        .build();
+  }
+
+  /** LRU cache of the payload data bounded by the total data size. */
+  private static final class DataCache {
+    private final long maxBytes;
+    private final LinkedHashMap<String, ByteString> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    private DataCache(long maxBytes) {
+      this.maxBytes = maxBytes;
+    }
+
+    private synchronized ByteString get(String key) {
+      return entries.get(key);
+    }
+
+    private synchronized void put(String key, ByteString data) {
+      if (data.size() > maxBytes) {
+        return;
+      }
+      ByteString replaced = entries.put(key, data);
+      if (replaced != null) {
+        bytes -= replaced.size();
+      }
+      bytes += data.size();
+      Iterator<Map.Entry<String, ByteString>> iterator = entries.entrySet().iterator();
+      while (bytes > maxBytes) {
+        Map.Entry<String, ByteString> eldest = iterator.next();
+        bytes -= eldest.getValue().size();
+        iterator.remove();
+      }
+    }
+  }
+}
@@ -17,25 +17,26 @@
  *  permissions and limitations under the License.
  */
 
-package io.temporal.internal.worker;
+package io.temporal.common.converter;
 
-import java.util.concurrent.RejectedExecutionException;
-import java.util.concurrent.RejectedExecutionHandler;
-import java.util.concurrent.ThreadPoolExecutor;
+import com.google.protobuf.ByteString;
+import java.io.IOException;
 
-class BlockCallerPolicy implements RejectedExecutionHandler {
+/**
+ * Compression algorithm used by {@link CompressingDataConverter} to compress payload data. For
+ * example an LZ4 or Zstandard implementation can be plugged in without adding a dependency to the
+ * SDK.
+ */
+public interface PayloadCompression {
+
+  /**
+   * @return name of the algorithm that is stored in the metadata of the compressed payloads and
+   *     used to find the algorithm that decompresses them. Must not change once payloads
+   *     compressed with it are persisted.
+   */
+  String getName();
+
+  ByteString compress(ByteString data) throws IOException;
 
-  @Override
-  public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
-    // Without this check the call hangs forever on the queue put.
-    if (executor.isShutdown()) {
-      throw new RejectedExecutionException("Executor is shutdown");
-    }
-    try {
-      // block until there's room
-      executor.getQueue().put(r);
-    } catch (InterruptedException e) {
-      throw new RejectedExecutionException("Unexpected InterruptedException", e);
-    }
-  }
+  ByteString decompress(ByteString data) throws IOException;
 }
@@ -0,0 +1,45 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.common.converter;
+
+import com.google.protobuf.ByteString;
+import java.io.IOException;
+
+/**
+ * Blob store used by {@link OffloadingDataConverter} to keep large payload data out of workflow
+ * histories. Implementations must be thread safe and keep the stored data for as long as any
+ * history referencing it can be replayed.
+ */
+public interface PayloadStore {
+
+  /**
+   * Stores the data.
+   *
+   * @return key to retrieve the data with, at most a few hundred bytes long
+   */
+  String put(ByteString data) throws IOException;
+
+  /**
+   * @param key key returned by {@link #put(ByteString)}
+   * @return stored data
+   * @throws IOException if the data can't be retrieved, including when there is no data for the key
+   */
+  ByteString get(String key) throws IOException;
+}
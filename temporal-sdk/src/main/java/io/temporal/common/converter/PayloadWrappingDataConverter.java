@@ -0,0 +1,94 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.common.converter;
+
+import io.temporal.api.common.v1.Payload;
+import io.temporal.api.common.v1.Payloads;
+import java.lang.reflect.Type;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Base of the DataConverters that transform each payload produced by another DataConverter and
+ * restore it before passing it back. Payloads that are not transformed are passed as is without
+ * copying the {@link Payloads} they belong to.
+ */
+abstract class PayloadWrappingDataConverter implements DataConverter {
+
+  private final DataConverter delegate;
+
+  PayloadWrappingDataConverter(DataConverter delegate) {
+    this.delegate = Objects.requireNonNull(delegate);
+  }
+
+  /** @return transformed payload or the same instance if the payload is left as is */
+  abstract Payload wrap(Payload payload);
+
+  /**
+   * @param valueType type of the value the payload is converted to, used in the errors
+   * @return restored payload or the same instance if the payload was not transformed
+   */
+  abstract Payload unwrap(Payload payload, Type valueType);
+
+  @Override
+  public <T> Optional<Payload> toPayload(T value) {
+    return delegate.toPayload(value).map(this::wrap);
+  }
+
+  @Override
+  public <T> T fromPayload(Payload payload, Class<T> valueClass, Type valueType) {
+    return delegate.fromPayload(unwrap(payload, valueType), valueClass, valueType);
+  }
+
+  @Override
+  public Optional<Payloads> toPayloads(Object... values) throws DataConverterException {
+    Optional<Payloads> payloads = delegate.toPayloads(values);
+    if (!payloads.isPresent()) {
+      return payloads;
+    }
+    Payloads.Builder result = null;
+    Payloads original = payloads.get();
+    for (int i = 0; i < original.getPayloadsCount(); i++) {
+      Payload payload = original.getPayloads(i);
+      Payload wrapped = wrap(payload);
+      if (wrapped != payload) {
+        if (result == null) {
+          result = original.toBuilder();
+        }
+        result.setPayloads(i, wrapped);
+      }
+    }
+    return result == null ? payloads : Optional.of(result.build());
+  }
+
+  @Override
+  public <T> T fromPayloads(
+      int index, Optional<Payloads> content, Class<T> parameterType, Type genericParameterType)
+      throws DataConverterException {
+    if (content.isPresent() && index < content.get().getPayloadsCount()) {
+      Payload payload = content.get().getPayloads(index);
+      Payload unwrapped = unwrap(payload, genericParameterType);
+      if (unwrapped != payload) {
+        content = Optional.of(content.get().toBuilder().setPayloads(index, unwrapped).build());
+      }
+    }
+    return delegate.fromPayloads(index, content, parameterType, genericParameterType);
+  }
+}
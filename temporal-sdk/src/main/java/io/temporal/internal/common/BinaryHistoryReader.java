@@ -0,0 +1,120 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.internal.common;
+
+import com.google.common.io.ByteStreams;
+import com.google.protobuf.CodedInputStream;
+import io.temporal.api.history.v1.HistoryEvent;
+import io.temporal.common.converter.DataConverterException;
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads history events written by {@link BinaryHistoryWriter} one by one from a buffered stream, so
+ * only the event being parsed is held in memory.
+ */
+public final class BinaryHistoryReader implements Iterator<HistoryEvent>, Closeable {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final InputStream stream;
+  private final CodedInputStream input;
+
+  public BinaryHistoryReader(Path file) throws IOException {
+    InputStream in = new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE);
+    try {
+      byte[] header = new byte[BinaryHistoryWriter.HEADER_SIZE];
+      byte flags = readFlags(header, ByteStreams.read(in, header, 0, header.length));
+      if ((flags & BinaryHistoryWriter.FLAG_GZIP) != 0) {
+        in = new GZIPInputStream(in, BUFFER_SIZE);
+      }
+    } catch (IOException | RuntimeException e) {
+      in.close();
+      throw e;
+    }
+    stream = in;
+    input = CodedInputStream.newInstance(stream);
+  }
+
+  /** @return true if the file starts with the binary history header */
+  public static boolean isBinaryHistory(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      ByteBuffer magic = ByteBuffer.allocate(BinaryHistoryWriter.MAGIC.length);
+      while (magic.hasRemaining() && channel.read(magic) >= 0) {}
+      return Arrays.equals(magic.array(), BinaryHistoryWriter.MAGIC);
+    }
+  }
+
+  private static byte readFlags(byte[] header, int length) {
+    if (length < BinaryHistoryWriter.HEADER_SIZE
+        || !Arrays.equals(
+            Arrays.copyOf(header, BinaryHistoryWriter.MAGIC.length), BinaryHistoryWriter.MAGIC)) {
+      throw new DataConverterException("Not a binary history file");
+    }
+    byte version = header[BinaryHistoryWriter.MAGIC.length];
+    if (version != BinaryHistoryWriter.VERSION) {
+      throw new DataConverterException("Unsupported binary history version: " + version);
+    }
+    return header[BinaryHistoryWriter.MAGIC.length + 1];
+  }
+
+  @Override
+  public boolean hasNext() {
+    try {
+      return !input.isAtEnd();
+    } catch (IOException e) {
+      throw new DataConverterException("Failed to read binary history", e);
+    }
+  }
+
+  @Override
+  public HistoryEvent next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    try {
+      // The size limit applies to all bytes read by a stream based input, not to a single event.
+      input.resetSizeCounter();
+      int length = input.readRawVarint32();
+      int oldLimit = input.pushLimit(length);
+      HistoryEvent event = HistoryEvent.parseFrom(input);
+      input.popLimit(oldLimit);
+      return event;
+    } catch (IOException e) {
+      throw new DataConverterException("Failed to read binary history", e);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    stream.close();
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.internal.common;
+
+import io.temporal.api.history.v1.HistoryEvent;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes history events in the compact binary history format read by {@link
+ * BinaryHistoryReader}. The format is a header of {@link #MAGIC}, a version byte and a flags byte
+ * followed by length-delimited {@link HistoryEvent} protos, gzip compressed when {@link
+ * #FLAG_GZIP} is set.
+ */
+public final class BinaryHistoryWriter implements Closeable {
+
+  static final byte[] MAGIC = {'T', 'H', 'S', 'T'};
+  static final byte VERSION = 1;
+  static final byte FLAG_GZIP = 1;
+  static final int HEADER_SIZE = MAGIC.length + 2;
+
+  private final OutputStream out;
+
+  /**
+   * @param out stream to write the history to, closed together with this writer
+   * @param compress whether to gzip compress the events
+   */
+  public BinaryHistoryWriter(OutputStream out, boolean compress) throws IOException {
+    out.write(MAGIC);
+    out.write(VERSION);
+    out.write(compress ? FLAG_GZIP : 0);
+    this.out = compress ? new GZIPOutputStream(out, 64 * 1024) : out;
+  }
+
+  public BinaryHistoryWriter(Path file, boolean compress) throws IOException {
+    this(new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024), compress);
+  }
+
+  public void write(HistoryEvent event) throws IOException {
+    event.writeDelimitedTo(out);
+  }
+
+  @Override
+  public void close() throws IOException {
+    out.close();
+  }
+}
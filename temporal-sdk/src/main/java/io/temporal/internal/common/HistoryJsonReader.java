@@ -0,0 +1,121 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.internal.common;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.util.JsonFormat;
+import io.temporal.api.history.v1.HistoryEvent;
+import io.temporal.common.converter.DataConverterException;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads events of a json serialized history one by one, so only a single event is held in memory
+ * instead of the whole json document and its parsed tree. Expects the format produced by {@link
+ * WorkflowExecutionHistory#toJson()}. Top level fields other than {@code events} are ignored.
+ */
+public final class HistoryJsonReader implements Iterator<HistoryEvent>, Closeable {
+
+  private static final String EVENTS_FIELD = "events";
+
+  private final JsonReader reader;
+  private final JsonFormat.Parser parser = JsonFormat.parser();
+  private boolean inEvents;
+  private boolean done;
+
+  public HistoryJsonReader(Reader reader) {
+    this.reader = new JsonReader(reader);
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (done) {
+      return false;
+    }
+    try {
+      if (!inEvents) {
+        if (!seekEvents()) {
+          done = true;
+          return false;
+        }
+        inEvents = true;
+      }
+      if (reader.hasNext()) {
+        return true;
+      }
+      reader.endArray();
+      skipRemainingFields();
+      done = true;
+      return false;
+    } catch (IOException | IllegalStateException e) {
+      throw new DataConverterException("Malformed history json", e);
+    }
+  }
+
+  @Override
+  public HistoryEvent next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    HistoryEvent.Builder event = HistoryEvent.newBuilder();
+    try {
+      JsonElement element = JsonParser.parseReader(reader);
+      parser.merge(element.toString(), event);
+    } catch (JsonParseException | InvalidProtocolBufferException e) {
+      throw new DataConverterException(e);
+    }
+    return event.build();
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+
+  /** Positions the reader at the first element of the events array. */
+  private boolean seekEvents() throws IOException {
+    reader.beginObject();
+    while (reader.hasNext()) {
+      if (EVENTS_FIELD.equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+        reader.beginArray();
+        return true;
+      }
+      reader.skipValue();
+    }
+    reader.endObject();
+    return false;
+  }
+
+  private void skipRemainingFields() throws IOException {
+    while (reader.hasNext()) {
+      reader.nextName();
+      reader.skipValue();
+    }
+    reader.endObject();
+  }
+}
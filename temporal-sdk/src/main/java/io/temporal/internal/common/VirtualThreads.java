@@ -0,0 +1,108 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.internal.common;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Gives access to virtual threads of JDK 21+. The SDK is compiled for Java 8, so the virtual
+ * thread builder API is accessed through reflection.
+ */
+public final class VirtualThreads {
+
+  private static final Method OF_VIRTUAL;
+  private static final Method BUILDER_NAME;
+  private static final Method BUILDER_FACTORY;
+  private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+  static {
+    Method ofVirtual = null;
+    Method builderName = null;
+    Method builderFactory = null;
+    Method newThreadPerTaskExecutor = null;
+    try {
+      ofVirtual = Thread.class.getMethod("ofVirtual");
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      builderName = builderClass.getMethod("name", String.class, long.class);
+      builderFactory = builderClass.getMethod("factory");
+      newThreadPerTaskExecutor =
+          Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+      // Virtual threads are a preview feature on JDK 19 and 20 and ofVirtual throws
+      // UnsupportedOperationException there unless preview features are enabled.
+      ofVirtual.invoke(null);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      ofVirtual = null;
+    }
+    OF_VIRTUAL = ofVirtual;
+    BUILDER_NAME = builderName;
+    BUILDER_FACTORY = builderFactory;
+    NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+  }
+
+  /** @return true if the current JVM supports virtual threads */
+  public static boolean isSupported() {
+    return OF_VIRTUAL != null;
+  }
+
+  /**
+   * @param namePrefix prefix of the names of the created threads, followed by a sequence number
+   *     starting from 1
+   * @return factory that creates a new virtual thread for each task
+   * @throws UnsupportedOperationException if the current JVM doesn't support virtual threads
+   */
+  public static ThreadFactory newThreadFactory(String namePrefix) {
+    if (!isSupported()) {
+      throw new UnsupportedOperationException(
+          "Virtual threads are not supported by the current JVM");
+    }
+    try {
+      Object builder = OF_VIRTUAL.invoke(null);
+      builder = BUILDER_NAME.invoke(builder, namePrefix, 1L);
+      return (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException(e);
+    } catch (InvocationTargetException e) {
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  /**
+   * @param namePrefix prefix of the names of the created threads, followed by a sequence number
+   *     starting from 1
+   * @return executor that starts a new virtual thread for each task
+   * @throws UnsupportedOperationException if the current JVM doesn't support virtual threads
+   */
+  public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+    ThreadFactory threadFactory = newThreadFactory(namePrefix);
+    try {
+      return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, threadFactory);
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException(e);
+    } catch (InvocationTargetException e) {
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  private VirtualThreads() {}
+}
@@ -26,6 +26,8 @@ import io.temporal.api.enums.v1.EventType;
 import io.temporal.api.history.v1.History;
 import io.temporal.api.history.v1.HistoryEvent;
 import io.temporal.common.converter.DataConverterException;
+import java.io.Reader;
+import java.io.StringReader;
 import java.util.List;
 
 /** Contains workflow execution ids and the history */
@@ -38,16 +40,18 @@ public final class WorkflowExecutionHistory {
   }
 
   public static WorkflowExecutionHistory fromJson(String serialized) {
-    JsonFormat.Parser parser = JsonFormat.parser();
+    return fromJson(new StringReader(serialized));
+  }
+
+  /**
+   * Parses a json serialized history event by event through {@link HistoryJsonReader}. All the
+   * parsed events are kept in the returned history, use {@link HistoryJsonReader} directly to
+   * process the events one at a time.
+   */
+  public static WorkflowExecutionHistory fromJson(Reader serialized) {
     History.Builder historyBuilder = History.newBuilder();
-    try {
-      parser.merge(serialized, historyBuilder);
-    } catch (InvalidProtocolBufferException e) {
-      throw new DataConverterException(e);
-    }
-    History history = historyBuilder.build();
-    checkHistory(history);
-    return new WorkflowExecutionHistory(history);
+    new HistoryJsonReader(serialized).forEachRemaining(historyBuilder::addEvents);
+    return new WorkflowExecutionHistory(historyBuilder.build());
   }
 
   private static void checkHistory(History history) {
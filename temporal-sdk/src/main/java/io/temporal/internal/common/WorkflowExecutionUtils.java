@@ -23,7 +23,6 @@ import static io.temporal.serviceclient.MetricsTag.HISTORY_LONG_POLL_CALL_OPTION
 import static io.temporal.serviceclient.MetricsTag.METRICS_TAGS_CALL_OPTIONS_KEY;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
-import com.google.common.io.CharStreams;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonPrimitive;
@@ -862,13 +861,55 @@ public class WorkflowExecutionUtils {
     return readHistory(historyFile);
   }
 
+  /**
+   * Reads a history file in either the json or the binary history format. The format is detected
+   * by the binary history header.
+   */
   public static WorkflowExecutionHistory readHistory(File historyFile) throws IOException {
+    if (BinaryHistoryReader.isBinaryHistory(historyFile.toPath())) {
+      History.Builder history = History.newBuilder();
+      try (BinaryHistoryReader reader = new BinaryHistoryReader(historyFile.toPath())) {
+        reader.forEachRemaining(history::addEvents);
+      }
+      return new WorkflowExecutionHistory(history.build());
+    }
     try (Reader reader = Files.newBufferedReader(historyFile.toPath(), UTF_8)) {
-      String jsonHistory = CharStreams.toString(reader);
-      return WorkflowExecutionHistory.fromJson(jsonHistory);
+      return WorkflowExecutionHistory.fromJson(reader);
+    }
+  }
+
+  /** Writes the history in the binary history format, see {@link BinaryHistoryWriter}. */
+  public static void writeBinaryHistory(
+      WorkflowExecutionHistory history, File historyFile, boolean compress) throws IOException {
+    try (BinaryHistoryWriter writer = new BinaryHistoryWriter(historyFile.toPath(), compress)) {
+      for (HistoryEvent event : history.getEvents()) {
+        writer.write(event);
+      }
     }
   }
 
+  /**
+   * Converts a json history file into the binary history format one event at a time, so histories
+   * of any size can be converted.
+   */
+  public static void convertJsonHistoryToBinary(File jsonFile, File binaryFile, boolean compress)
+      throws IOException {
+    try (HistoryJsonReader reader = streamHistory(jsonFile);
+        BinaryHistoryWriter writer = new BinaryHistoryWriter(binaryFile.toPath(), compress)) {
+      while (reader.hasNext()) {
+        writer.write(reader.next());
+      }
+    }
+  }
+
+  /**
+   * Returns the events of a json serialized history file one by one. The caller must close the
+   * returned reader.
+   */
+  public static HistoryJsonReader streamHistory(File historyFile) throws IOException {
+    return new HistoryJsonReader(Files.newBufferedReader(historyFile.toPath(), UTF_8));
+  }
+
   public static boolean isFullHistory(PollWorkflowTaskQueueResponseOrBuilder workflowTask) {
     return workflowTask.getHistory() != null
         && workflowTask.getHistory().getEventsCount() > 0
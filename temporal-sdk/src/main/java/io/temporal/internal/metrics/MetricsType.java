@@ -55,6 +55,12 @@ public class MetricsType {
 
   public static final String WORKFLOW_TASK_HEARTBEAT_COUNTER =
       TEMPORAL_METRICS_PREFIX + "workflow_task_heartbeat";
+  public static final String WORKFLOW_TASK_REPLY_LATENCY =
+      TEMPORAL_METRICS_PREFIX + "workflow_task_reply_latency";
+  public static final String WORKFLOW_TASK_REPLY_FAILED_COUNTER =
+      TEMPORAL_METRICS_PREFIX + "workflow_task_reply_failed";
+  public static final String WORKFLOW_TASK_REPLY_IN_FLIGHT =
+      TEMPORAL_METRICS_PREFIX + "workflow_task_reply_in_flight";
 
   public static final String ACTIVITY_POLL_NO_TASK_COUNTER =
       TEMPORAL_METRICS_PREFIX + "activity_poll_no_task";
@@ -70,6 +76,8 @@ public class MetricsType {
       TEMPORAL_METRICS_PREFIX + "activity_endtoend_latency";
   public static final String LOCAL_ACTIVITY_TOTAL_COUNTER =
       TEMPORAL_METRICS_PREFIX + "local_activity_total";
+  public static final String LOCAL_ACTIVITY_INLINE_COUNTER =
+      TEMPORAL_METRICS_PREFIX + "local_activity_inline";
   public static final String LOCAL_ACTIVITY_CANCELED_COUNTER =
       TEMPORAL_METRICS_PREFIX + "local_activity_canceled";
   public static final String LOCAL_ACTIVITY_FAILED_COUNTER =
@@ -81,6 +89,20 @@ public class MetricsType {
 
   public static final String WORKER_START_COUNTER = TEMPORAL_METRICS_PREFIX + "worker_start";
   public static final String POLLER_START_COUNTER = TEMPORAL_METRICS_PREFIX + "poller_start";
+  public static final String WORKER_TASK_SLOTS_AVAILABLE =
+      TEMPORAL_METRICS_PREFIX + "worker_task_slots_available";
+  public static final String WORKER_TASK_SLOTS_USED =
+      TEMPORAL_METRICS_PREFIX + "worker_task_slots_used";
+  public static final String POLLER_AUTOSCALING_TARGET =
+      TEMPORAL_METRICS_PREFIX + "poller_autoscaling_target";
+  public static final String POLLER_AUTOSCALING_SCALE_UP_COUNTER =
+      TEMPORAL_METRICS_PREFIX + "poller_autoscaling_scale_up";
+  public static final String POLLER_AUTOSCALING_SCALE_DOWN_COUNTER =
+      TEMPORAL_METRICS_PREFIX + "poller_autoscaling_scale_down";
+  public static final String POLLER_AUTOSCALING_EMPTY_POLL_RATIO =
+      TEMPORAL_METRICS_PREFIX + "poller_autoscaling_empty_poll_ratio";
+  public static final String POLLER_AUTOSCALING_EXECUTOR_UTILIZATION =
+      TEMPORAL_METRICS_PREFIX + "poller_autoscaling_executor_utilization";
 
   public static final String STICKY_CACHE_HIT = TEMPORAL_METRICS_PREFIX + "sticky_cache_hit";
   public static final String STICKY_CACHE_MISS = TEMPORAL_METRICS_PREFIX + "sticky_cache_miss";
@@ -89,6 +111,38 @@ public class MetricsType {
   public static final String STICKY_CACHE_THREAD_FORCED_EVICTION =
       TEMPORAL_METRICS_PREFIX + "sticky_cache_thread_forced_eviction";
   public static final String STICKY_CACHE_SIZE = TEMPORAL_METRICS_PREFIX + "sticky_cache_size";
+  public static final String STICKY_CACHE_ESTIMATED_BYTES =
+      TEMPORAL_METRICS_PREFIX + "sticky_cache_estimated_bytes";
   public static final String WORKFLOW_ACTIVE_THREAD_COUNT =
       TEMPORAL_METRICS_PREFIX + "workflow_active_thread_count";
+
+  public static final String PAYLOAD_COMPRESSION_LATENCY =
+      TEMPORAL_METRICS_PREFIX + "payload_compression_latency";
+  public static final String PAYLOAD_DECOMPRESSION_LATENCY =
+      TEMPORAL_METRICS_PREFIX + "payload_decompression_latency";
+  public static final String PAYLOAD_COMPRESSED_COUNTER =
+      TEMPORAL_METRICS_PREFIX + "payload_compressed";
+  public static final String PAYLOAD_COMPRESSION_BYTES_SAVED_COUNTER =
+      TEMPORAL_METRICS_PREFIX + "payload_compression_bytes_saved";
+
+  public static final String PAYLOAD_OFFLOADED_COUNTER =
+      TEMPORAL_METRICS_PREFIX + "payload_offloaded";
+  public static final String PAYLOAD_STORE_PUT_LATENCY =
+      TEMPORAL_METRICS_PREFIX + "payload_store_put_latency";
+  public static final String PAYLOAD_STORE_GET_LATENCY =
+      TEMPORAL_METRICS_PREFIX + "payload_store_get_latency";
+  public static final String PAYLOAD_STORE_CACHE_HIT =
+      TEMPORAL_METRICS_PREFIX + "payload_store_cache_hit";
+  public static final String PAYLOAD_STORE_CACHE_MISS =
+      TEMPORAL_METRICS_PREFIX + "payload_store_cache_miss";
+
+  public static final String WORKFLOW_TASK_HISTORY_PAGE_WAIT_LATENCY =
+      TEMPORAL_METRICS_PREFIX + "workflow_task_history_page_wait_latency";
+  public static final String WORKFLOW_TASK_HISTORY_PAGE_PREFETCH_HIDDEN_LATENCY =
+      TEMPORAL_METRICS_PREFIX + "workflow_task_history_page_prefetch_hidden_latency";
+  public static final String WORKFLOW_TASK_HISTORY_PAGE_PREFETCH_HIT_COUNTER =
+      TEMPORAL_METRICS_PREFIX + "workflow_task_history_page_prefetch_hit";
+
+  public static final String WORKFLOW_TASK_AWAIT_CONDITION_EVALUATIONS_COUNTER =
+      TEMPORAL_METRICS_PREFIX + "workflow_task_await_condition_evaluations";
 }
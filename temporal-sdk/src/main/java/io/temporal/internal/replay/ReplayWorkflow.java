@@ -62,4 +62,10 @@ public interface ReplayWorkflow {
   WorkflowExecutionException mapUnexpectedException(Throwable failure);
 
   WorkflowImplementationOptions getWorkflowImplementationOptions();
+
+  /**
+   * @return rough estimate of the memory in bytes retained by the workflow implementation,
+   *     including stacks of its threads. Called only between workflow tasks.
+   */
+  long estimateRetainedSize();
 }
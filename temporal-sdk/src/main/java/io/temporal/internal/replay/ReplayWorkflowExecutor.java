@@ -66,6 +66,10 @@ final class ReplayWorkflowExecutor {
     return completed;
   }
 
+  public long estimateRetainedSize() {
+    return workflow.estimateRetainedSize();
+  }
+
   public void eventLoop() {
     if (completed) {
       return;
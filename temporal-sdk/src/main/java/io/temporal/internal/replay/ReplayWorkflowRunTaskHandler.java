@@ -47,7 +47,6 @@ import io.temporal.worker.WorkflowImplementationOptions;
 import io.temporal.workflow.Functions;
 import java.time.Duration;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -89,6 +88,9 @@ class ReplayWorkflowRunTaskHandler implements WorkflowRunTaskHandler {
 
   private final DataConverter converter;
 
+  /** Number of history pages requested ahead of the replay, 0 disables prefetching. */
+  private final int maxHistoryPrefetchPages;
+
   private final WorkflowStateMachines workflowStateMachines;
 
   private final HistoryEvent firstEvent;
@@ -96,6 +98,9 @@ class ReplayWorkflowRunTaskHandler implements WorkflowRunTaskHandler {
   /** Number of non completed local activity tasks */
   private int localActivityTaskCount;
 
+  /** Updated after each handled task to be read by the cache without taking the lock. */
+  private volatile long estimatedRetainedSize;
+
   private final ReplayWorkflowExecutor replayWorkflowExecutor;
 
   ReplayWorkflowRunTaskHandler(
@@ -118,6 +123,7 @@ class ReplayWorkflowRunTaskHandler implements WorkflowRunTaskHandler {
     this.workflowStateMachines = new WorkflowStateMachines(new EntityManagerListenerImpl());
     this.metricsScope = metricsScope;
     this.converter = options.getDataConverter();
+    this.maxHistoryPrefetchPages = options.getMaxWorkflowHistoryPrefetchPages();
     this.localActivityTaskPoller = localActivityTaskPoller;
 
     ReplayWorkflowContextImpl context =
@@ -151,6 +157,7 @@ class ReplayWorkflowRunTaskHandler implements WorkflowRunTaskHandler {
       processLocalActivityRequests(startTime);
       List<Command> commands = workflowStateMachines.takeCommands();
       executeQueries(workflowTask.getQueriesMap());
+      updateEstimatedRetainedSize();
       return WorkflowTaskResult.newBuilder()
           .setCommands(commands)
           .setQueryResults(queryResults)
@@ -165,16 +172,19 @@ class ReplayWorkflowRunTaskHandler implements WorkflowRunTaskHandler {
   private void handleWorkflowTaskImpl(PollWorkflowTaskQueueResponseOrBuilder workflowTask) {
     Stopwatch sw = metricsScope.timer(MetricsType.WORKFLOW_TASK_REPLAY_LATENCY).start();
     boolean timerStopped = false;
+    WorkflowHistoryIterator historyEvents = null;
     try {
       workflowStateMachines.setStartedIds(
           workflowTask.getPreviousStartedEventId(), workflowTask.getStartedEventId());
-      Iterator<HistoryEvent> historyEvents =
+      historyEvents =
           new WorkflowHistoryIterator(
               service,
               namespace,
               workflowTask,
               toJavaDuration(startedEvent.getWorkflowTaskTimeout()),
-              metricsScope);
+              metricsScope,
+              maxHistoryPrefetchPages,
+              WorkflowHistoryIterator.DEFAULT_PREFETCH_BUDGET_BYTES);
       while (historyEvents.hasNext()) {
         HistoryEvent event = historyEvents.next();
         handleEvent(event, historyEvents.hasNext());
@@ -202,6 +212,10 @@ class ReplayWorkflowRunTaskHandler implements WorkflowRunTaskHandler {
       metricsScope.counter(MetricsType.WORKFLOW_TASK_NO_COMPLETION_COUNTER).inc(1);
       throw wrap(e);
     } finally {
+      if (historyEvents != null) {
+        // Cancels the prefetched pages the replay didn't get to
+        historyEvents.close();
+      }
       if (!timerStopped) {
         sw.stop();
       }
@@ -235,6 +249,18 @@ class ReplayWorkflowRunTaskHandler implements WorkflowRunTaskHandler {
     }
   }
 
+  @Override
+  public long getEstimatedRetainedSize() {
+    return estimatedRetainedSize;
+  }
+
+  private void updateEstimatedRetainedSize() {
+    estimatedRetainedSize =
+        firstEvent.getSerializedSize()
+            + workflowStateMachines.estimateRetainedSize()
+            + replayWorkflowExecutor.estimateRetainedSize();
+  }
+
   @Override
   public void close() {
     lock.lock();
@@ -253,6 +279,7 @@ class ReplayWorkflowRunTaskHandler implements WorkflowRunTaskHandler {
       AtomicReference<Optional<Payloads>> result = new AtomicReference<>();
       handleWorkflowTaskImpl(workflowTask);
       result.set(replayWorkflowExecutor.query(query));
+      updateEstimatedRetainedSize();
       return result.get();
     } finally {
       lock.unlock();
@@ -24,7 +24,6 @@ import static io.temporal.internal.common.WorkflowExecutionUtils.isFullHistory;
 import static io.temporal.serviceclient.MetricsTag.METRICS_TAGS_CALL_OPTIONS_KEY;
 
 import com.uber.m3.tally.Scope;
-import com.uber.m3.util.ImmutableMap;
 import io.temporal.api.command.v1.Command;
 import io.temporal.api.command.v1.FailWorkflowExecutionCommandAttributes;
 import io.temporal.api.common.v1.Payloads;
@@ -52,6 +51,7 @@ import io.temporal.internal.worker.SingleWorkerOptions;
 import io.temporal.internal.worker.WorkflowExecutionException;
 import io.temporal.internal.worker.WorkflowTaskHandler;
 import io.temporal.serviceclient.MetricsTag;
+import io.temporal.serviceclient.TaggedScopeCache;
 import io.temporal.serviceclient.WorkflowServiceStubs;
 import io.temporal.workflow.Functions;
 import java.io.PrintWriter;
@@ -78,6 +78,8 @@ public final class ReplayWorkflowTaskHandler implements WorkflowTaskHandler {
   private final WorkflowServiceStubs service;
   private final String stickyTaskQueueName;
   private final BiFunction<LocalActivityWorker.Task, Duration, Boolean> localActivityTaskPoller;
+  private final TaggedScopeCache workflowTypeScopes =
+      new TaggedScopeCache(MetricsTag.WORKFLOW_TYPE);
 
   public ReplayWorkflowTaskHandler(
       String namespace,
@@ -104,8 +106,7 @@ public final class ReplayWorkflowTaskHandler implements WorkflowTaskHandler {
   public WorkflowTaskHandler.Result handleWorkflowTask(PollWorkflowTaskQueueResponse workflowTask)
       throws Exception {
     String workflowType = workflowTask.getWorkflowType().getName();
-    Scope metricsScope =
-        options.getMetricsScope().tagged(ImmutableMap.of(MetricsTag.WORKFLOW_TYPE, workflowType));
+    Scope metricsScope = workflowTypeScopes.tagged(options.getMetricsScope(), workflowType);
     try {
       if (workflowTask.hasQuery()) {
         // Legacy query codepath
@@ -202,7 +203,7 @@ public final class ReplayWorkflowTaskHandler implements WorkflowTaskHandler {
       if (result.isFinalCommand()) {
         cache.invalidate(execution, metricsScope);
       } else if (stickyTaskQueueName != null && createdNew.get()) {
-        cache.addToCache(runId, workflowRunTaskHandler);
+        cache.addToCache(runId, workflowRunTaskHandler, options.getMetricsScope());
       }
       return createCompletedRequest(workflowTask.getWorkflowType().getName(), workflowTask, result);
     } catch (Throwable e) {
@@ -256,7 +257,7 @@ public final class ReplayWorkflowTaskHandler implements WorkflowTaskHandler {
       Optional<Payloads> queryResult =
           workflowRunTaskHandler.handleQueryWorkflowTask(workflowTask, workflowTask.getQuery());
       if (stickyTaskQueueName != null && createdNew.get()) {
-        cache.addToCache(runId, workflowRunTaskHandler);
+        cache.addToCache(runId, workflowRunTaskHandler, options.getMetricsScope());
       }
       if (queryResult.isPresent()) {
         queryCompletedRequest.setQueryResult(queryResult.get());
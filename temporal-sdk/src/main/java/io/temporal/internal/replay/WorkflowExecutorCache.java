@@ -22,47 +22,84 @@ package io.temporal.internal.replay;
 import static io.temporal.internal.common.WorkflowExecutionUtils.isFullHistory;
 
 import com.google.common.base.Preconditions;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import com.uber.m3.tally.Scope;
 import io.temporal.api.common.v1.WorkflowExecution;
 import io.temporal.api.workflowservice.v1.PollWorkflowTaskQueueResponseOrBuilder;
 import io.temporal.internal.metrics.MetricsType;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Cache of {@link WorkflowRunTaskHandler}s of sticky workflow runs.
+ *
+ * <p>The cache is split into independently locked segments selected by the run id hash, so
+ * workflow task executors working on different runs rarely contend with each other. Each entry
+ * carries its own "in processing" state. Entries that are not in processing are kept in a per
+ * segment LRU list, so both capacity and forced evictions take the least recently used idle entry
+ * in O(1) without scanning the cache. Entries in processing are never evicted by capacity or forced
+ * evictions, a segment may temporarily exceed its capacity while all its entries are being
+ * processed and gets trimmed as soon as processing is done.
+ *
+ * <p>Each entry is weighted by {@link WorkflowRunTaskHandler#getEstimatedRetainedSize()}, the
+ * weight is refreshed every time the entry is added or its processing is done. If a byte budget is
+ * configured idle entries are evicted until the total estimated size of the cache fits into it. The
+ * estimated size of the cached entries is reported per worker metrics scope.
+ *
+ * <p>Handlers of evicted entries are closed outside of the segment locks.
+ */
 public final class WorkflowExecutorCache {
+  private static final int MAX_SEGMENTS = 16;
+  private static final int MIN_SEGMENT_CAPACITY = 16;
+
   private final Scope metricsScope;
-  private final LoadingCache<String, WorkflowRunTaskHandler> cache;
-  private final Lock cacheLock = new ReentrantLock();
-  private final Set<String> inProcessing = new HashSet<>();
+  private final Segment[] segments;
+  private final int segmentMask;
+  private final long maxEstimatedBytes;
+  private final AtomicInteger size = new AtomicInteger();
+  private final AtomicLong estimatedBytes = new AtomicLong();
+  private final ConcurrentMap<Scope, AtomicLong> estimatedBytesPerScope =
+      new ConcurrentHashMap<>();
+  // Rotates the segment that forced evictions start from to spread them over the whole cache.
+  private final AtomicInteger evictionCursor = new AtomicInteger();
 
   public WorkflowExecutorCache(int workflowCacheSize, Scope scope) {
+    this(workflowCacheSize, 0, scope);
+  }
+
+  /**
+   * @param workflowCacheSize maximum number of cached workflow runs
+   * @param maxEstimatedBytes maximum total estimated size of the cached workflow runs in bytes, 0
+   *     means that the cache is limited by the number of entries only
+   * @param scope metrics scope of the cache
+   */
+  public WorkflowExecutorCache(int workflowCacheSize, long maxEstimatedBytes, Scope scope) {
     Preconditions.checkArgument(workflowCacheSize > 0, "Max cache size must be greater than 0");
+    Preconditions.checkArgument(maxEstimatedBytes >= 0, "negative maxEstimatedBytes");
     this.metricsScope = Objects.requireNonNull(scope);
-    this.cache =
-        CacheBuilder.newBuilder()
-            .maximumSize(workflowCacheSize)
-            .removalListener(
-                e -> {
-                  WorkflowRunTaskHandler entry = (WorkflowRunTaskHandler) e.getValue();
-                  if (entry != null) {
-                    entry.close();
-                  }
-                })
-            .build(
-                new CacheLoader<String, WorkflowRunTaskHandler>() {
-                  @Override
-                  public WorkflowRunTaskHandler load(String key) {
-                    return null;
-                  }
-                });
+    this.maxEstimatedBytes = maxEstimatedBytes;
+    int segmentCount = 1;
+    while (segmentCount < MAX_SEGMENTS
+        && segmentCount * 2 * MIN_SEGMENT_CAPACITY <= workflowCacheSize) {
+      segmentCount <<= 1;
+    }
+    this.segments = new Segment[segmentCount];
+    this.segmentMask = segmentCount - 1;
+    int segmentCapacity = workflowCacheSize / segmentCount;
+    int remainder = workflowCacheSize % segmentCount;
+    for (int i = 0; i < segmentCount; i++) {
+      segments[i] = new Segment(i < remainder ? segmentCapacity + 1 : segmentCapacity);
+    }
   }
 
   public WorkflowRunTaskHandler getOrCreate(
@@ -84,72 +121,329 @@ public final class WorkflowExecutorCache {
     return workflowExecutorFn.call();
   }
 
-  private WorkflowRunTaskHandler getForProcessing(String runId, Scope metricsScope)
-      throws ExecutionException {
-    cacheLock.lock();
-    try {
-      WorkflowRunTaskHandler workflowRunTaskHandler = cache.get(runId);
-      inProcessing.add(runId);
-      metricsScope.counter(MetricsType.STICKY_CACHE_HIT).inc(1);
-      return workflowRunTaskHandler;
-    } catch (CacheLoader.InvalidCacheLoadException e) {
-      // We don't have a default loader and don't want to have one. So it's ok to get null value.
+  private WorkflowRunTaskHandler getForProcessing(String runId, Scope metricsScope) {
+    WorkflowRunTaskHandler workflowRunTaskHandler = segmentFor(runId).markInProcessing(runId);
+    if (workflowRunTaskHandler == null) {
       metricsScope.counter(MetricsType.STICKY_CACHE_MISS).inc(1);
-      return null;
-    } finally {
-      cacheLock.unlock();
+    } else {
+      metricsScope.counter(MetricsType.STICKY_CACHE_HIT).inc(1);
     }
+    return workflowRunTaskHandler;
   }
 
   void markProcessingDone(String runId) {
-    cacheLock.lock();
-    try {
-      inProcessing.remove(runId);
-    } finally {
-      cacheLock.unlock();
-    }
+    closeAll(segmentFor(runId).markProcessingDone(runId));
+    evictOverByteBudget(runId);
   }
 
   public void addToCache(String runId, WorkflowRunTaskHandler workflowRunTaskHandler) {
-    cache.put(runId, workflowRunTaskHandler);
+    addToCache(runId, workflowRunTaskHandler, metricsScope);
+  }
+
+  /**
+   * @param workerMetricsScope scope to report the estimated size of the entries added by a worker
+   */
+  public void addToCache(
+      String runId, WorkflowRunTaskHandler workflowRunTaskHandler, Scope workerMetricsScope) {
+    AtomicLong scopeEstimatedBytes =
+        estimatedBytesPerScope.computeIfAbsent(workerMetricsScope, s -> new AtomicLong());
+    closeAll(
+        segmentFor(runId)
+            .put(runId, workflowRunTaskHandler, workerMetricsScope, scopeEstimatedBytes));
+    evictOverByteBudget(runId);
   }
 
   public boolean evictAnyNotInProcessing(WorkflowExecution execution, Scope metricsScope) {
-    cacheLock.lock();
-    try {
-      this.metricsScope.gauge(MetricsType.STICKY_CACHE_SIZE).update(size());
-      for (String key : cache.asMap().keySet()) {
-        if (!key.equals(execution.getRunId()) && !inProcessing.contains(key)) {
-          cache.invalidate(key);
-          this.metricsScope.gauge(MetricsType.STICKY_CACHE_SIZE).update(size());
-          metricsScope.counter(MetricsType.STICKY_CACHE_THREAD_FORCED_EVICTION).inc(1);
-          return true;
-        }
+    this.metricsScope.gauge(MetricsType.STICKY_CACHE_SIZE).update(size());
+    String runId = execution.getRunId();
+    int start = evictionCursor.getAndIncrement();
+    for (int i = 0; i < segments.length; i++) {
+      WorkflowRunTaskHandler evicted = segments[(start + i) & segmentMask].evictIdle(runId);
+      if (evicted != null) {
+        evicted.close();
+        this.metricsScope.gauge(MetricsType.STICKY_CACHE_SIZE).update(size());
+        metricsScope.counter(MetricsType.STICKY_CACHE_THREAD_FORCED_EVICTION).inc(1);
+        return true;
       }
-
-      return false;
-    } finally {
-      cacheLock.unlock();
     }
+    return false;
   }
 
   void invalidate(WorkflowExecution execution, Scope metricsScope) {
-    cacheLock.lock();
-    try {
-      String runId = execution.getRunId();
-      cache.invalidate(runId);
-      inProcessing.remove(runId);
-      metricsScope.counter(MetricsType.STICKY_CACHE_TOTAL_FORCED_EVICTION).inc(1);
-    } finally {
-      cacheLock.unlock();
+    String runId = execution.getRunId();
+    WorkflowRunTaskHandler removed = segmentFor(runId).remove(runId);
+    if (removed != null) {
+      removed.close();
     }
+    metricsScope.counter(MetricsType.STICKY_CACHE_TOTAL_FORCED_EVICTION).inc(1);
   }
 
   public long size() {
-    return cache.size();
+    return size.get();
+  }
+
+  /** @return total estimated size of the cached workflow runs in bytes */
+  public long getEstimatedBytes() {
+    return estimatedBytes.get();
   }
 
   public void invalidateAll() {
-    cache.invalidateAll();
+    for (Segment segment : segments) {
+      closeAll(segment.clear());
+    }
+  }
+
+  private void evictOverByteBudget(String retainedRunId) {
+    if (maxEstimatedBytes == 0) {
+      return;
+    }
+    int segmentIndex = evictionCursor.getAndIncrement();
+    int segmentsWithoutIdleEntries = 0;
+    while (estimatedBytes.get() > maxEstimatedBytes
+        && segmentsWithoutIdleEntries < segments.length) {
+      Segment segment = segments[segmentIndex++ & segmentMask];
+      WorkflowRunTaskHandler evicted = segment.evictIdle(retainedRunId);
+      if (evicted == null) {
+        segmentsWithoutIdleEntries++;
+        continue;
+      }
+      segmentsWithoutIdleEntries = 0;
+      evicted.close();
+      this.metricsScope.gauge(MetricsType.STICKY_CACHE_SIZE).update(size());
+    }
+  }
+
+  private Segment segmentFor(String runId) {
+    int h = runId.hashCode();
+    return segments[(h ^ (h >>> 16)) & segmentMask];
+  }
+
+  private static void closeAll(List<WorkflowRunTaskHandler> handlers) {
+    for (WorkflowRunTaskHandler handler : handlers) {
+      handler.close();
+    }
+  }
+
+  private static final class CacheEntry {
+    private final String runId;
+    private final WorkflowRunTaskHandler handler;
+    private final Scope workerMetricsScope;
+    private final AtomicLong scopeEstimatedBytes;
+    // All the fields below are guarded by the lock of the owning segment.
+    private boolean inProcessing;
+    private long estimatedBytes;
+    // Links of the segment LRU list. Only entries that are not in processing are linked.
+    private CacheEntry previous;
+    private CacheEntry next;
+
+    private CacheEntry(
+        String runId,
+        WorkflowRunTaskHandler handler,
+        Scope workerMetricsScope,
+        AtomicLong scopeEstimatedBytes) {
+      this.runId = runId;
+      this.handler = handler;
+      this.workerMetricsScope = workerMetricsScope;
+      this.scopeEstimatedBytes = scopeEstimatedBytes;
+    }
+  }
+
+  private final class Segment {
+    private final int capacity;
+    private final Lock lock = new ReentrantLock();
+    private final Map<String, CacheEntry> entries = new HashMap<>();
+    // Least recently used entry that is not in processing.
+    private CacheEntry head;
+    // Most recently used entry that is not in processing.
+    private CacheEntry tail;
+
+    private Segment(int capacity) {
+      this.capacity = capacity;
+    }
+
+    private WorkflowRunTaskHandler markInProcessing(String runId) {
+      lock.lock();
+      try {
+        CacheEntry entry = entries.get(runId);
+        if (entry == null) {
+          return null;
+        }
+        if (!entry.inProcessing) {
+          unlink(entry);
+          entry.inProcessing = true;
+        }
+        return entry.handler;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private List<WorkflowRunTaskHandler> markProcessingDone(String runId) {
+      lock.lock();
+      try {
+        CacheEntry entry = entries.get(runId);
+        if (entry == null || !entry.inProcessing) {
+          return Collections.emptyList();
+        }
+        entry.inProcessing = false;
+        linkLast(entry);
+        updateEstimatedBytes(entry, entry.handler.getEstimatedRetainedSize());
+        return evictOverCapacity(null);
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private List<WorkflowRunTaskHandler> put(
+        String runId,
+        WorkflowRunTaskHandler workflowRunTaskHandler,
+        Scope workerMetricsScope,
+        AtomicLong scopeEstimatedBytes) {
+      lock.lock();
+      try {
+        List<WorkflowRunTaskHandler> evicted = new ArrayList<>();
+        CacheEntry entry =
+            new CacheEntry(runId, workflowRunTaskHandler, workerMetricsScope, scopeEstimatedBytes);
+        CacheEntry replaced = entries.put(runId, entry);
+        if (replaced == null) {
+          size.incrementAndGet();
+        } else {
+          if (!replaced.inProcessing) {
+            unlink(replaced);
+          }
+          updateEstimatedBytes(replaced, 0);
+          if (replaced.handler != workflowRunTaskHandler) {
+            evicted.add(replaced.handler);
+          }
+        }
+        linkLast(entry);
+        updateEstimatedBytes(entry, workflowRunTaskHandler.getEstimatedRetainedSize());
+        evicted.addAll(evictOverCapacity(entry));
+        return evicted;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private WorkflowRunTaskHandler evictIdle(String excludedRunId) {
+      lock.lock();
+      try {
+        CacheEntry entry = head;
+        if (entry != null && entry.runId.equals(excludedRunId)) {
+          entry = entry.next;
+        }
+        if (entry == null) {
+          return null;
+        }
+        removeEntry(entry);
+        return entry.handler;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private WorkflowRunTaskHandler remove(String runId) {
+      lock.lock();
+      try {
+        CacheEntry entry = entries.get(runId);
+        if (entry == null) {
+          return null;
+        }
+        removeEntry(entry);
+        return entry.handler;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private List<WorkflowRunTaskHandler> clear() {
+      lock.lock();
+      try {
+        List<WorkflowRunTaskHandler> removed = new ArrayList<>(entries.size());
+        for (CacheEntry entry : entries.values()) {
+          updateEstimatedBytes(entry, 0);
+          removed.add(entry.handler);
+        }
+        size.addAndGet(-entries.size());
+        entries.clear();
+        head = null;
+        tail = null;
+        return removed;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /**
+     * Evicts least recently used entries that are not in processing until the segment fits into
+     * its capacity.
+     *
+     * @param retained entry that shouldn't be evicted, for example the one that was just added
+     * @return handlers of the evicted entries that have to be closed by the caller
+     */
+    private List<WorkflowRunTaskHandler> evictOverCapacity(CacheEntry retained) {
+      List<WorkflowRunTaskHandler> evicted = Collections.emptyList();
+      CacheEntry candidate = head;
+      while (entries.size() > capacity && candidate != null) {
+        CacheEntry next = candidate.next;
+        if (candidate != retained) {
+          if (evicted.isEmpty()) {
+            evicted = new ArrayList<>();
+          }
+          removeEntry(candidate);
+          evicted.add(candidate.handler);
+        }
+        candidate = next;
+      }
+      return evicted;
+    }
+
+    private void removeEntry(CacheEntry entry) {
+      entries.remove(entry.runId);
+      size.decrementAndGet();
+      updateEstimatedBytes(entry, 0);
+      if (!entry.inProcessing) {
+        unlink(entry);
+      }
+    }
+
+    private void updateEstimatedBytes(CacheEntry entry, long estimatedBytes) {
+      long delta = estimatedBytes - entry.estimatedBytes;
+      if (delta == 0) {
+        return;
+      }
+      entry.estimatedBytes = estimatedBytes;
+      WorkflowExecutorCache.this.estimatedBytes.addAndGet(delta);
+      long scopeEstimatedBytes = entry.scopeEstimatedBytes.addAndGet(delta);
+      entry.workerMetricsScope
+          .gauge(MetricsType.STICKY_CACHE_ESTIMATED_BYTES)
+          .update(scopeEstimatedBytes);
+    }
+
+    private void linkLast(CacheEntry entry) {
+      entry.previous = tail;
+      entry.next = null;
+      if (tail == null) {
+        head = entry;
+      } else {
+        tail.next = entry;
+      }
+      tail = entry;
+    }
+
+    private void unlink(CacheEntry entry) {
+      if (entry.previous == null) {
+        head = entry.next;
+      } else {
+        entry.previous.next = entry.next;
+      }
+      if (entry.next == null) {
+        tail = entry.previous;
+      } else {
+        entry.next.previous = entry.previous;
+      }
+      entry.previous = null;
+      entry.next = null;
+    }
   }
 }
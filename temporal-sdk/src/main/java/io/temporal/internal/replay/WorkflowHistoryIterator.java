@@ -21,6 +21,10 @@ package io.temporal.internal.replay;
 
 import static io.temporal.serviceclient.MetricsTag.METRICS_TAGS_CALL_OPTIONS_KEY;
 
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.protobuf.ByteString;
 import com.uber.m3.tally.Scope;
 import io.grpc.Status;
@@ -29,16 +33,34 @@ import io.temporal.api.history.v1.HistoryEvent;
 import io.temporal.api.workflowservice.v1.GetWorkflowExecutionHistoryRequest;
 import io.temporal.api.workflowservice.v1.GetWorkflowExecutionHistoryResponse;
 import io.temporal.api.workflowservice.v1.PollWorkflowTaskQueueResponseOrBuilder;
+import io.temporal.internal.metrics.MetricsType;
 import io.temporal.serviceclient.GrpcRetryer;
 import io.temporal.serviceclient.RpcRetryOptions;
 import io.temporal.serviceclient.WorkflowServiceStubs;
 import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
-/** Supports iteration over history while loading new pages through calls to the service. */
-class WorkflowHistoryIterator implements Iterator<HistoryEvent> {
+/**
+ * Supports iteration over history while loading new pages through calls to the service.
+ *
+ * <p>When prefetching is enabled the following pages are requested in the background while the
+ * events of the current page are processed. At most {@code maxPrefetchPages} pages are buffered or
+ * in flight and no page is prefetched while the buffered pages exceed {@code prefetchBudgetBytes}.
+ * A page the caller is blocked on is always requested regardless of these limits. {@link #close()}
+ * cancels the requests of the pages that weren't consumed.
+ */
+class WorkflowHistoryIterator implements Iterator<HistoryEvent>, AutoCloseable {
+
+  static final long DEFAULT_PREFETCH_BUDGET_BYTES = 16 * 1024 * 1024;
 
   private final Duration retryServiceOperationInitialInterval = Duration.ofMillis(200);
   private final Duration retryServiceOperationMaxInterval = Duration.ofSeconds(4);
@@ -48,8 +70,20 @@ class WorkflowHistoryIterator implements Iterator<HistoryEvent> {
   private final String namespace;
   private final Scope metricsScope;
   private final PollWorkflowTaskQueueResponseOrBuilder task;
+  private final int maxPrefetchPages;
+  private final long prefetchBudgetBytes;
   private Iterator<HistoryEvent> current;
-  ByteString nextPageToken;
+  private boolean prefetchStarted;
+
+  // Fields below are shared with the fetch callbacks and are guarded by this.
+  /** Token of the next page that wasn't requested yet. */
+  private ByteString nextPageToken;
+  /** Requested but not yet consumed pages in history order. */
+  private final Deque<Page> pages = new ArrayDeque<>();
+
+  private long bufferedBytes;
+  private boolean fetchInFlight;
+  private boolean closed;
 
   WorkflowHistoryIterator(
       WorkflowServiceStubs service,
@@ -57,11 +91,24 @@ class WorkflowHistoryIterator implements Iterator<HistoryEvent> {
       PollWorkflowTaskQueueResponseOrBuilder task,
       Duration workflowTaskTimeout,
       Scope metricsScope) {
+    this(service, namespace, task, workflowTaskTimeout, metricsScope, 0, 0);
+  }
+
+  WorkflowHistoryIterator(
+      WorkflowServiceStubs service,
+      String namespace,
+      PollWorkflowTaskQueueResponseOrBuilder task,
+      Duration workflowTaskTimeout,
+      Scope metricsScope,
+      int maxPrefetchPages,
+      long prefetchBudgetBytes) {
     this.service = service;
     this.namespace = namespace;
     this.task = task;
     this.workflowTaskTimeout = Objects.requireNonNull(workflowTaskTimeout);
-    this.metricsScope = metricsScope;
+    this.metricsScope = Objects.requireNonNull(metricsScope);
+    this.maxPrefetchPages = maxPrefetchPages;
+    this.prefetchBudgetBytes = prefetchBudgetBytes;
     History history = task.getHistory();
     current = history.getEventsList().iterator();
     nextPageToken = task.getNextPageToken();
@@ -73,19 +120,25 @@ class WorkflowHistoryIterator implements Iterator<HistoryEvent> {
   // Otherwise next() method would throw NoSuchElementException after hasNext() returning true.
   @Override
   public boolean hasNext() {
+    if (!prefetchStarted) {
+      prefetchStarted = true;
+      synchronized (this) {
+        prefetch();
+      }
+    }
     if (current.hasNext()) {
       return true;
     }
-    if (nextPageToken.isEmpty()) {
-      return false;
+    while (true) {
+      Page page = takePage();
+      if (page == null) {
+        return false;
+      }
+      current = awaitPage(page).getHistory().getEventsList().iterator();
+      if (current.hasNext()) {
+        return true;
+      }
     }
-
-    GetWorkflowExecutionHistoryResponse response = queryWorkflowExecutionHistory();
-
-    current = response.getHistory().getEventsList().iterator();
-    nextPageToken = response.getNextPageToken();
-
-    return current.hasNext();
   }
 
   @Override
@@ -96,7 +149,123 @@ class WorkflowHistoryIterator implements Iterator<HistoryEvent> {
     throw new NoSuchElementException();
   }
 
-  GetWorkflowExecutionHistoryResponse queryWorkflowExecutionHistory() {
+  private synchronized Page takePage() {
+    if (pages.isEmpty()) {
+      if (nextPageToken.isEmpty()) {
+        return null;
+      }
+      requestPage(false);
+    }
+    return pages.poll();
+  }
+
+  private GetWorkflowExecutionHistoryResponse awaitPage(Page page) {
+    boolean ready = page.result.isDone();
+    long waitStart = System.nanoTime();
+    GetWorkflowExecutionHistoryResponse response;
+    try {
+      response = page.result.join();
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      // Failures of the request itself, like the expired pagination deadline, are not wrapped
+      if (page.failedSynchronously && cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new Error(cause);
+    }
+    long waitNanos = System.nanoTime() - waitStart;
+    metricsScope
+        .timer(MetricsType.WORKFLOW_TASK_HISTORY_PAGE_WAIT_LATENCY)
+        .record(com.uber.m3.util.Duration.ofNanos(waitNanos));
+    if (page.prefetched) {
+      if (ready) {
+        metricsScope.counter(MetricsType.WORKFLOW_TASK_HISTORY_PAGE_PREFETCH_HIT_COUNTER).inc(1);
+      }
+      metricsScope
+          .timer(MetricsType.WORKFLOW_TASK_HISTORY_PAGE_PREFETCH_HIDDEN_LATENCY)
+          .record(com.uber.m3.util.Duration.ofNanos(Math.max(0, page.fetchNanos - waitNanos)));
+    }
+    synchronized (this) {
+      bufferedBytes -= page.sizeBytes;
+      prefetch();
+    }
+    return response;
+  }
+
+  /** Requests the next page if it fits into the prefetch limits. Must be called under the lock. */
+  private void prefetch() {
+    if (!fetchInFlight
+        && !nextPageToken.isEmpty()
+        && pages.size() < maxPrefetchPages
+        && bufferedBytes < prefetchBudgetBytes) {
+      requestPage(true);
+    }
+  }
+
+  /** Must be called under the lock. */
+  private void requestPage(boolean prefetched) {
+    Page page = new Page(prefetched);
+    pages.add(page);
+    fetchInFlight = true;
+    try {
+      page.request = queryWorkflowExecutionHistoryAsync(nextPageToken);
+    } catch (RuntimeException e) {
+      page.failedSynchronously = true;
+      page.request = new CompletableFuture<>();
+      page.request.completeExceptionally(e);
+    }
+    @SuppressWarnings({"FutureReturnValueIgnored", "unused"})
+    CompletableFuture<?> ignored = page.request.whenComplete((r, e) -> onPageFetched(page, r, e));
+  }
+
+  private synchronized void onPageFetched(
+      Page page, GetWorkflowExecutionHistoryResponse response, Throwable failure) {
+    fetchInFlight = false;
+    if (closed) {
+      return;
+    }
+    page.fetchNanos = System.nanoTime() - page.requestNanos;
+    if (failure != null) {
+      // Prefetching stops here, the failure is reported to the caller that consumes the page.
+      page.result.completeExceptionally(failure);
+      return;
+    }
+    nextPageToken = response.getNextPageToken();
+    page.sizeBytes = response.getSerializedSize();
+    bufferedBytes += page.sizeBytes;
+    page.result.complete(response);
+    prefetch();
+  }
+
+  /**
+   * Stops prefetching and cancels the requests of the pages that weren't consumed. Called when the
+   * history isn't going to be iterated any further, for example because the workflow task failed.
+   */
+  @Override
+  public synchronized void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    for (Page page : pages) {
+      if (page.request != null) {
+        page.request.cancel(false);
+      }
+      page.result.cancel(false);
+    }
+    pages.clear();
+    bufferedBytes = 0;
+  }
+
+  /**
+   * Requests a page of history. Cancelling the returned future cancels the call in flight and stops
+   * the retries.
+   */
+  CompletableFuture<GetWorkflowExecutionHistoryResponse> queryWorkflowExecutionHistoryAsync(
+      ByteString pageToken) {
     Duration passed = Duration.ofMillis(System.currentTimeMillis()).minus(paginationStart);
     Duration expiration = workflowTaskTimeout.minus(passed);
     if (expiration.isZero() || expiration.isNegative()) {
@@ -115,18 +284,77 @@ class WorkflowHistoryIterator implements Iterator<HistoryEvent> {
         GetWorkflowExecutionHistoryRequest.newBuilder()
             .setNamespace(namespace)
             .setExecution(task.getWorkflowExecution())
-            .setNextPageToken(nextPageToken)
+            .setNextPageToken(pageToken)
             .build();
-    try {
-      return GrpcRetryer.retryWithResult(
-          retryOptions,
-          () ->
-              service
-                  .blockingStub()
-                  .withOption(METRICS_TAGS_CALL_OPTIONS_KEY, metricsScope)
-                  .getWorkflowExecutionHistory(request));
-    } catch (Exception e) {
-      throw new Error(e);
+    AtomicBoolean cancelled = new AtomicBoolean();
+    AtomicReference<ListenableFuture<?>> call = new AtomicReference<>();
+    CompletableFuture<GetWorkflowExecutionHistoryResponse> result =
+        GrpcRetryer.retryWithResultAsync(
+            retryOptions, () -> requestPageAttempt(request, cancelled, call));
+    @SuppressWarnings({"FutureReturnValueIgnored", "unused"})
+    CompletableFuture<?> ignored =
+        result.whenComplete(
+            (r, e) -> {
+              if (result.isCancelled()) {
+                cancelled.set(true);
+                ListenableFuture<?> inFlight = call.get();
+                if (inFlight != null) {
+                  inFlight.cancel(true);
+                }
+              }
+            });
+    return result;
+  }
+
+  private CompletableFuture<GetWorkflowExecutionHistoryResponse> requestPageAttempt(
+      GetWorkflowExecutionHistoryRequest request,
+      AtomicBoolean cancelled,
+      AtomicReference<ListenableFuture<?>> call) {
+    CompletableFuture<GetWorkflowExecutionHistoryResponse> result = new CompletableFuture<>();
+    if (cancelled.get()) {
+      // Not a gRPC status, so the retryer gives up
+      result.completeExceptionally(new CancellationException("history page request cancelled"));
+      return result;
+    }
+    ListenableFuture<GetWorkflowExecutionHistoryResponse> response =
+        service
+            .futureStub()
+            .withOption(METRICS_TAGS_CALL_OPTIONS_KEY, metricsScope)
+            .getWorkflowExecutionHistory(request);
+    call.set(response);
+    if (cancelled.get()) {
+      response.cancel(true);
+    }
+    Futures.addCallback(
+        response,
+        new FutureCallback<GetWorkflowExecutionHistoryResponse>() {
+          @Override
+          public void onSuccess(GetWorkflowExecutionHistoryResponse r) {
+            result.complete(r);
+          }
+
+          @Override
+          public void onFailure(Throwable t) {
+            result.completeExceptionally(t);
+          }
+        },
+        MoreExecutors.directExecutor());
+    return result;
+  }
+
+  private static final class Page {
+    final boolean prefetched;
+    final long requestNanos = System.nanoTime();
+    final CompletableFuture<GetWorkflowExecutionHistoryResponse> result =
+        new CompletableFuture<>();
+    // Written under the iterator lock before result is completed.
+    CompletableFuture<GetWorkflowExecutionHistoryResponse> request;
+    boolean failedSynchronously;
+    long fetchNanos;
+    long sizeBytes;
+
+    Page(boolean prefetched) {
+      this.prefetched = prefetched;
     }
   }
 }
@@ -44,5 +44,11 @@ public interface WorkflowRunTaskHandler {
   Optional<Payloads> handleQueryWorkflowTask(
       PollWorkflowTaskQueueResponseOrBuilder workflowTask, WorkflowQuery query);
 
+  /**
+   * @return rough estimate of the memory in bytes retained by the cached workflow run, including
+   *     its state machines, workflow thread stacks and payloads. Updated after each handled task.
+   */
+  long getEstimatedRetainedSize();
+
   void close();
 }
@@ -0,0 +1,136 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.internal.statemachines;
+
+import java.util.Objects;
+
+/**
+ * Open addressing hash map with primitive long keys. Used to look up state machines by event id
+ * on every handled event without boxing the id. Null values are not supported as a null value
+ * marks an empty slot. Not thread safe.
+ */
+final class LongHashMap<V> {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private long[] keys;
+  private Object[] values;
+  private int mask;
+  private int size;
+
+  LongHashMap() {
+    keys = new long[INITIAL_CAPACITY];
+    values = new Object[INITIAL_CAPACITY];
+    mask = INITIAL_CAPACITY - 1;
+  }
+
+  int size() {
+    return size;
+  }
+
+  @SuppressWarnings("unchecked")
+  V get(long key) {
+    for (int i = slot(key); ; i = (i + 1) & mask) {
+      Object value = values[i];
+      if (value == null || keys[i] == key) {
+        return (V) value;
+      }
+    }
+  }
+
+  /** @return previous value associated with the key or null if there was none */
+  @SuppressWarnings("unchecked")
+  V put(long key, V value) {
+    Objects.requireNonNull(value);
+    for (int i = slot(key); ; i = (i + 1) & mask) {
+      Object previous = values[i];
+      if (previous == null) {
+        keys[i] = key;
+        values[i] = value;
+        // Keeps the load factor under 3/4
+        if (++size * 4 > keys.length * 3) {
+          resize();
+        }
+        return null;
+      }
+      if (keys[i] == key) {
+        values[i] = value;
+        return (V) previous;
+      }
+    }
+  }
+
+  /** @return removed value or null if the key was not present */
+  @SuppressWarnings("unchecked")
+  V remove(long key) {
+    for (int i = slot(key); ; i = (i + 1) & mask) {
+      Object value = values[i];
+      if (value == null) {
+        return null;
+      }
+      if (keys[i] == key) {
+        shiftBack(i);
+        size--;
+        return (V) value;
+      }
+    }
+  }
+
+  /**
+   * Fills the slot freed at {@code free} with the following entries of the same probe chain, so
+   * lookups never need tombstones.
+   */
+  private void shiftBack(int free) {
+    for (int i = (free + 1) & mask; values[i] != null; i = (i + 1) & mask) {
+      int home = slot(keys[i]);
+      // Move the entry only if its home slot is not in the cyclic range (free, i].
+      boolean reachable = free <= i ? free < home && home <= i : free < home || home <= i;
+      if (!reachable) {
+        keys[free] = keys[i];
+        values[free] = values[i];
+        free = i;
+      }
+    }
+    values[free] = null;
+  }
+
+  private void resize() {
+    long[] oldKeys = keys;
+    Object[] oldValues = values;
+    keys = new long[oldKeys.length * 2];
+    values = new Object[oldValues.length * 2];
+    mask = keys.length - 1;
+    for (int j = 0; j < oldKeys.length; j++) {
+      if (oldValues[j] != null) {
+        int i = slot(oldKeys[j]);
+        while (values[i] != null) {
+          i = (i + 1) & mask;
+        }
+        keys[i] = oldKeys[j];
+        values[i] = oldValues[j];
+      }
+    }
+  }
+
+  private int slot(long key) {
+    long hash = key * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32)) & mask;
+  }
+}
@@ -78,7 +78,12 @@ final class StateMachine<State, ExplicitEvent, Data> {
    * @param data data which is passed as an argument to resulting action.
    */
   public void handleExplicitEvent(ExplicitEvent explicitEvent, Data data) {
-    executeTransition(new TransitionEvent<>(explicitEvent), data);
+    StateMachineDefinition.RegisteredTransition<State, ExplicitEvent, Data> transition =
+        definition.getTransition(state, explicitEvent);
+    if (transition == null) {
+      throw invalidTransition(new TransitionEvent<>(explicitEvent));
+    }
+    executeTransition(transition, data);
   }
 
   /**
@@ -88,7 +93,12 @@ final class StateMachine<State, ExplicitEvent, Data> {
    * @param data data which is passed as an argument to resulting action.
    */
   public void handleHistoryEvent(EventType eventType, Data data) {
-    executeTransition(new TransitionEvent<>(eventType), data);
+    StateMachineDefinition.RegisteredTransition<State, ExplicitEvent, Data> transition =
+        definition.getTransition(state, eventType);
+    if (transition == null) {
+      throw invalidTransition(new TransitionEvent<>(eventType));
+    }
+    executeTransition(transition, data);
   }
 
   /**
@@ -98,7 +108,12 @@ final class StateMachine<State, ExplicitEvent, Data> {
    * @param data data which is passed as an argument to resulting action.
    */
   public void handleCommand(CommandType commandType, Data data) {
-    executeTransition(new TransitionEvent<>(commandType), data);
+    StateMachineDefinition.RegisteredTransition<State, ExplicitEvent, Data> transition =
+        definition.getTransition(state, commandType);
+    if (transition == null) {
+      throw invalidTransition(new TransitionEvent<>(commandType));
+    }
+    executeTransition(transition, data);
   }
 
   public String getHistory() {
@@ -121,20 +136,22 @@ final class StateMachine<State, ExplicitEvent, Data> {
         + '}';
   }
 
-  private void executeTransition(TransitionEvent<ExplicitEvent> transitionEvent, Data data) {
-    Transition<State, TransitionEvent<ExplicitEvent>> transition =
-        new Transition<>(state, transitionEvent);
-    TransitionAction<State, Data> destination = definition.getTransitionAction(transition);
-    if (destination == null) {
-      throw new IllegalArgumentException(
-          definition.getName()
-              + ": invalid "
-              + transition
-              + ", transition history is "
-              + transitionHistory);
-    }
+  private IllegalArgumentException invalidTransition(
+      TransitionEvent<ExplicitEvent> transitionEvent) {
+    return new IllegalArgumentException(
+        definition.getName()
+            + ": invalid "
+            + new Transition<>(state, transitionEvent)
+            + ", transition history is "
+            + transitionHistory);
+  }
+
+  private void executeTransition(
+      StateMachineDefinition.RegisteredTransition<State, ExplicitEvent, Data> registered,
+      Data data) {
+    Transition<State, TransitionEvent<ExplicitEvent>> transition = registered.transition;
     try {
-      state = destination.apply(data);
+      state = registered.action.apply(data);
     } catch (RuntimeException e) {
       throw new RuntimeException(
           definition.getName()
@@ -55,6 +55,9 @@ import java.util.Set;
  */
 final class StateMachineDefinition<State, ExplicitEvent, Data> {
 
+  private static final int EVENT_TYPE_COUNT = EventType.values().length;
+  private static final int COMMAND_TYPE_COUNT = CommandType.values().length;
+
   /** Map of transitions to actions. */
   private final Map<
           Transition<State, TransitionEvent<ExplicitEvent>>, TransitionAction<State, Data>>
@@ -66,6 +69,16 @@ final class StateMachineDefinition<State, ExplicitEvent, Data> {
   private final List<State> finalStates;
   private final Set<EventType> validEventTypes = new HashSet<>();
 
+  /**
+   * Transition tables indexed by the ordinal of the from state and then by the ordinal of the
+   * event. They are filled by the add methods, which run when a state machine class initializes
+   * its definition, so a transition lookup doesn't allocate or hash a key. A row is allocated on
+   * the first transition from its state.
+   */
+  private final RegisteredTransition<State, ExplicitEvent, Data>[][] explicitEventTransitions;
+  private final RegisteredTransition<State, ExplicitEvent, Data>[][] historyEventTransitions;
+  private final RegisteredTransition<State, ExplicitEvent, Data>[][] commandTransitions;
+
   /**
    * Create a new instance of the StateMachine.
    *
@@ -84,10 +97,18 @@ final class StateMachineDefinition<State, ExplicitEvent, Data> {
     return new StateMachineDefinition<>(name, initialState, finalStates);
   }
 
+  @SuppressWarnings("unchecked")
   private StateMachineDefinition(String name, State initialState, State[] finalStates) {
     this.name = Objects.requireNonNull(name);
     this.initialState = Objects.requireNonNull(initialState);
     this.finalStates = Arrays.asList(finalStates);
+    if (!(initialState instanceof Enum)) {
+      throw new IllegalArgumentException("State must be an enum: " + initialState.getClass());
+    }
+    int stateCount = enumConstantCount(initialState);
+    this.explicitEventTransitions = new RegisteredTransition[stateCount][];
+    this.historyEventTransitions = new RegisteredTransition[stateCount][];
+    this.commandTransitions = new RegisteredTransition[stateCount][];
   }
 
   public String getName() {
@@ -276,6 +297,38 @@ final class StateMachineDefinition<State, ExplicitEvent, Data> {
       throw new IllegalArgumentException("Duplicated transition is not allowed: " + transition);
     }
     transitions.put(transition, target);
+    TransitionEvent<ExplicitEvent> event = transition.getExplicitEvent();
+    RegisteredTransition<State, ExplicitEvent, Data>[][] table;
+    int eventOrdinal;
+    int eventCount;
+    if (event.explicitEvent != null) {
+      table = explicitEventTransitions;
+      eventOrdinal = ordinal(event.explicitEvent);
+      eventCount = enumConstantCount(event.explicitEvent);
+    } else if (event.historyEvent != null) {
+      table = historyEventTransitions;
+      eventOrdinal = event.historyEvent.ordinal();
+      eventCount = EVENT_TYPE_COUNT;
+    } else {
+      table = commandTransitions;
+      eventOrdinal = event.commandEvent.ordinal();
+      eventCount = COMMAND_TYPE_COUNT;
+    }
+    int stateOrdinal = ordinal(transition.getFrom());
+    if (table[stateOrdinal] == null) {
+      @SuppressWarnings("unchecked")
+      RegisteredTransition<State, ExplicitEvent, Data>[] row = new RegisteredTransition[eventCount];
+      table[stateOrdinal] = row;
+    }
+    table[stateOrdinal][eventOrdinal] = new RegisteredTransition<>(transition, target);
+  }
+
+  private static int ordinal(Object enumConstant) {
+    return ((Enum<?>) enumConstant).ordinal();
+  }
+
+  private static int enumConstantCount(Object enumConstant) {
+    return ((Enum<?>) enumConstant).getDeclaringClass().getEnumConstants().length;
   }
 
   public boolean isFinalState(State state) {
@@ -412,8 +465,39 @@ final class StateMachineDefinition<State, ExplicitEvent, Data> {
     return result.toString();
   }
 
-  public TransitionAction<State, Data> getTransitionAction(
-      Transition<State, TransitionEvent<ExplicitEvent>> transition) {
-    return transitions.get(transition);
+  /** @return transition from the state caused by the explicit event or null if not registered */
+  RegisteredTransition<State, ExplicitEvent, Data> getTransition(
+      State from, ExplicitEvent explicitEvent) {
+    return lookup(explicitEventTransitions, from, ordinal(explicitEvent));
+  }
+
+  /** @return transition from the state caused by the history event or null if not registered */
+  RegisteredTransition<State, ExplicitEvent, Data> getTransition(State from, EventType eventType) {
+    return lookup(historyEventTransitions, from, eventType.ordinal());
+  }
+
+  /** @return transition from the state caused by the command or null if not registered */
+  RegisteredTransition<State, ExplicitEvent, Data> getTransition(
+      State from, CommandType commandType) {
+    return lookup(commandTransitions, from, commandType.ordinal());
+  }
+
+  private RegisteredTransition<State, ExplicitEvent, Data> lookup(
+      RegisteredTransition<State, ExplicitEvent, Data>[][] table, State from, int eventOrdinal) {
+    RegisteredTransition<State, ExplicitEvent, Data>[] row = table[ordinal(from)];
+    return row == null ? null : row[eventOrdinal];
+  }
+
+  /** Transition together with its action as stored in the transition tables. */
+  static final class RegisteredTransition<State, ExplicitEvent, Data> {
+    final Transition<State, TransitionEvent<ExplicitEvent>> transition;
+    final TransitionAction<State, Data> action;
+
+    private RegisteredTransition(
+        Transition<State, TransitionEvent<ExplicitEvent>> transition,
+        TransitionAction<State, Data> action) {
+      this.transition = transition;
+      this.action = action;
+    }
   }
 }
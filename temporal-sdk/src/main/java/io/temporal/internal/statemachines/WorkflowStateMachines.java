@@ -75,6 +75,9 @@ public final class WorkflowStateMachines {
     NON_MATCHING_EVENT,
   }
 
+  /** Rough estimate of the memory retained by a state machine together with its callbacks. */
+  private static final long ESTIMATED_STATE_MACHINE_SIZE = 512;
+
   private final DataConverter dataConverter = DataConverter.getDefaultInstance();
 
   /**
@@ -105,7 +108,8 @@ public final class WorkflowStateMachines {
 
   private long replayTimeUpdatedAtMillis;
 
-  private final Map<Long, EntityStateMachine> stateMachines = new HashMap<>();
+  /** Key is the id of the event that initiated the state machine. */
+  private final LongHashMap<EntityStateMachine> stateMachines = new LongHashMap<>();
 
   private final Queue<CancellableCommand> commands = new ArrayDeque<>();
 
@@ -204,7 +208,7 @@ public final class WorkflowStateMachines {
         && event.getEventType() != EventType.EVENT_TYPE_WORKFLOW_TASK_COMPLETED) {
       replaying = false;
     }
-    Long initialCommandEventId = getInitialCommandEventId(event);
+    long initialCommandEventId = getInitialCommandEventId(event);
     EntityStateMachine c = stateMachines.get(initialCommandEventId);
     if (c != null) {
       c.handleEvent(event, hasNextEvent);
@@ -594,6 +598,21 @@ public final class WorkflowStateMachines {
     return replaying;
   }
 
+  /**
+   * @return rough estimate of the memory in bytes retained by the state machines and not yet sent
+   *     commands of the workflow.
+   */
+  public long estimateRetainedSize() {
+    long count =
+        stateMachines.size()
+            + mutableSideEffects.size()
+            + vesions.size()
+            + localActivityMap.size()
+            + commands.size()
+            + cancellableCommands.size();
+    return count * ESTIMATED_STATE_MACHINE_SIZE;
+  }
+
   public long currentTimeMillis() {
     return currentTimeMillis;
   }
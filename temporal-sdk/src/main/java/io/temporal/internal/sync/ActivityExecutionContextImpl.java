@@ -36,6 +36,7 @@ import io.temporal.client.ActivityCompletionFailureException;
 import io.temporal.client.ActivityNotExistsException;
 import io.temporal.client.ActivityWorkerShutdownException;
 import io.temporal.common.converter.DataConverter;
+import io.temporal.common.converter.EncodedValues;
 import io.temporal.internal.common.OptionsUtils;
 import io.temporal.internal.external.ManualActivityCompletionClientFactory;
 import io.temporal.internal.external.ManualActivityCompletionClientFactoryImpl;
@@ -70,6 +71,8 @@ class ActivityExecutionContextImpl implements ActivityExecutionContext {
   private boolean doNotCompleteOnReturn;
   private final long heartbeatIntervalMillis;
   private Optional<Object> lastDetails;
+  // Heartbeat details of the previous attempt, deserialized on the first access.
+  private EncodedValues heartbeatDetails;
   private boolean hasOutstandingHeartbeat;
   private final ScheduledExecutorService heartbeatExecutor;
   private final Scope metricsScope;
@@ -141,8 +144,10 @@ class ActivityExecutionContextImpl implements ActivityExecutionContext {
         Optional<V> result = (Optional<V>) this.lastDetails;
         return result;
       }
-      Optional<Payloads> details = info.getHeartbeatDetails();
-      return Optional.ofNullable(dataConverter.fromPayloads(0, details, detailsClass, detailsType));
+      if (heartbeatDetails == null) {
+        heartbeatDetails = new EncodedValues(info.getHeartbeatDetails(), dataConverter);
+      }
+      return Optional.ofNullable(heartbeatDetails.get(0, detailsClass, detailsType));
     } finally {
       lock.unlock();
     }
@@ -39,6 +39,7 @@ class CompletablePromiseImpl<V> implements CompletablePromise<V> {
   private final List<Functions.Proc> handlers = new ArrayList<>();
   private final DeterministicRunnerImpl runner;
   private boolean registeredWithRunner;
+  private final WaitingThreads waitingThreads = new WaitingThreads();
 
   @SuppressWarnings("unchecked")
   static Promise<Object> promiseAnyOf(Promise<?>[] promises) {
@@ -81,14 +82,16 @@ class CompletablePromiseImpl<V> implements CompletablePromise<V> {
 
   private V getImpl(boolean cancellable) {
     if (!completed) {
-      WorkflowThread.await(
-          "Feature.get",
-          () -> {
-            if (cancellable) {
+      if (cancellable) {
+        WorkflowThread.await(
+            "Feature.get",
+            () -> {
               CancellationScope.throwCanceled();
-            }
-            return completed;
-          });
+              return completed;
+            });
+      } else {
+        waitingThreads.await("Feature.get", () -> completed);
+      }
     }
     if (failure != null) {
       unregisterWithRunner();
@@ -141,7 +144,7 @@ class CompletablePromiseImpl<V> implements CompletablePromise<V> {
   @Override
   public RuntimeException getFailure() {
     if (!completed) {
-      WorkflowThread.await("Feature.get", () -> completed);
+      waitingThreads.await("Feature.get", () -> completed);
     }
     if (failure != null) {
       unregisterWithRunner();
@@ -164,6 +167,7 @@ class CompletablePromiseImpl<V> implements CompletablePromise<V> {
     }
     this.completed = true;
     this.value = value;
+    waitingThreads.wakeUpAll();
     invokeHandlers();
     return true;
   }
@@ -175,6 +179,7 @@ class CompletablePromiseImpl<V> implements CompletablePromise<V> {
     }
     this.completed = true;
     this.failure = value;
+    waitingThreads.wakeUpAll();
     boolean invoked = invokeHandlers();
     if (!invoked) {
       runner.registerFailedPromise(this); // To ensure that failure is not ignored
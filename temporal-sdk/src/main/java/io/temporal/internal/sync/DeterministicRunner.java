@@ -123,4 +123,7 @@ interface DeterministicRunner {
   WorkflowThread newThread(Runnable runnable, boolean detached, String name);
 
   void setInterceptorHead(WorkflowOutboundCallsInterceptor interceptorHead);
+
+  /** @return number of not completed threads owned by the DeterministicRunner instance */
+  int getThreadCount();
 }
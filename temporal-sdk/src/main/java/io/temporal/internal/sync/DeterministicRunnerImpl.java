@@ -36,6 +36,7 @@ import io.temporal.common.interceptors.WorkflowOutboundCallsInterceptorBase;
 import io.temporal.failure.CanceledFailure;
 import io.temporal.internal.WorkflowThreadMarker;
 import io.temporal.internal.context.ContextThreadLocal;
+import io.temporal.internal.metrics.MetricsType;
 import io.temporal.internal.replay.ExecuteActivityParameters;
 import io.temporal.internal.replay.ExecuteLocalActivityParameters;
 import io.temporal.internal.replay.ReplayWorkflowContext;
@@ -163,6 +164,14 @@ class DeterministicRunnerImpl implements DeterministicRunner {
   private WorkflowThread rootWorkflowThread;
   private final CancellationScopeImpl runnerCancellationScope;
 
+  /**
+   * Incremented every time the workflow state could have changed: when a workflow thread makes
+   * progress and when runUntilAllBlocked is called as the state could be changed between the calls.
+   * Unblock conditions already evaluated to false against the current version are not evaluated
+   * again as their result can't differ.
+   */
+  private long stateVersion;
+
   DeterministicRunnerImpl(Runnable root) {
     this(System::currentTimeMillis, root);
   }
@@ -239,6 +248,8 @@ class DeterministicRunnerImpl implements DeterministicRunner {
       checkClosed();
 
       inRunUntilAllBlocked = true;
+      stateVersion++;
+      int conditionEvaluations = 0;
       Throwable unhandledException = null;
       // Keep repeating until at least one of the threads makes progress.
       boolean progress;
@@ -279,7 +290,17 @@ class DeterministicRunnerImpl implements DeterministicRunner {
         Iterator<WorkflowThread> ci = threads.iterator();
         while (ci.hasNext()) {
           WorkflowThread c = ci.next();
-          progress = c.runUntilBlocked(deadlockDetectionTimeout) || progress;
+          WorkflowThreadContext context = c.getWorkflowThreadContext();
+          if (context.isBlocked(stateVersion)) {
+            // Nothing this thread waits for has changed, so switching to it can't make progress.
+            continue;
+          }
+          conditionEvaluations++;
+          if (c.runUntilBlocked(deadlockDetectionTimeout)) {
+            progress = true;
+            stateVersion++;
+          }
+          context.setEvaluatedStateVersion(stateVersion);
           if (exitRequested) {
             close();
             break outerLoop;
@@ -300,6 +321,10 @@ class DeterministicRunnerImpl implements DeterministicRunner {
           threads.add(c);
         }
       } while (progress && !threads.isEmpty());
+      workflowContext
+          .getMetricsScope()
+          .counter(MetricsType.WORKFLOW_TASK_AWAIT_CONDITION_EVALUATIONS_COUNTER)
+          .inc(conditionEvaluations);
     } catch (PotentialDeadlockException e) {
       StringBuilder dump = new StringBuilder();
       for (WorkflowThread t : threads) {
@@ -332,6 +357,16 @@ class DeterministicRunnerImpl implements DeterministicRunner {
     }
   }
 
+  @Override
+  public int getThreadCount() {
+    lock.lock();
+    try {
+      return closed ? 0 : threads.size() + threadsToAdd.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
   @Override
   @SuppressWarnings("unchecked")
   public Object getExitValue() {
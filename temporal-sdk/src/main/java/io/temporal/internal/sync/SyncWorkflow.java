@@ -49,6 +49,9 @@ class SyncWorkflow implements ReplayWorkflow {
 
   private static final Logger log = LoggerFactory.getLogger(SyncWorkflow.class);
 
+  /** Rough estimate of the memory committed by a stack of a blocked workflow thread. */
+  private static final long ESTIMATED_WORKFLOW_THREAD_SIZE = 64 * 1024;
+
   private final DataConverter dataConverter;
   private final List<ContextPropagator> contextPropagators;
   private final ExecutorService threadPool;
@@ -169,6 +172,14 @@ class SyncWorkflow implements ReplayWorkflow {
     }
   }
 
+  @Override
+  public long estimateRetainedSize() {
+    if (runner == null) {
+      return 0;
+    }
+    return runner.getThreadCount() * ESTIMATED_WORKFLOW_THREAD_SIZE;
+  }
+
   @Override
   public Optional<Payloads> query(WorkflowQuery query) {
     if (WorkflowClient.QUERY_TYPE_REPLAY_ONLY.equals(query.getQueryType())) {
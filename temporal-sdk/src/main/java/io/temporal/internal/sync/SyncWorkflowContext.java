@@ -97,6 +97,8 @@ final class SyncWorkflowContext implements WorkflowOutboundCallsInterceptor {
 
   private ActivityOptions defaultActivityOptions = null;
   private Map<String, ActivityOptions> activityOptionsMap = new HashMap<>();
+  private Duration timerCoalescingGranularity;
+  private final WorkflowTimers coalescedTimers = new WorkflowTimers();
 
   public SyncWorkflowContext(
       ReplayWorkflowContext context,
@@ -124,6 +126,8 @@ final class SyncWorkflowContext implements WorkflowOutboundCallsInterceptor {
     if (workflowImplementationOptions != null) {
       this.defaultActivityOptions = workflowImplementationOptions.getDefaultActivityOptions();
       this.activityOptionsMap = workflowImplementationOptions.getActivityOptions();
+      this.timerCoalescingGranularity =
+          workflowImplementationOptions.getTimerCoalescingGranularity();
     }
   }
 
@@ -540,6 +544,9 @@ final class SyncWorkflowContext implements WorkflowOutboundCallsInterceptor {
 
   @Override
   public Promise<Void> newTimer(Duration delay) {
+    if (timerCoalescingGranularity != null && delay.toMillis() > 0) {
+      return newCoalescedTimer(delay);
+    }
     CompletablePromise<Void> p = Workflow.newPromise();
     Functions.Proc1<RuntimeException> cancellationHandler =
         context.newTimer(
@@ -565,6 +572,39 @@ final class SyncWorkflowContext implements WorkflowOutboundCallsInterceptor {
     return p;
   }
 
+  /**
+   * Rounds the fire time up to a multiple of timerCoalescingGranularity and fires all timers with
+   * the same fire time by a single server timer.
+   */
+  private Promise<Void> newCoalescedTimer(Duration delay) {
+    long granularity = timerCoalescingGranularity.toMillis();
+    long now = context.currentTimeMillis();
+    long fireTime = (now + delay.toMillis() + granularity - 1) / granularity * granularity;
+    if (!coalescedTimers.hasTimers(fireTime)) {
+      Functions.Proc1<RuntimeException> cancellationHandler =
+          context.newTimer(
+              Duration.ofMillis(fireTime - now),
+              (e) -> {
+                // The server timer is canceled only after all its timers were canceled.
+                if (e == null) {
+                  runner.executeInWorkflowThread(
+                      "timer-callback", () -> coalescedTimers.fireTimers(fireTime));
+                }
+              });
+      coalescedTimers.startTimers(fireTime, cancellationHandler);
+    }
+    CompletablePromise<Void> p = Workflow.newPromise();
+    coalescedTimers.addTimer(fireTime, p);
+    CancellationScope.current()
+        .getCancellationRequest()
+        .thenApply(
+            (r) -> {
+              coalescedTimers.cancelTimer(fireTime, p, new CanceledFailure(r));
+              return r;
+            });
+    return p;
+  }
+
   @Override
   public <R> R sideEffect(Class<R> resultClass, Type resultType, Func<R> func) {
     try {
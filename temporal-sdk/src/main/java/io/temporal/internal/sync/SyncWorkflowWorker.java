@@ -41,9 +41,9 @@ import java.lang.reflect.Type;
 import java.time.Duration;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 /** Workflow worker that supports POJO workflow implementations. */
@@ -67,7 +67,7 @@ public class SyncWorkflowWorker
       WorkflowExecutorCache cache,
       String stickyTaskQueueName,
       Duration stickyWorkflowTaskScheduleToStartTimeout,
-      ThreadPoolExecutor workflowThreadPool) {
+      ExecutorService workflowThreadPool) {
     Objects.requireNonNull(workflowThreadPool);
     this.dataConverter = singleWorkerOptions.getDataConverter();
 
@@ -0,0 +1,64 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.internal.sync;
+
+import static io.temporal.internal.sync.DeterministicRunnerImpl.currentThreadInternal;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Workflow threads blocked until some state, like promise completion or queue contents, changes.
+ * The code that changes the state calls {@link #wakeUpAll()} so {@link DeterministicRunner} only
+ * switches to the threads whose unblock condition could have changed instead of to every blocked
+ * thread.
+ */
+final class WaitingThreads {
+
+  // Allocated on the first wait as most promises and queues are never waited on.
+  private Set<WorkflowThread> threads;
+
+  /**
+   * Blocks the current thread until unblockCondition is true. The condition must only depend on
+   * the state guarded by this instance.
+   */
+  void await(String reason, Supplier<Boolean> unblockCondition) {
+    WorkflowThread current = currentThreadInternal();
+    if (threads == null) {
+      threads = new LinkedHashSet<>();
+    }
+    threads.add(current);
+    try {
+      current.yieldUntilWokenUp(reason, unblockCondition);
+    } finally {
+      threads.remove(current);
+    }
+  }
+
+  void wakeUpAll() {
+    if (threads == null) {
+      return;
+    }
+    for (WorkflowThread thread : threads) {
+      thread.wakeUp();
+    }
+  }
+}
@@ -31,6 +31,8 @@ final class WorkflowQueueImpl<E> implements WorkflowQueue<E> {
 
   private final Deque<E> queue = new ArrayDeque<>();
   private final int capacity;
+  private final WaitingThreads waitingForElement = new WaitingThreads();
+  private final WaitingThreads waitingForSpace = new WaitingThreads();
 
   public WorkflowQueueImpl(int capacity) {
     if (capacity < 1) {
@@ -41,8 +43,8 @@ final class WorkflowQueueImpl<E> implements WorkflowQueue<E> {
 
   @Override
   public E take() {
-    WorkflowThread.await("WorkflowQueue.take", () -> !queue.isEmpty());
-    return queue.poll();
+    waitingForElement.await("WorkflowQueue.take", () -> !queue.isEmpty());
+    return remove();
   }
 
   @Override
@@ -53,7 +55,7 @@ final class WorkflowQueueImpl<E> implements WorkflowQueue<E> {
           CancellationScope.throwCanceled();
           return !queue.isEmpty();
         });
-    return queue.poll();
+    return remove();
   }
 
   @Override
@@ -61,7 +63,7 @@ final class WorkflowQueueImpl<E> implements WorkflowQueue<E> {
     if (queue.isEmpty()) {
       return null;
     }
-    return queue.remove();
+    return remove();
   }
 
   @Override
@@ -79,7 +81,7 @@ final class WorkflowQueueImpl<E> implements WorkflowQueue<E> {
     if (queue.isEmpty()) {
       return null;
     }
-    return queue.remove();
+    return remove();
   }
 
   @Override
@@ -95,7 +97,7 @@ final class WorkflowQueueImpl<E> implements WorkflowQueue<E> {
     if (queue.isEmpty()) {
       return null;
     }
-    return queue.remove();
+    return remove();
   }
 
   @Override
@@ -103,14 +105,14 @@ final class WorkflowQueueImpl<E> implements WorkflowQueue<E> {
     if (queue.size() == capacity) {
       return false;
     }
-    queue.addLast(e);
+    add(e);
     return true;
   }
 
   @Override
   public void put(E e) {
-    WorkflowThread.await("WorkflowQueue.put", () -> queue.size() < capacity);
-    queue.addLast(e);
+    waitingForSpace.await("WorkflowQueue.put", () -> queue.size() < capacity);
+    add(e);
   }
 
   @Override
@@ -121,7 +123,7 @@ final class WorkflowQueueImpl<E> implements WorkflowQueue<E> {
           CancellationScope.throwCanceled();
           return queue.size() < capacity;
         });
-    queue.addLast(e);
+    add(e);
   }
 
   @Override
@@ -130,7 +132,7 @@ final class WorkflowQueueImpl<E> implements WorkflowQueue<E> {
     if (queue.size() >= capacity) {
       return false;
     }
-    queue.addLast(e);
+    add(e);
     return true;
   }
 
@@ -141,10 +143,21 @@ final class WorkflowQueueImpl<E> implements WorkflowQueue<E> {
     if (queue.size() >= capacity) {
       return false;
     }
-    queue.addLast(e);
+    add(e);
     return true;
   }
 
+  private void add(E e) {
+    queue.addLast(e);
+    waitingForElement.wakeUpAll();
+  }
+
+  private E remove() {
+    E result = queue.remove();
+    waitingForSpace.wakeUpAll();
+    return result;
+  }
+
   @Override
   public <R> QueueConsumer<R> map(Functions.Func1<? super E, ? extends R> mapper) {
     return new MappedQueueConsumer<R, E>(this, mapper);
@@ -94,6 +94,18 @@ interface WorkflowThread extends CancellationScope {
 
   void yield(String reason, Supplier<Boolean> unblockCondition) throws DestroyWorkflowThreadError;
 
+  /**
+   * Same as {@link #yield(String, Supplier)} for conditions that can change only after {@link
+   * #wakeUp()} is called on this thread.
+   *
+   * @see WaitingThreads
+   */
+  void yieldUntilWokenUp(String reason, Supplier<Boolean> unblockCondition)
+      throws DestroyWorkflowThreadError;
+
+  /** Requests reevaluation of the condition this thread is blocked on in yieldUntilWokenUp. */
+  void wakeUp();
+
   /**
    * Stop executing all workflow threads and puts {@link DeterministicRunner} into closed state. To
    * be called only from a workflow thread.
@@ -47,6 +47,11 @@ class WorkflowThreadContext {
   private String yieldReason;
   private boolean destroyRequested;
   private Thread currentThread;
+  // True while the thread is blocked in yieldUntilWokenUp and its unblock condition hasn't been
+  // invalidated by wakeUp since it was last evaluated.
+  private boolean waitingForWakeUp;
+  // Version of the workflow state the unblock condition was last evaluated against.
+  private long evaluatedStateVersion = -1;
 
   WorkflowThreadContext(Lock lock) {
     this.lock = lock;
@@ -67,6 +72,19 @@ class WorkflowThreadContext {
   }
 
   public void yield(String reason, Supplier<Boolean> unblockFunction) {
+    yieldImpl(reason, unblockFunction, false);
+  }
+
+  /**
+   * Same as {@link #yield(String, Supplier)} for conditions that can change only after {@link
+   * #wakeUp()} is called. Until then the runner skips this thread instead of switching to it to
+   * evaluate the condition.
+   */
+  public void yieldUntilWokenUp(String reason, Supplier<Boolean> unblockFunction) {
+    yieldImpl(reason, unblockFunction, true);
+  }
+
+  private void yieldImpl(String reason, Supplier<Boolean> unblockFunction, boolean untilWokenUp) {
     if (unblockFunction == null) {
       throw new IllegalArgumentException("null unblockFunction");
     }
@@ -78,6 +96,10 @@ class WorkflowThreadContext {
         if (destroyRequested) {
           throw new DestroyWorkflowThreadError();
         }
+        if (inRunUntilBlocked) {
+          // The condition was just evaluated to false.
+          waitingForWakeUp = untilWokenUp;
+        }
         status = Status.YIELDED;
         runCondition.signal();
         yieldCondition.await();
@@ -89,6 +111,7 @@ class WorkflowThreadContext {
       throw new Error("Unexpected interrupt", e);
     } finally {
       setStatus(Status.RUNNING);
+      waitingForWakeUp = false;
       remainedBlocked = false;
       yieldReason = null;
       lock.unlock();
@@ -149,6 +172,42 @@ class WorkflowThreadContext {
     }
   }
 
+  /** Makes the runner switch to this thread to reevaluate the condition it is blocked on. */
+  public void wakeUp() {
+    lock.lock();
+    try {
+      waitingForWakeUp = false;
+      evaluatedStateVersion = -1;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return true if running this thread can't make progress as it waits for {@link #wakeUp()} or
+   *     its unblock condition was already evaluated to false against stateVersion of the workflow
+   *     state
+   */
+  public boolean isBlocked(long stateVersion) {
+    lock.lock();
+    try {
+      return status == Status.YIELDED
+          && (waitingForWakeUp || evaluatedStateVersion == stateVersion);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Records the version of the workflow state the unblock condition was just evaluated against. */
+  public void setEvaluatedStateVersion(long stateVersion) {
+    lock.lock();
+    try {
+      evaluatedStateVersion = stateVersion;
+    } finally {
+      lock.unlock();
+    }
+  }
+
   public Status getStatus() {
     lock.lock();
     try {
@@ -235,7 +235,7 @@ class WorkflowThreadImpl implements WorkflowThread {
     }
     context.setStatus(Status.RUNNING);
 
-    if (metricsRateLimiter.tryAcquire(1)) {
+    if (threadPool instanceof ThreadPoolExecutor && metricsRateLimiter.tryAcquire(1)) {
       getWorkflowContext()
           .getMetricsScope()
           .gauge(MetricsType.WORKFLOW_ACTIVE_THREAD_COUNT)
@@ -411,6 +411,16 @@ class WorkflowThreadImpl implements WorkflowThread {
     context.yield(reason, unblockCondition);
   }
 
+  @Override
+  public void yieldUntilWokenUp(String reason, Supplier<Boolean> unblockCondition) {
+    context.yieldUntilWokenUp(reason, unblockCondition);
+  }
+
+  @Override
+  public void wakeUp() {
+    context.wakeUp();
+  }
+
   @Override
   public <R> void exitThread(R value) {
     runner.exit(value);
@@ -20,39 +20,28 @@
 package io.temporal.internal.sync;
 
 import io.temporal.workflow.CompletablePromise;
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
+import io.temporal.workflow.Functions;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
-import java.util.SortedMap;
-import java.util.TreeMap;
 
-/** Helper class for timers. Not thread safe. */
+/**
+ * Helper class for timers that are coalesced by fire time. All timers that fire at the same time
+ * are fired by a single server timer. Not thread safe.
+ */
 class WorkflowTimers {
 
   /** Timers that fire at the same time. */
   private static class Timers {
 
-    private final Set<CompletablePromise<Void>> results = new HashSet<>();
-
-    private final long fireTime;
+    // Ordered to complete the timers deterministically.
+    private final Set<CompletablePromise<Void>> results = new LinkedHashSet<>();
 
-    private Timers(long fireTime) {
-      this.fireTime = fireTime;
-    }
+    private final Functions.Proc1<RuntimeException> cancellationHandler;
 
-    void addTimer(CompletablePromise<Void> result) {
-      results.add(result);
-      // Remove timer on cancellation
-      result.handle(
-          (r, failure) -> {
-            if (failure != null) {
-              results.remove(result);
-              throw failure;
-            }
-            return r;
-          });
+    private Timers(Functions.Proc1<RuntimeException> cancellationHandler) {
+      this.cancellationHandler = cancellationHandler;
     }
 
     void fire() {
@@ -60,69 +49,57 @@ class WorkflowTimers {
         t.complete(null);
       }
     }
+  }
 
-    public void remove(CompletablePromise<Void> result) {
-      results.remove(result);
-    }
+  /** Timers by fire time. */
+  private final Map<Long, Timers> timers = new HashMap<>();
 
-    public boolean isEmpty() {
-      return results.isEmpty();
-    }
+  public boolean hasTimers(long fireTime) {
+    return timers.containsKey(fireTime);
   }
 
-  /** Timers sorted by fire time. */
-  private final SortedMap<Long, Timers> timers = new TreeMap<>();
+  /**
+   * Registers the server timer that fires the timers added for fireTime.
+   *
+   * @param cancellationHandler cancels the server timer
+   */
+  public void startTimers(long fireTime, Functions.Proc1<RuntimeException> cancellationHandler) {
+    if (timers.containsKey(fireTime)) {
+      throw new IllegalStateException("Timers already started for " + fireTime);
+    }
+    timers.put(fireTime, new Timers(cancellationHandler));
+  }
 
   public void addTimer(long fireTime, CompletablePromise<Void> result) {
     Timers t = timers.get(fireTime);
     if (t == null) {
-      t = new Timers(fireTime);
-      timers.put(fireTime, t);
+      throw new IllegalStateException("Timers not started for " + fireTime);
     }
-    t.addTimer(result);
+    t.results.add(result);
   }
 
-  public void removeTimer(long fireTime, CompletablePromise<Void> result) {
+  /**
+   * Completes the result of a single timer with the failure. The server timer is canceled when no
+   * other timers that fire at the same time remain. Does nothing if the timer already fired.
+   */
+  public void cancelTimer(
+      long fireTime, CompletablePromise<Void> result, RuntimeException failure) {
     Timers t = timers.get(fireTime);
-    if (t == null) {
-      throw new Error("Unknown timer");
+    if (t == null || !t.results.remove(result)) {
+      return;
     }
-    t.remove(result);
-    if (t.isEmpty()) {
+    result.completeExceptionally(failure);
+    if (t.results.isEmpty()) {
       timers.remove(fireTime);
+      t.cancellationHandler.apply(failure);
     }
   }
 
-  public boolean hasTimersToFire(long currentTime) {
-    return !timers.isEmpty() && timers.firstKey() <= currentTime;
-  }
-
-  /** @return true if any timer fired */
-  public void fireTimers(long currentTime) {
-    boolean fired = false;
-    boolean newTimersAdded;
-    do {
-      List<Timers> toFire = new ArrayList<>();
-      for (Map.Entry<Long, Timers> pair : timers.entrySet()) {
-        if (pair.getKey() > currentTime) {
-          break;
-        }
-        toFire.add(pair.getValue());
-      }
-      int beforeSize = timers.size() - toFire.size();
-      for (Timers t : toFire) {
-        t.fire();
-        timers.remove(t.fireTime);
-      }
-      newTimersAdded = timers.size() > beforeSize;
-      fired = fired || !toFire.isEmpty();
-    } while (newTimersAdded);
-  }
-
-  public long getNextFireTime() {
-    if (timers.isEmpty()) {
-      return 0;
+  /** Called when the server timer fires. */
+  public void fireTimers(long fireTime) {
+    Timers t = timers.remove(fireTime);
+    if (t != null) {
+      t.fire();
     }
-    return timers.firstKey();
   }
 }
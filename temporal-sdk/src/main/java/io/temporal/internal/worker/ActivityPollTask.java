@@ -21,6 +21,10 @@ package io.temporal.internal.worker;
 
 import static io.temporal.serviceclient.MetricsTag.METRICS_TAGS_CALL_OPTIONS_KEY;
 
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.protobuf.DoubleValue;
 import com.uber.m3.tally.Scope;
 import io.grpc.Status;
@@ -32,11 +36,13 @@ import io.temporal.api.workflowservice.v1.PollActivityTaskQueueResponse;
 import io.temporal.internal.common.ProtobufTimeUtils;
 import io.temporal.internal.metrics.MetricsType;
 import io.temporal.serviceclient.WorkflowServiceStubs;
+import java.util.Objects;
 import java.util.concurrent.Semaphore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-final class ActivityPollTask implements Poller.PollTask<ActivityTask> {
+final class ActivityPollTask
+    implements Poller.PollTask<ActivityTask>, AsyncPoller.AsyncPollTask<ActivityTask> {
 
   private final WorkflowServiceStubs service;
   private final String namespace;
@@ -46,6 +52,7 @@ final class ActivityPollTask implements Poller.PollTask<ActivityTask> {
   private final double taskQueueActivitiesPerSecond;
   private final Scope metricsScope;
   private final Semaphore pollSemaphore;
+  private volatile Runnable capacityReleaseListener = () -> {};
 
   public ActivityPollTask(
       WorkflowServiceStubs service,
@@ -65,6 +72,90 @@ final class ActivityPollTask implements Poller.PollTask<ActivityTask> {
 
   @Override
   public ActivityTask poll() {
+    PollActivityTaskQueueRequest pollRequest = createPollRequest();
+    PollActivityTaskQueueResponse response;
+    boolean isSuccessful = false;
+
+    try {
+      pollSemaphore.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+
+    try {
+      response =
+          service
+              .blockingStub()
+              .withOption(METRICS_TAGS_CALL_OPTIONS_KEY, metricsScope)
+              .pollActivityTaskQueue(pollRequest);
+      isSuccessful = handleResponse(response);
+    } catch (StatusRuntimeException e) {
+      return nullIfChannelShutdown(e);
+    } finally {
+      if (!isSuccessful) pollSemaphore.release();
+    }
+    return isSuccessful ? new ActivityTask(response, pollSemaphore::release) : null;
+  }
+
+  @Override
+  public void setCapacityReleaseListener(Runnable listener) {
+    this.capacityReleaseListener = Objects.requireNonNull(listener);
+  }
+
+  @Override
+  public ListenableFuture<ActivityTask> pollAsync() {
+    PollActivityTaskQueueRequest pollRequest = createPollRequest();
+    // The async poller holds an execution slot before polling, so a permit is missing only while
+    // an activity that is completed asynchronously outlives its execution slot.
+    if (!pollSemaphore.tryAcquire()) {
+      return null;
+    }
+    ListenableFuture<ActivityTask> result;
+    try {
+      ListenableFuture<PollActivityTaskQueueResponse> response =
+          service
+              .futureStub()
+              .withOption(METRICS_TAGS_CALL_OPTIONS_KEY, metricsScope)
+              .pollActivityTaskQueue(pollRequest);
+      result =
+          Futures.catching(
+              Futures.transform(
+                  response,
+                  r -> handleResponse(r) ? new ActivityTask(r, this::releasePermit) : null,
+                  MoreExecutors.directExecutor()),
+              StatusRuntimeException.class,
+              this::nullIfChannelShutdown,
+              MoreExecutors.directExecutor());
+    } catch (RuntimeException e) {
+      releasePermit();
+      throw e;
+    }
+    Futures.addCallback(
+        result,
+        new FutureCallback<ActivityTask>() {
+          @Override
+          public void onSuccess(ActivityTask task) {
+            if (task == null) {
+              releasePermit();
+            }
+          }
+
+          @Override
+          public void onFailure(Throwable e) {
+            releasePermit();
+          }
+        },
+        MoreExecutors.directExecutor());
+    return result;
+  }
+
+  private void releasePermit() {
+    pollSemaphore.release();
+    capacityReleaseListener.run();
+  }
+
+  private PollActivityTaskQueueRequest createPollRequest() {
     PollActivityTaskQueueRequest.Builder pollRequest =
         PollActivityTaskQueueRequest.newBuilder()
             .setNamespace(namespace)
@@ -81,42 +172,28 @@ final class ActivityPollTask implements Poller.PollTask<ActivityTask> {
     if (log.isTraceEnabled()) {
       log.trace("poll request begin: " + pollRequest);
     }
-    PollActivityTaskQueueResponse response;
-    boolean isSuccessful = false;
+    return pollRequest.build();
+  }
 
-    try {
-      pollSemaphore.acquire();
-    } catch (InterruptedException e) {
-      Thread.currentThread().interrupt();
+  private ActivityTask nullIfChannelShutdown(StatusRuntimeException e) {
+    if (e.getStatus().getCode() == Status.Code.UNAVAILABLE
+        && e.getMessage().startsWith("UNAVAILABLE: Channel shutdown")) {
       return null;
     }
+    throw e;
+  }
 
-    try {
-      response =
-          service
-              .blockingStub()
-              .withOption(METRICS_TAGS_CALL_OPTIONS_KEY, metricsScope)
-              .pollActivityTaskQueue(pollRequest.build());
-
-      if (response == null || response.getTaskToken().isEmpty()) {
-        metricsScope.counter(MetricsType.ACTIVITY_POLL_NO_TASK_COUNTER).inc(1);
-        return null;
-      }
-      metricsScope
-          .timer(MetricsType.ACTIVITY_SCHEDULE_TO_START_LATENCY)
-          .record(
-              ProtobufTimeUtils.toM3Duration(
-                  response.getStartedTime(), response.getCurrentAttemptScheduledTime()));
-      isSuccessful = true;
-    } catch (StatusRuntimeException e) {
-      if (e.getStatus().getCode() == Status.Code.UNAVAILABLE
-          && e.getMessage().startsWith("UNAVAILABLE: Channel shutdown")) {
-        return null;
-      }
-      throw e;
-    } finally {
-      if (!isSuccessful) pollSemaphore.release();
+  /** @return true if the response contains a task */
+  private boolean handleResponse(PollActivityTaskQueueResponse response) {
+    if (response == null || response.getTaskToken().isEmpty()) {
+      metricsScope.counter(MetricsType.ACTIVITY_POLL_NO_TASK_COUNTER).inc(1);
+      return false;
     }
-    return new ActivityTask(response, pollSemaphore::release);
+    metricsScope
+        .timer(MetricsType.ACTIVITY_SCHEDULE_TO_START_LATENCY)
+        .record(
+            ProtobufTimeUtils.toM3Duration(
+                response.getStartedTime(), response.getCurrentAttemptScheduledTime()));
+    return true;
   }
 }
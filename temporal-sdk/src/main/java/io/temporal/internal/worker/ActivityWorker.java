@@ -24,7 +24,6 @@ import static io.temporal.serviceclient.MetricsTag.METRICS_TAGS_CALL_OPTIONS_KEY
 import com.uber.m3.tally.Scope;
 import com.uber.m3.tally.Stopwatch;
 import com.uber.m3.util.Duration;
-import com.uber.m3.util.ImmutableMap;
 import io.temporal.api.common.v1.WorkflowExecution;
 import io.temporal.api.failure.v1.CanceledFailureInfo;
 import io.temporal.api.failure.v1.Failure;
@@ -41,6 +40,7 @@ import io.temporal.internal.worker.activity.ActivityWorkerHelper;
 import io.temporal.serviceclient.GrpcRetryer;
 import io.temporal.serviceclient.MetricsTag;
 import io.temporal.serviceclient.RpcRetryOptions;
+import io.temporal.serviceclient.TaggedScopeCache;
 import io.temporal.serviceclient.WorkflowServiceStubs;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
@@ -49,6 +49,7 @@ import org.slf4j.MDC;
 public final class ActivityWorker implements SuspendableWorker {
 
   private static final String POLL_THREAD_NAME_PREFIX = "Activity Poller taskQueue=";
+  private static final String WORKER_TYPE = "ActivityWorker";
 
   private SuspendableWorker poller = new NoopSuspendableWorker();
   private final ActivityTaskHandler handler;
@@ -57,6 +58,10 @@ public final class ActivityWorker implements SuspendableWorker {
   private final String taskQueue;
   private final SingleWorkerOptions options;
   private final double taskQueueActivitiesPerSecond;
+  private final TaggedScopeCache workflowTypeScopes =
+      new TaggedScopeCache(MetricsTag.WORKFLOW_TYPE);
+  private final TaggedScopeCache activityTypeScopes =
+      new TaggedScopeCache(MetricsTag.ACTIVITY_TYPE);
 
   public ActivityWorker(
       WorkflowServiceStubs service,
@@ -90,14 +95,29 @@ public final class ActivityWorker implements SuspendableWorker {
   @Override
   public void start() {
     if (handler.isAnyTypeSupported()) {
-      poller =
-          new Poller<>(
-              options.getIdentity(),
-              new ActivityPollTask(
-                  service, namespace, taskQueue, options, taskQueueActivitiesPerSecond),
-              new PollTaskExecutor<>(namespace, taskQueue, options, new TaskHandlerImpl(handler)),
-              options.getPollerOptions(),
-              options.getMetricsScope());
+      ActivityPollTask pollTask =
+          new ActivityPollTask(
+              service, namespace, taskQueue, options, taskQueueActivitiesPerSecond);
+      PollTaskExecutor<ActivityTask> pollTaskExecutor =
+          new PollTaskExecutor<>(
+              namespace, taskQueue, WORKER_TYPE, options, new TaskHandlerImpl(handler));
+      if (options.getPollerOptions().isAsyncPolling()) {
+        poller =
+            new AsyncPoller<>(
+                options.getIdentity(),
+                pollTask,
+                pollTaskExecutor,
+                options.getPollerOptions(),
+                options.getMetricsScope());
+      } else {
+        poller =
+            new Poller<>(
+                options.getIdentity(),
+                pollTask,
+                pollTaskExecutor,
+                options.getPollerOptions(),
+                options.getMetricsScope());
+      }
       poller.start();
       options.getMetricsScope().counter(MetricsType.WORKER_START_COUNTER).inc(1);
     }
@@ -160,14 +180,9 @@ public final class ActivityWorker implements SuspendableWorker {
     public void handle(ActivityTask task) throws Exception {
       PollActivityTaskQueueResponse r = task.getResponse();
       Scope metricsScope =
-          options
-              .getMetricsScope()
-              .tagged(
-                  ImmutableMap.of(
-                      MetricsTag.ACTIVITY_TYPE,
-                      r.getActivityType().getName(),
-                      MetricsTag.WORKFLOW_TYPE,
-                      r.getWorkflowType().getName()));
+          activityTypeScopes.tagged(
+              workflowTypeScopes.tagged(options.getMetricsScope(), r.getWorkflowType().getName()),
+              r.getActivityType().getName());
       ActivityTaskHandler.Result response = null;
       try {
         metricsScope
@@ -0,0 +1,394 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.internal.worker;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.uber.m3.tally.Scope;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.temporal.internal.common.InternalUtils;
+import io.temporal.internal.metrics.MetricsType;
+import io.temporal.serviceclient.BackoffThrottler;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Poller that keeps {@link PollerOptions#getPollThreadCount()} long polls outstanding using
+ * asynchronous gRPC calls. Unlike {@link Poller} outstanding polls don't occupy a thread. A single
+ * scheduler thread issues the polls and the completed ones are dispatched straight into the task
+ * executor from the gRPC callback. Poll loops that can't poll because there is no free execution
+ * slot or {@link AsyncPollTask} capacity are parked until one is released.
+ */
+final class AsyncPoller<T> implements SuspendableWorker {
+
+  interface AsyncPollTask<TT> {
+    /**
+     * Issues a long poll request.
+     *
+     * @return future that completes with the polled task or null if the poll returned empty. Null
+     *     instead of a future if the poll wasn't issued as there is no capacity to process a task.
+     */
+    ListenableFuture<TT> pollAsync();
+
+    /**
+     * Sets the listener to call whenever capacity is released after {@link #pollAsync()} returned
+     * null for the lack of it. Poll tasks that always have capacity don't need to call it.
+     */
+    default void setCapacityReleaseListener(Runnable listener) {}
+  }
+
+  private static final Logger log = LoggerFactory.getLogger(AsyncPoller.class);
+  // Delay before checking again if polling was resumed
+  private static final long SUSPENDED_RECHECK_DELAY_MILLIS = 100;
+
+  private final String identity;
+  private final AsyncPollTask<T> pollTask;
+  private final PollTaskExecutor<T> taskExecutor;
+  private final PollerOptions pollerOptions;
+  private final Scope metricsScope;
+
+  private final AtomicBoolean suspended = new AtomicBoolean();
+  private final AtomicInteger pollerCount = new AtomicInteger();
+  private final Set<ListenableFuture<T>> outstandingPolls = ConcurrentHashMap.newKeySet();
+  private final ParkedPollLoops waitingForSlot = new ParkedPollLoops();
+  private final ParkedPollLoops waitingForCapacity = new ParkedPollLoops();
+
+  private ScheduledExecutorService scheduler;
+  private BackoffThrottler pollBackoffThrottler;
+  private Throttler pollRateThrottler;
+  // Not null if poller autoscaling is enabled
+  private PollerAutoscaler autoscaler;
+
+  AsyncPoller(
+      String identity,
+      AsyncPollTask<T> pollTask,
+      PollTaskExecutor<T> taskExecutor,
+      PollerOptions pollerOptions,
+      Scope metricsScope) {
+    this.identity = Objects.requireNonNull(identity, "identity cannot be null");
+    this.pollTask = Objects.requireNonNull(pollTask, "poll service should not be null");
+    this.taskExecutor = Objects.requireNonNull(taskExecutor, "taskExecutor should not be null");
+    this.pollerOptions = Objects.requireNonNull(pollerOptions, "pollerOptions should not be null");
+    this.metricsScope = Objects.requireNonNull(metricsScope, "metricsScope should not be null");
+    taskExecutor.setSlotReleaseListener(waitingForSlot::onRelease);
+    pollTask.setCapacityReleaseListener(waitingForCapacity::onRelease);
+  }
+
+  @Override
+  public void start() {
+    if (log.isInfoEnabled()) {
+      log.info("start(): " + this);
+    }
+    if (pollerOptions.getMaximumPollRatePerSecond() > 0.0) {
+      pollRateThrottler =
+          new Throttler(
+              "poller",
+              pollerOptions.getMaximumPollRatePerSecond(),
+              pollerOptions.getMaximumPollRateIntervalMilliseconds());
+    }
+    scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            new ExecutorThreadFactory(
+                pollerOptions.getPollThreadNamePrefix(),
+                pollerOptions.getUncaughtExceptionHandler()));
+    pollBackoffThrottler =
+        new BackoffThrottler(
+            pollerOptions.getPollBackoffInitialInterval(),
+            pollerOptions.getPollBackoffMaximumInterval(),
+            pollerOptions.getPollBackoffCoefficient());
+    int initialPollerCount = pollerOptions.getPollThreadCount();
+    if (pollerOptions.isPollerAutoscaling()) {
+      autoscaler =
+          new PollerAutoscaler(
+              pollerOptions.getMinimumPollThreadCount(),
+              pollerOptions.getPollThreadCount(),
+              metricsScope);
+      initialPollerCount = autoscaler.getTargetPollerCount();
+    }
+    for (int i = 0; i < initialPollerCount; i++) {
+      pollerCount.incrementAndGet();
+      schedulePoll(0);
+      metricsScope.counter(MetricsType.POLLER_START_COUNTER).inc(1);
+    }
+  }
+
+  /** Runs on the scheduler thread. */
+  private void poll() {
+    if (scheduler.isShutdown()) {
+      return;
+    }
+    if (suspended.get()) {
+      schedulePoll(SUSPENDED_RECHECK_DELAY_MILLIS);
+      return;
+    }
+    long slotReleases = waitingForSlot.getReleaseCount();
+    if (!taskExecutor.tryAcquireSlot()) {
+      waitingForSlot.park(slotReleases);
+      return;
+    }
+    if (pollRateThrottler != null) {
+      // Doesn't sleep as that would stall all the poll loops sharing the scheduler thread.
+      long throttleMillis = pollRateThrottler.tryThrottle();
+      if (throttleMillis > 0) {
+        taskExecutor.releaseSlot();
+        schedulePoll(throttleMillis);
+        return;
+      }
+    }
+    long capacityReleases = waitingForCapacity.getReleaseCount();
+    long pollStartNanos = System.nanoTime();
+    ListenableFuture<T> future;
+    try {
+      future = pollTask.pollAsync();
+    } catch (Throwable e) {
+      taskExecutor.releaseSlot();
+      onPollFailure(e);
+      return;
+    }
+    if (future == null) {
+      // Not an empty poll, so it is not reported to the autoscaler.
+      taskExecutor.releaseSlot();
+      waitingForCapacity.park(capacityReleases);
+      return;
+    }
+    outstandingPolls.add(future);
+    Futures.addCallback(
+        future,
+        new FutureCallback<T>() {
+          @Override
+          public void onSuccess(T task) {
+            outstandingPolls.remove(future);
+            if (autoscaler != null) {
+              autoscaler.recordPoll(
+                  task == null,
+                  System.nanoTime() - pollStartNanos,
+                  taskExecutor.getUtilization());
+            }
+            pollBackoffThrottler.success();
+            if (task == null) {
+              taskExecutor.releaseSlot();
+            } else {
+              try {
+                taskExecutor.processWithSlot(task);
+              } catch (Throwable e) {
+                logPollFailure(e);
+              }
+            }
+            continuePolling(0);
+          }
+
+          @Override
+          public void onFailure(Throwable e) {
+            outstandingPolls.remove(future);
+            taskExecutor.releaseSlot();
+            onPollFailure(e);
+          }
+        },
+        MoreExecutors.directExecutor());
+  }
+
+  private void onPollFailure(Throwable e) {
+    logPollFailure(e);
+    pollBackoffThrottler.failure();
+    continuePolling(pollBackoffThrottler.getSleepTimeMillis());
+  }
+
+  /**
+   * Issues the next poll of a completed poll loop and starts or stops poll loops to match the
+   * autoscaler target.
+   */
+  private void continuePolling(long delayMillis) {
+    if (scheduler.isShutdown()) {
+      return;
+    }
+    if (autoscaler != null) {
+      int target = autoscaler.getTargetPollerCount();
+      int current = pollerCount.get();
+      if (current > target && pollerCount.compareAndSet(current, current - 1)) {
+        // Stop the completed loop
+        return;
+      }
+      while ((current = pollerCount.get()) < target) {
+        if (pollerCount.compareAndSet(current, current + 1)) {
+          schedulePoll(0);
+          metricsScope.counter(MetricsType.POLLER_START_COUNTER).inc(1);
+        }
+      }
+    }
+    schedulePoll(delayMillis);
+  }
+
+  private void schedulePoll(long delayMillis) {
+    try {
+      if (delayMillis > 0) {
+        scheduler.schedule(this::poll, delayMillis, TimeUnit.MILLISECONDS);
+      } else {
+        scheduler.execute(this::poll);
+      }
+    } catch (RejectedExecutionException e) {
+      // Poller is shutting down
+    }
+  }
+
+  private void logPollFailure(Throwable e) {
+    if (scheduler.isShutdown()
+        && (e instanceof CancellationException
+            || e instanceof RejectedExecutionException
+            || e instanceof InterruptedException
+            || (e instanceof StatusRuntimeException
+                && ((StatusRuntimeException) e).getStatus().getCode()
+                    == Status.Code.CANCELLED))) {
+      log.trace("Poll failure is suppressed, considered normal during shutdown", e);
+      return;
+    }
+    if (e instanceof StatusRuntimeException
+        && ((StatusRuntimeException) e).getStatus().getCode() == Status.Code.DEADLINE_EXCEEDED) {
+      log.warn("Poll failure", e);
+      return;
+    }
+    log.error("Poll failure", e);
+  }
+
+  @Override
+  public boolean isStarted() {
+    return scheduler != null;
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return scheduler.isShutdown() && taskExecutor.isShutdown();
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return scheduler.isTerminated() && outstandingPolls.isEmpty() && taskExecutor.isTerminated();
+  }
+
+  @Override
+  public void shutdown() {
+    log.info("shutdown");
+    if (!isStarted()) {
+      return;
+    }
+    stopPolling();
+    taskExecutor.shutdown();
+  }
+
+  @Override
+  public void shutdownNow() {
+    log.info("shutdownNow poller={}", this.pollerOptions.getPollThreadNamePrefix());
+    if (!isStarted()) {
+      return;
+    }
+    stopPolling();
+    taskExecutor.shutdownNow();
+  }
+
+  /** Stops issuing new polls and cancels the outstanding ones. */
+  private void stopPolling() {
+    scheduler.shutdownNow();
+    for (ListenableFuture<T> poll : outstandingPolls) {
+      poll.cancel(true);
+    }
+  }
+
+  @Override
+  public void awaitTermination(long timeout, TimeUnit unit) {
+    if (!isStarted()) {
+      return;
+    }
+    long timeoutMillis = unit.toMillis(timeout);
+    timeoutMillis = InternalUtils.awaitTermination(scheduler, timeoutMillis);
+    InternalUtils.awaitTermination(taskExecutor, timeoutMillis);
+  }
+
+  @Override
+  public void suspendPolling() {
+    log.info("suspendPolling");
+    suspended.set(true);
+  }
+
+  @Override
+  public void resumePolling() {
+    log.info("resumePolling");
+    suspended.set(false);
+  }
+
+  @Override
+  public boolean isSuspended() {
+    return suspended.get();
+  }
+
+  /**
+   * Poll loops waiting for a released resource. Each release resumes one of them on the scheduler
+   * thread, so a parked loop doesn't wake up until there is a chance that it can poll.
+   */
+  private final class ParkedPollLoops {
+    private final AtomicInteger parked = new AtomicInteger();
+    private final AtomicLong releaseCount = new AtomicLong();
+
+    /** Read before trying to acquire the resource and passed to {@link #park(long)} on failure. */
+    long getReleaseCount() {
+      return releaseCount.get();
+    }
+
+    /** Parks the calling poll loop, or resumes it if the resource was released since the read. */
+    void park(long releaseCountBeforeAcquire) {
+      parked.incrementAndGet();
+      if (releaseCount.get() != releaseCountBeforeAcquire) {
+        resumeOne();
+      }
+    }
+
+    void onRelease() {
+      releaseCount.incrementAndGet();
+      resumeOne();
+    }
+
+    private void resumeOne() {
+      int current;
+      while ((current = parked.get()) > 0) {
+        if (parked.compareAndSet(current, current - 1)) {
+          schedulePoll(0);
+          return;
+        }
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "AsyncPoller{" + "options=" + pollerOptions + ", identity=" + identity + '}';
+  }
+}
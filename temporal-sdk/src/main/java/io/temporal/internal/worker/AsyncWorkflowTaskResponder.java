@@ -0,0 +1,140 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.internal.worker;
+
+import static io.temporal.serviceclient.MetricsTag.METRICS_TAGS_CALL_OPTIONS_KEY;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.uber.m3.tally.Scope;
+import com.uber.m3.tally.Stopwatch;
+import io.temporal.api.workflowservice.v1.RespondWorkflowTaskCompletedRequest;
+import io.temporal.api.workflowservice.v1.RespondWorkflowTaskCompletedResponse;
+import io.temporal.internal.metrics.MetricsType;
+import io.temporal.serviceclient.GrpcRetryer;
+import io.temporal.serviceclient.RpcRetryOptions;
+import io.temporal.serviceclient.WorkflowServiceStubs;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends workflow task completions without holding the executor thread for the network round trip.
+ * The number of completions in flight is bounded, callers block when the limit is reached.
+ */
+final class AsyncWorkflowTaskResponder {
+
+  private final WorkflowServiceStubs service;
+  private final Scope metricsScope;
+  private final int maxInFlight;
+  private final Semaphore inFlight;
+
+  AsyncWorkflowTaskResponder(WorkflowServiceStubs service, Scope metricsScope, int maxInFlight) {
+    this.service = service;
+    this.metricsScope = metricsScope;
+    this.maxInFlight = maxInFlight;
+    this.inFlight = new Semaphore(maxInFlight);
+  }
+
+  /**
+   * Sends the request retrying it according to the retry options.
+   *
+   * @param callMetricsScope scope used to tag the gRPC call metrics
+   * @return future completed with the service response or the failure of the last attempt
+   */
+  CompletableFuture<RespondWorkflowTaskCompletedResponse> respondWorkflowTaskCompleted(
+      RespondWorkflowTaskCompletedRequest request,
+      RpcRetryOptions retryOptions,
+      Scope callMetricsScope)
+      throws InterruptedException {
+    inFlight.acquire();
+    reportInFlight();
+    Stopwatch sw = metricsScope.timer(MetricsType.WORKFLOW_TASK_REPLY_LATENCY).start();
+    CompletableFuture<RespondWorkflowTaskCompletedResponse> result;
+    try {
+      result =
+          GrpcRetryer.retryWithResultAsync(
+              retryOptions,
+              () ->
+                  toCompletableFuture(
+                      service
+                          .futureStub()
+                          .withOption(METRICS_TAGS_CALL_OPTIONS_KEY, callMetricsScope)
+                          .respondWorkflowTaskCompleted(request)));
+    } catch (RuntimeException e) {
+      inFlight.release();
+      reportInFlight();
+      throw e;
+    }
+    return result.whenComplete(
+        (r, e) -> {
+          sw.stop();
+          if (e != null) {
+            metricsScope.counter(MetricsType.WORKFLOW_TASK_REPLY_FAILED_COUNTER).inc(1);
+          }
+          inFlight.release();
+          reportInFlight();
+        });
+  }
+
+  /**
+   * Waits for the completions in flight to be delivered.
+   *
+   * @return remaining timeout in milliseconds
+   */
+  long awaitCompletion(long timeoutMillis) {
+    long started = System.currentTimeMillis();
+    try {
+      if (inFlight.tryAcquire(maxInFlight, timeoutMillis, TimeUnit.MILLISECONDS)) {
+        inFlight.release(maxInFlight);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return Math.max(0, timeoutMillis - (System.currentTimeMillis() - started));
+  }
+
+  private void reportInFlight() {
+    metricsScope
+        .gauge(MetricsType.WORKFLOW_TASK_REPLY_IN_FLIGHT)
+        .update(maxInFlight - inFlight.availablePermits());
+  }
+
+  private static <T> CompletableFuture<T> toCompletableFuture(ListenableFuture<T> future) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    Futures.addCallback(
+        future,
+        new FutureCallback<T>() {
+          @Override
+          public void onSuccess(T value) {
+            result.complete(value);
+          }
+
+          @Override
+          public void onFailure(Throwable e) {
+            result.completeExceptionally(e);
+          }
+        },
+        MoreExecutors.directExecutor());
+    return result;
+  }
+}
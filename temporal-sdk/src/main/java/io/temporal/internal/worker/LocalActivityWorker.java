@@ -22,7 +22,6 @@ package io.temporal.internal.worker;
 import com.google.protobuf.util.Timestamps;
 import com.uber.m3.tally.Scope;
 import com.uber.m3.tally.Stopwatch;
-import com.uber.m3.util.ImmutableMap;
 import io.temporal.api.common.v1.RetryPolicy;
 import io.temporal.api.workflowservice.v1.PollActivityTaskQueueResponse;
 import io.temporal.common.RetryOptions;
@@ -31,9 +30,9 @@ import io.temporal.internal.metrics.MetricsType;
 import io.temporal.internal.replay.ExecuteLocalActivityParameters;
 import io.temporal.internal.worker.activity.ActivityWorkerHelper;
 import io.temporal.serviceclient.MetricsTag;
+import io.temporal.serviceclient.TaggedScopeCache;
 import io.temporal.workflow.Functions;
 import java.time.Duration;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
@@ -44,6 +43,7 @@ import org.slf4j.LoggerFactory;
 public final class LocalActivityWorker implements SuspendableWorker {
 
   private static final String POLL_THREAD_NAME_PREFIX = "Local Activity Poller taskQueue=";
+  private static final String WORKER_TYPE = "LocalActivityWorker";
   private static final Logger log = LoggerFactory.getLogger(LocalActivityWorker.class);
 
   private SuspendableWorker poller = new NoopSuspendableWorker();
@@ -52,6 +52,13 @@ public final class LocalActivityWorker implements SuspendableWorker {
   private final String taskQueue;
   private final SingleWorkerOptions options;
   private final LocalActivityPollTask laPollTask;
+  private final TaskHandlerImpl taskHandler;
+  // Null if inline execution is disabled
+  private final Duration inlineExecutionThreshold;
+  private final TaggedScopeCache workflowTypeScopes =
+      new TaggedScopeCache(MetricsTag.WORKFLOW_TYPE);
+  private final TaggedScopeCache activityTypeScopes =
+      new TaggedScopeCache(MetricsTag.ACTIVITY_TYPE);
 
   public LocalActivityWorker(
       String namespace,
@@ -77,6 +84,9 @@ public final class LocalActivityWorker implements SuspendableWorker {
               .build();
     }
     this.options = SingleWorkerOptions.newBuilder(options).setPollerOptions(pollerOptions).build();
+    this.taskHandler = new TaskHandlerImpl(handler);
+    Duration threshold = options.getLocalActivityInlineExecutionThreshold();
+    this.inlineExecutionThreshold = threshold == null || threshold.isZero() ? null : threshold;
   }
 
   @Override
@@ -86,7 +96,7 @@ public final class LocalActivityWorker implements SuspendableWorker {
           new Poller<>(
               options.getIdentity(),
               laPollTask,
-              new PollTaskExecutor<>(namespace, taskQueue, options, new TaskHandlerImpl(handler)),
+              new PollTaskExecutor<>(namespace, taskQueue, WORKER_TYPE, options, taskHandler),
               options.getPollerOptions(),
               options.getMetricsScope());
       poller.start();
@@ -171,6 +181,8 @@ public final class LocalActivityWorker implements SuspendableWorker {
     private final ExecuteLocalActivityParameters params;
     private final Functions.Proc1<ActivityTaskHandler.Result> eventConsumer;
     long taskStartTime;
+    // Executed on the workflow task thread
+    boolean inline;
 
     public Task(
         ExecuteLocalActivityParameters params,
@@ -185,7 +197,48 @@ public final class LocalActivityWorker implements SuspendableWorker {
   }
 
   public BiFunction<Task, Duration, Boolean> getLocalActivityTaskPoller() {
-    return laPollTask;
+    if (inlineExecutionThreshold == null) {
+      return laPollTask;
+    }
+    return this::scheduleLocalActivity;
+  }
+
+  /**
+   * Executes the local activity on the calling workflow task thread if its timeout doesn't exceed
+   * the inline execution threshold and the workflow task can wait that long. Queues it to the local
+   * activity executor otherwise.
+   */
+  private boolean scheduleLocalActivity(Task task, Duration maxWaitAllowed) {
+    if (!handler.isAnyTypeSupported() || !isInlineExecutionAllowed(task, maxWaitAllowed)) {
+      return laPollTask.apply(task, maxWaitAllowed);
+    }
+    task.inline = true;
+    options.getMetricsScope().counter(MetricsType.LOCAL_ACTIVITY_INLINE_COUNTER).inc(1);
+    try {
+      taskHandler.handle(task);
+    } catch (Throwable e) {
+      if (e instanceof InterruptedException) {
+        Thread.currentThread().interrupt();
+      }
+      options
+          .getPollerOptions()
+          .getUncaughtExceptionHandler()
+          .uncaughtException(Thread.currentThread(), taskHandler.wrapFailure(task, e));
+    }
+    return true;
+  }
+
+  private boolean isInlineExecutionAllowed(Task task, Duration maxWaitAllowed) {
+    // An inline activity can't be abandoned when the workflow task deadline is reached
+    if (maxWaitAllowed.compareTo(inlineExecutionThreshold) < 0) {
+      return false;
+    }
+    PollActivityTaskQueueResponse.Builder activityTask = task.params.getActivityTask();
+    Duration timeout = ProtobufTimeUtils.toJavaDuration(activityTask.getScheduleToCloseTimeout());
+    if (timeout.isZero()) {
+      timeout = ProtobufTimeUtils.toJavaDuration(activityTask.getStartToCloseTimeout());
+    }
+    return !timeout.isZero() && timeout.compareTo(inlineExecutionThreshold) <= 0;
   }
 
   private class TaskHandlerImpl implements PollTaskExecutor.TaskHandler<Task> {
@@ -211,13 +264,11 @@ public final class LocalActivityWorker implements SuspendableWorker {
     private ActivityTaskHandler.Result handleLocalActivity(Task task) throws InterruptedException {
       ExecuteLocalActivityParameters params = task.params;
       PollActivityTaskQueueResponse.Builder activityTask = params.getActivityTask();
-      Map<String, String> activityTypeTag =
-          new ImmutableMap.Builder<String, String>(1)
-              .put(MetricsTag.ACTIVITY_TYPE, activityTask.getActivityType().getName())
-              .put(MetricsTag.WORKFLOW_TYPE, activityTask.getWorkflowType().getName())
-              .build();
-
-      Scope metricsScope = options.getMetricsScope().tagged(activityTypeTag);
+      Scope metricsScope =
+          activityTypeScopes.tagged(
+              workflowTypeScopes.tagged(
+                  options.getMetricsScope(), activityTask.getWorkflowType().getName()),
+              activityTask.getActivityType().getName());
       metricsScope.counter(MetricsType.LOCAL_ACTIVITY_TOTAL_COUNTER).inc(1);
 
       if (activityTask.hasHeader()) {
@@ -275,7 +326,12 @@ public final class LocalActivityWorker implements SuspendableWorker {
 
       // For small backoff we do local retry. Otherwise we will schedule timer on server side.
       // TODO(maxim): Use timer queue for retries to avoid tying up a thread.
-      if (elapsedTask + sleepMillis < task.params.getLocalRetryThreshold().toMillis()) {
+      long localRetryThreshold = task.params.getLocalRetryThreshold().toMillis();
+      if (task.inline) {
+        // Don't hold the workflow task thread longer than an inline activity is expected to run
+        localRetryThreshold = Math.min(localRetryThreshold, inlineExecutionThreshold.toMillis());
+      }
+      if (elapsedTask + sleepMillis < localRetryThreshold) {
         Thread.sleep(sleepMillis);
         activityTask.setAttempt(attempt + 1);
         return handleLocalActivity(task);
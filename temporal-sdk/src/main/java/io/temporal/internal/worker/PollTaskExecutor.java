@@ -20,13 +20,31 @@
 package io.temporal.internal.worker;
 
 import com.google.common.base.Preconditions;
+import com.uber.m3.tally.Scope;
+import com.uber.m3.util.ImmutableMap;
 import io.temporal.internal.common.InternalUtils;
 import io.temporal.internal.logging.LoggerTag;
-import java.util.concurrent.SynchronousQueue;
+import io.temporal.internal.metrics.MetricsType;
+import io.temporal.serviceclient.MetricsTag;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import org.slf4j.MDC;
 
+/**
+ * Executes polled tasks on a bounded thread pool.
+ *
+ * <p>Capacity is expressed as execution slots, one per executor thread. {@link Poller} acquires a
+ * slot before issuing a long poll, so a task is never taken from the server unless it can start
+ * executing immediately. Tasks passed to {@link #process(Object)} directly, like the ones
+ * dispatched from the sticky task queue, acquire a slot on submission. Tasks passed to {@link
+ * #enqueue(Object)} wait in a queue instead and take the next released slot.
+ */
 final class PollTaskExecutor<T> implements ShutdownableTaskExecutor<T> {
 
   public interface TaskHandler<TT> {
@@ -36,53 +54,168 @@ final class PollTaskExecutor<T> implements ShutdownableTaskExecutor<T> {
   }
 
   private final ThreadPoolExecutor taskExecutor;
+  private final Semaphore slots;
+  private final int slotCount;
   private final SingleWorkerOptions options;
+  private final Scope metricsScope;
   private final String namespace;
   private final String taskQueue;
   private final TaskHandler<T> handler;
+  // Tasks waiting for a slot, the slots released by finished tasks are offered to them first.
+  private final Queue<T> pending = new ConcurrentLinkedQueue<>();
+  private volatile Runnable slotReleaseListener = () -> {};
 
   PollTaskExecutor(
-      String namespace, String taskQueue, SingleWorkerOptions options, TaskHandler<T> handler) {
+      String namespace,
+      String taskQueue,
+      String workerType,
+      SingleWorkerOptions options,
+      TaskHandler<T> handler) {
     this.namespace = namespace;
     this.taskQueue = taskQueue;
     this.handler = handler;
     Preconditions.checkNotNull(options, "options should not be null");
 
     this.options = options;
+    this.metricsScope =
+        options.getMetricsScope().tagged(ImmutableMap.of(MetricsTag.WORKER_TYPE, workerType));
+    this.slotCount = options.getTaskExecutorThreadPoolSize();
+    this.slots = new Semaphore(slotCount);
+    // The number of submitted tasks is bounded by the slots, so the queue only holds a task for the
+    // short time between a slot release and the thread that released it becoming idle.
     taskExecutor =
         new ThreadPoolExecutor(
-            0,
-            options.getTaskExecutorThreadPoolSize(),
-            1,
-            TimeUnit.SECONDS,
-            new SynchronousQueue<>());
+            slotCount, slotCount, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+    taskExecutor.allowCoreThreadTimeOut(true);
     taskExecutor.setThreadFactory(
         new ExecutorThreadFactory(
             options.getPollerOptions().getPollThreadNamePrefix().replaceFirst("Poller", "Executor"),
             options.getPollerOptions().getUncaughtExceptionHandler()));
-    taskExecutor.setRejectedExecutionHandler(new BlockCallerPolicy());
+    reportSlots();
   }
 
   @Override
   public void process(T task) {
-    taskExecutor.execute(
-        () -> {
-          MDC.put(LoggerTag.NAMESPACE, namespace);
-          MDC.put(LoggerTag.TASK_QUEUE, taskQueue);
-          try {
-            handler.handle(task);
-          } catch (Throwable ee) {
-            if (!isShutdown()) {
-              options
-                  .getPollerOptions()
-                  .getUncaughtExceptionHandler()
-                  .uncaughtException(Thread.currentThread(), handler.wrapFailure(task, ee));
+    if (isShutdown()) {
+      throw new RejectedExecutionException("Executor is shutdown");
+    }
+    try {
+      slots.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RejectedExecutionException("Interrupted while waiting for an execution slot", e);
+    }
+    reportSlots();
+    processWithSlot(task);
+  }
+
+  /**
+   * Blocks until an execution slot is available. The slot has to be either passed to {@link
+   * #processWithSlot(Object)} or returned through {@link #releaseSlot()}.
+   */
+  void acquireSlot() throws InterruptedException {
+    slots.acquire();
+    reportSlots();
+  }
+
+  /** Non-blocking version of {@link #acquireSlot()}. */
+  boolean tryAcquireSlot() {
+    if (!slots.tryAcquire()) {
+      return false;
+    }
+    reportSlots();
+    return true;
+  }
+
+  void releaseSlot() {
+    slots.release();
+    processPending();
+    slotReleaseListener.run();
+    reportSlots();
+  }
+
+  /**
+   * Sets the listener to call after an execution slot is released through {@link #releaseSlot()}.
+   * Queued tasks take the released slot first, so the slot may already be taken again.
+   */
+  void setSlotReleaseListener(Runnable listener) {
+    this.slotReleaseListener = Objects.requireNonNull(listener);
+  }
+
+  /**
+   * Non-blocking version of {@link #process(Object)}. If no execution slot is available the task is
+   * queued and executed as soon as one is released.
+   */
+  void enqueue(T task) {
+    if (isShutdown()) {
+      throw new RejectedExecutionException("Executor is shutdown");
+    }
+    pending.add(task);
+    processPending();
+  }
+
+  // Both enqueue and releaseSlot drain the queue after changing their side, so a queued task can't
+  // be left behind while a slot is free.
+  private void processPending() {
+    while (!pending.isEmpty() && slots.tryAcquire()) {
+      T task = pending.poll();
+      if (task == null) {
+        slots.release();
+        continue;
+      }
+      reportSlots();
+      try {
+        processWithSlot(task);
+      } catch (RejectedExecutionException e) {
+        // The executor is shutting down, the queued tasks are dropped
+        pending.clear();
+        return;
+      }
+    }
+  }
+
+  /**
+   * Executes the task using a slot previously obtained through {@link #acquireSlot()}. The slot is
+   * released when the task completes.
+   */
+  void processWithSlot(T task) {
+    try {
+      taskExecutor.execute(
+          () -> {
+            MDC.put(LoggerTag.NAMESPACE, namespace);
+            MDC.put(LoggerTag.TASK_QUEUE, taskQueue);
+            try {
+              handler.handle(task);
+            } catch (Throwable ee) {
+              if (!isShutdown()) {
+                options
+                    .getPollerOptions()
+                    .getUncaughtExceptionHandler()
+                    .uncaughtException(Thread.currentThread(), handler.wrapFailure(task, ee));
+              }
+            } finally {
+              MDC.remove(LoggerTag.NAMESPACE);
+              MDC.remove(LoggerTag.TASK_QUEUE);
+              releaseSlot();
             }
-          } finally {
-            MDC.remove(LoggerTag.NAMESPACE);
-            MDC.remove(LoggerTag.TASK_QUEUE);
-          }
-        });
+          });
+    } catch (RejectedExecutionException e) {
+      // Not releaseSlot, the executor is shut down and the pending tasks can't be executed anyway
+      slots.release();
+      reportSlots();
+      throw e;
+    }
+  }
+
+  private void reportSlots() {
+    int available = slots.availablePermits();
+    metricsScope.gauge(MetricsType.WORKER_TASK_SLOTS_AVAILABLE).update(available);
+    metricsScope.gauge(MetricsType.WORKER_TASK_SLOTS_USED).update(slotCount - available);
+  }
+
+  /** @return fraction of the executor threads that are busy executing tasks */
+  double getUtilization() {
+    return (double) taskExecutor.getActiveCount() / taskExecutor.getMaximumPoolSize();
   }
 
   @Override
@@ -31,6 +31,7 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -56,6 +57,8 @@ public final class Poller<T> implements SuspendableWorker {
 
   private final String identity;
   private final ShutdownableTaskExecutor<T> taskExecutor;
+  // Not null if the task executor owns execution slots that have to be acquired before polling
+  private final PollTaskExecutor<T> slotExecutor;
   private final PollTask<T> pollTask;
   private final PollerOptions pollerOptions;
   private static final Logger log = LoggerFactory.getLogger(Poller.class);
@@ -66,6 +69,9 @@ public final class Poller<T> implements SuspendableWorker {
 
   private BackoffThrottler pollBackoffThrottler;
   private Throttler pollRateThrottler;
+  // Not null if poller autoscaling is enabled
+  private PollerAutoscaler autoscaler;
+  private final AtomicInteger pollerCount = new AtomicInteger();
 
   private final Thread.UncaughtExceptionHandler uncaughtExceptionHandler =
       new PollerUncaughtExceptionHandler();
@@ -85,6 +91,9 @@ public final class Poller<T> implements SuspendableWorker {
     this.identity = identity;
     this.pollTask = pollTask;
     this.taskExecutor = taskExecutor;
+    // Other executors, like the sticky task queue dispatcher, don't own threads
+    this.slotExecutor =
+        taskExecutor instanceof PollTaskExecutor ? (PollTaskExecutor<T>) taskExecutor : null;
     this.pollerOptions = pollerOptions;
     this.metricsScope = metricsScope;
   }
@@ -121,12 +130,51 @@ public final class Poller<T> implements SuspendableWorker {
             pollerOptions.getPollBackoffInitialInterval(),
             pollerOptions.getPollBackoffMaximumInterval(),
             pollerOptions.getPollBackoffCoefficient());
-    for (int i = 0; i < pollerOptions.getPollThreadCount(); i++) {
-      pollExecutor.execute(new PollLoopTask(new PollExecutionTask()));
-      metricsScope.counter(MetricsType.POLLER_START_COUNTER).inc(1);
+    int initialPollerCount = pollerOptions.getPollThreadCount();
+    if (pollerOptions.isPollerAutoscaling()) {
+      autoscaler =
+          new PollerAutoscaler(
+              pollerOptions.getMinimumPollThreadCount(),
+              pollerOptions.getPollThreadCount(),
+              metricsScope);
+      initialPollerCount = autoscaler.getTargetPollerCount();
+    }
+    for (int i = 0; i < initialPollerCount; i++) {
+      startPollLoop();
+    }
+  }
+
+  private void startPollLoop() {
+    pollerCount.incrementAndGet();
+    pollExecutor.execute(new PollLoopTask(new PollExecutionTask()));
+    metricsScope.counter(MetricsType.POLLER_START_COUNTER).inc(1);
+  }
+
+  /**
+   * Resubmits the poll loop and starts or stops poll loops to match the autoscaler target.
+   *
+   * @param loop poll loop that completed an iteration
+   */
+  private void rescale(PollLoopTask loop) {
+    int target = autoscaler.getTargetPollerCount();
+    int current = pollerCount.get();
+    if (current > target && pollerCount.compareAndSet(current, current - 1)) {
+      // Stop the completed loop
+      return;
+    }
+    pollExecutor.execute(loop);
+    while ((current = pollerCount.get()) < target) {
+      if (pollerCount.compareAndSet(current, current + 1)) {
+        pollExecutor.execute(new PollLoopTask(new PollExecutionTask()));
+        metricsScope.counter(MetricsType.POLLER_START_COUNTER).inc(1);
+      }
     }
   }
 
+  private double getExecutorUtilization() {
+    return slotExecutor == null ? 0 : slotExecutor.getUtilization();
+  }
+
   @Override
   public boolean isStarted() {
     return pollExecutor != null;
@@ -243,8 +291,12 @@ public final class Poller<T> implements SuspendableWorker {
         uncaughtExceptionHandler.uncaughtException(Thread.currentThread(), e);
       } finally {
         if (!shouldTerminate()) {
-          // Resubmit itself back to pollExecutor
-          pollExecutor.execute(this);
+          if (autoscaler == null) {
+            // Resubmit itself back to pollExecutor
+            pollExecutor.execute(this);
+          } else {
+            rescale(this);
+          }
         } else {
           log.info("poll loop is terminated");
         }
@@ -267,11 +319,36 @@ public final class Poller<T> implements SuspendableWorker {
 
     @Override
     public void run() throws Exception {
-      T task = pollTask.poll();
-      if (task == null) {
+      if (slotExecutor == null) {
+        T task = poll();
+        if (task != null) {
+          taskExecutor.process(task);
+        }
         return;
       }
-      taskExecutor.process(task);
+      slotExecutor.acquireSlot();
+      boolean slotPassed = false;
+      try {
+        T task = poll();
+        if (task != null) {
+          slotPassed = true;
+          slotExecutor.processWithSlot(task);
+        }
+      } finally {
+        if (!slotPassed) {
+          slotExecutor.releaseSlot();
+        }
+      }
+    }
+
+    private T poll() {
+      long pollStartNanos = System.nanoTime();
+      T task = pollTask.poll();
+      if (autoscaler != null) {
+        autoscaler.recordPoll(
+            task == null, System.nanoTime() - pollStartNanos, getExecutorUtilization());
+      }
+      return task;
     }
   }
 
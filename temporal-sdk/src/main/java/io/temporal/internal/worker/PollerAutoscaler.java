@@ -0,0 +1,135 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.internal.worker;
+
+import com.uber.m3.tally.Scope;
+import io.temporal.internal.metrics.MetricsType;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Decides how many long polls a {@link Poller} should keep outstanding.
+ *
+ * <p>Outcomes of the polls are aggregated over a decision window. At the end of each window the
+ * target number of pollers is changed by one:
+ *
+ * <ul>
+ *   <li>down if the task executor is saturated, as additional polls would only pick up tasks that
+ *       can't be executed yet;
+ *   <li>down if most of the polls returned empty, as long poll slots are wasted on the frontend;
+ *   <li>up if almost all polls returned a task quickly, as it indicates a backlog in the task
+ *       queue.
+ * </ul>
+ */
+final class PollerAutoscaler {
+
+  static final long DECISION_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(5);
+  static final int MIN_POLLS_PER_DECISION = 5;
+  static final double SCALE_DOWN_EMPTY_POLL_RATIO = 0.5;
+  static final double SCALE_UP_EMPTY_POLL_RATIO = 0.1;
+  static final long SCALE_UP_MAX_AVERAGE_POLL_LATENCY_NANOS = TimeUnit.SECONDS.toNanos(1);
+  static final double SATURATED_EXECUTOR_UTILIZATION = 0.9;
+
+  private final int minimumPollerCount;
+  private final int maximumPollerCount;
+  private final Scope metricsScope;
+  private final LongSupplier nanoClock;
+
+  private int targetPollerCount;
+  private long windowStartNanos;
+  private int polls;
+  private int emptyPolls;
+  private long pollLatencyNanos;
+  private double maxExecutorUtilization;
+
+  PollerAutoscaler(int minimumPollerCount, int maximumPollerCount, Scope metricsScope) {
+    this(minimumPollerCount, maximumPollerCount, metricsScope, System::nanoTime);
+  }
+
+  PollerAutoscaler(
+      int minimumPollerCount, int maximumPollerCount, Scope metricsScope, LongSupplier nanoClock) {
+    if (minimumPollerCount < 1) {
+      throw new IllegalArgumentException("minimumPollerCount should be at least 1");
+    }
+    if (maximumPollerCount < minimumPollerCount) {
+      throw new IllegalArgumentException(
+          "maximumPollerCount should not be less than minimumPollerCount");
+    }
+    this.minimumPollerCount = minimumPollerCount;
+    this.maximumPollerCount = maximumPollerCount;
+    this.metricsScope = metricsScope;
+    this.nanoClock = nanoClock;
+    this.targetPollerCount = minimumPollerCount;
+    this.windowStartNanos = nanoClock.getAsLong();
+    metricsScope.gauge(MetricsType.POLLER_AUTOSCALING_TARGET).update(targetPollerCount);
+  }
+
+  /**
+   * Records an outcome of a single poll.
+   *
+   * @param empty true if the poll returned no task
+   * @param latencyNanos duration of the poll call
+   * @param executorUtilization fraction of the task executor threads that were busy after the poll
+   */
+  synchronized void recordPoll(boolean empty, long latencyNanos, double executorUtilization) {
+    polls++;
+    if (empty) {
+      emptyPolls++;
+    }
+    pollLatencyNanos += latencyNanos;
+    maxExecutorUtilization = Math.max(maxExecutorUtilization, executorUtilization);
+
+    long now = nanoClock.getAsLong();
+    if (now - windowStartNanos < DECISION_WINDOW_NANOS || polls < MIN_POLLS_PER_DECISION) {
+      return;
+    }
+    double emptyPollRatio = (double) emptyPolls / polls;
+    long averagePollLatencyNanos = pollLatencyNanos / polls;
+    metricsScope.gauge(MetricsType.POLLER_AUTOSCALING_EMPTY_POLL_RATIO).update(emptyPollRatio);
+    metricsScope
+        .gauge(MetricsType.POLLER_AUTOSCALING_EXECUTOR_UTILIZATION)
+        .update(maxExecutorUtilization);
+
+    if (maxExecutorUtilization >= SATURATED_EXECUTOR_UTILIZATION
+        || emptyPollRatio > SCALE_DOWN_EMPTY_POLL_RATIO) {
+      if (targetPollerCount > minimumPollerCount) {
+        targetPollerCount--;
+        metricsScope.counter(MetricsType.POLLER_AUTOSCALING_SCALE_DOWN_COUNTER).inc(1);
+      }
+    } else if (emptyPollRatio < SCALE_UP_EMPTY_POLL_RATIO
+        && averagePollLatencyNanos < SCALE_UP_MAX_AVERAGE_POLL_LATENCY_NANOS) {
+      if (targetPollerCount < maximumPollerCount) {
+        targetPollerCount++;
+        metricsScope.counter(MetricsType.POLLER_AUTOSCALING_SCALE_UP_COUNTER).inc(1);
+      }
+    }
+    metricsScope.gauge(MetricsType.POLLER_AUTOSCALING_TARGET).update(targetPollerCount);
+
+    windowStartNanos = now;
+    polls = 0;
+    emptyPolls = 0;
+    pollLatencyNanos = 0;
+    maxExecutorUtilization = 0;
+  }
+
+  synchronized int getTargetPollerCount() {
+    return targetPollerCount;
+  }
+}
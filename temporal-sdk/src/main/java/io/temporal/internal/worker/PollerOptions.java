@@ -57,6 +57,9 @@ public final class PollerOptions {
     private Duration pollBackoffInitialInterval = Duration.ofMillis(100);
     private Duration pollBackoffMaximumInterval = Duration.ofMinutes(1);
     private int pollThreadCount = 1;
+    private boolean pollerAutoscaling;
+    private int minimumPollThreadCount = 1;
+    private boolean asyncPolling;
     private String pollThreadNamePrefix;
     private Thread.UncaughtExceptionHandler uncaughtExceptionHandler;
 
@@ -72,6 +75,9 @@ public final class PollerOptions {
       this.pollBackoffInitialInterval = options.getPollBackoffInitialInterval();
       this.pollBackoffMaximumInterval = options.getPollBackoffMaximumInterval();
       this.pollThreadCount = options.getPollThreadCount();
+      this.pollerAutoscaling = options.isPollerAutoscaling();
+      this.minimumPollThreadCount = options.getMinimumPollThreadCount();
+      this.asyncPolling = options.isAsyncPolling();
       this.pollThreadNamePrefix = options.getPollThreadNamePrefix();
       this.uncaughtExceptionHandler = options.getUncaughtExceptionHandler();
     }
@@ -112,12 +118,40 @@ public final class PollerOptions {
       return this;
     }
 
-    /** Number of parallel polling threads. */
+    /**
+     * Number of parallel polling threads. Maximum number of parallel polling threads if {@link
+     * #setPollerAutoscaling(boolean)} is enabled.
+     */
     public Builder setPollThreadCount(int pollThreadCount) {
       this.pollThreadCount = pollThreadCount;
       return this;
     }
 
+    /**
+     * Scale the number of parallel polling threads between {@link
+     * #setMinimumPollThreadCount(int)} and {@link #setPollThreadCount(int)} based on the ratio of
+     * empty polls, the poll latency and the saturation of the task executor.
+     */
+    public Builder setPollerAutoscaling(boolean pollerAutoscaling) {
+      this.pollerAutoscaling = pollerAutoscaling;
+      return this;
+    }
+
+    /**
+     * Use asynchronous gRPC calls for polling. {@link #setPollThreadCount(int)} then defines the
+     * number of outstanding polls, which don't occupy a thread each.
+     */
+    public Builder setAsyncPolling(boolean asyncPolling) {
+      this.asyncPolling = asyncPolling;
+      return this;
+    }
+
+    /** Minimum number of parallel polling threads used when poller autoscaling is enabled. */
+    public Builder setMinimumPollThreadCount(int minimumPollThreadCount) {
+      this.minimumPollThreadCount = minimumPollThreadCount;
+      return this;
+    }
+
     /** Called to report unexpected exceptions in the poller threads. */
     public Builder setUncaughtExceptionHandler(
         Thread.UncaughtExceptionHandler uncaughtExceptionHandler) {
@@ -154,6 +188,9 @@ public final class PollerOptions {
           pollBackoffInitialInterval,
           pollBackoffMaximumInterval,
           pollThreadCount,
+          pollerAutoscaling,
+          Math.min(minimumPollThreadCount, pollThreadCount),
+          asyncPolling,
           uncaughtExceptionHandler,
           pollThreadNamePrefix);
     }
@@ -167,6 +204,9 @@ public final class PollerOptions {
   private final Duration pollBackoffInitialInterval;
   private final Duration pollBackoffMaximumInterval;
   private final int pollThreadCount;
+  private final boolean pollerAutoscaling;
+  private final int minimumPollThreadCount;
+  private final boolean asyncPolling;
   private final Thread.UncaughtExceptionHandler uncaughtExceptionHandler;
   private final String pollThreadNamePrefix;
 
@@ -177,6 +217,9 @@ public final class PollerOptions {
       Duration pollBackoffInitialInterval,
       Duration pollBackoffMaximumInterval,
       int pollThreadCount,
+      boolean pollerAutoscaling,
+      int minimumPollThreadCount,
+      boolean asyncPolling,
       Thread.UncaughtExceptionHandler uncaughtExceptionHandler,
       String pollThreadNamePrefix) {
     this.maximumPollRateIntervalMilliseconds = maximumPollRateIntervalMilliseconds;
@@ -185,6 +228,9 @@ public final class PollerOptions {
     this.pollBackoffInitialInterval = pollBackoffInitialInterval;
     this.pollBackoffMaximumInterval = pollBackoffMaximumInterval;
     this.pollThreadCount = pollThreadCount;
+    this.pollerAutoscaling = pollerAutoscaling;
+    this.minimumPollThreadCount = minimumPollThreadCount;
+    this.asyncPolling = asyncPolling;
     this.uncaughtExceptionHandler = uncaughtExceptionHandler;
     this.pollThreadNamePrefix = pollThreadNamePrefix;
   }
@@ -213,6 +259,18 @@ public final class PollerOptions {
     return pollThreadCount;
   }
 
+  public boolean isPollerAutoscaling() {
+    return pollerAutoscaling;
+  }
+
+  public int getMinimumPollThreadCount() {
+    return minimumPollThreadCount;
+  }
+
+  public boolean isAsyncPolling() {
+    return asyncPolling;
+  }
+
   public Thread.UncaughtExceptionHandler getUncaughtExceptionHandler() {
     return uncaughtExceptionHandler;
   }
@@ -236,6 +294,12 @@ public final class PollerOptions {
         + pollBackoffMaximumInterval
         + ", pollThreadCount="
         + pollThreadCount
+        + ", pollerAutoscaling="
+        + pollerAutoscaling
+        + ", minimumPollThreadCount="
+        + minimumPollThreadCount
+        + ", asyncPolling="
+        + asyncPolling
         + ", pollThreadNamePrefix='"
         + pollThreadNamePrefix
         + '\''
@@ -47,6 +47,9 @@ public final class SingleWorkerOptions {
     private boolean enableLoggingInReplay;
     private List<ContextPropagator> contextPropagators;
     private long defaultDeadlockDetectionTimeout;
+    private int maxConcurrentWorkflowTaskReplies;
+    private Duration localActivityInlineExecutionThreshold;
+    private int maxWorkflowHistoryPrefetchPages;
 
     private Builder() {}
 
@@ -63,6 +66,10 @@ public final class SingleWorkerOptions {
       this.enableLoggingInReplay = options.getEnableLoggingInReplay();
       this.contextPropagators = options.getContextPropagators();
       this.defaultDeadlockDetectionTimeout = options.getDefaultDeadlockDetectionTimeout();
+      this.maxConcurrentWorkflowTaskReplies = options.getMaxConcurrentWorkflowTaskReplies();
+      this.localActivityInlineExecutionThreshold =
+          options.getLocalActivityInlineExecutionThreshold();
+      this.maxWorkflowHistoryPrefetchPages = options.getMaxWorkflowHistoryPrefetchPages();
     }
 
     public Builder setIdentity(String identity) {
@@ -111,6 +118,34 @@ public final class SingleWorkerOptions {
       return this;
     }
 
+    /**
+     * Maximum number of workflow task completions sent asynchronously. 0 means that completions
+     * are sent synchronously from the executor thread.
+     */
+    public Builder setMaxConcurrentWorkflowTaskReplies(int maxConcurrentWorkflowTaskReplies) {
+      this.maxConcurrentWorkflowTaskReplies = maxConcurrentWorkflowTaskReplies;
+      return this;
+    }
+
+    /**
+     * Local activities with a timeout not longer than this threshold are executed on the workflow
+     * task thread. null disables inline execution.
+     */
+    public Builder setLocalActivityInlineExecutionThreshold(
+        Duration localActivityInlineExecutionThreshold) {
+      this.localActivityInlineExecutionThreshold = localActivityInlineExecutionThreshold;
+      return this;
+    }
+
+    /**
+     * Maximum number of workflow history pages requested ahead of the replay. 0 means that a page
+     * is requested only when the replay reaches it.
+     */
+    public Builder setMaxWorkflowHistoryPrefetchPages(int maxWorkflowHistoryPrefetchPages) {
+      this.maxWorkflowHistoryPrefetchPages = maxWorkflowHistoryPrefetchPages;
+      return this;
+    }
+
     public SingleWorkerOptions build() {
       if (pollerOptions == null) {
         pollerOptions =
@@ -138,7 +173,10 @@ public final class SingleWorkerOptions {
           metricsScope,
           enableLoggingInReplay,
           contextPropagators,
-          defaultDeadlockDetectionTimeout);
+          defaultDeadlockDetectionTimeout,
+          maxConcurrentWorkflowTaskReplies,
+          localActivityInlineExecutionThreshold,
+          maxWorkflowHistoryPrefetchPages);
     }
   }
 
@@ -151,6 +189,9 @@ public final class SingleWorkerOptions {
   private final boolean enableLoggingInReplay;
   private final List<ContextPropagator> contextPropagators;
   private final long defaultDeadlockDetectionTimeout;
+  private final int maxConcurrentWorkflowTaskReplies;
+  private final Duration localActivityInlineExecutionThreshold;
+  private final int maxWorkflowHistoryPrefetchPages;
 
   private SingleWorkerOptions(
       String identity,
@@ -161,7 +202,10 @@ public final class SingleWorkerOptions {
       Scope metricsScope,
       boolean enableLoggingInReplay,
       List<ContextPropagator> contextPropagators,
-      long defaultDeadlockDetectionTimeout) {
+      long defaultDeadlockDetectionTimeout,
+      int maxConcurrentWorkflowTaskReplies,
+      Duration localActivityInlineExecutionThreshold,
+      int maxWorkflowHistoryPrefetchPages) {
     this.identity = identity;
     this.binaryChecksum = binaryChecksum;
     this.dataConverter = dataConverter;
@@ -171,6 +215,9 @@ public final class SingleWorkerOptions {
     this.enableLoggingInReplay = enableLoggingInReplay;
     this.contextPropagators = contextPropagators;
     this.defaultDeadlockDetectionTimeout = defaultDeadlockDetectionTimeout;
+    this.maxConcurrentWorkflowTaskReplies = maxConcurrentWorkflowTaskReplies;
+    this.localActivityInlineExecutionThreshold = localActivityInlineExecutionThreshold;
+    this.maxWorkflowHistoryPrefetchPages = maxWorkflowHistoryPrefetchPages;
   }
 
   public String getIdentity() {
@@ -208,4 +255,16 @@ public final class SingleWorkerOptions {
   public long getDefaultDeadlockDetectionTimeout() {
     return defaultDeadlockDetectionTimeout;
   }
+
+  public int getMaxConcurrentWorkflowTaskReplies() {
+    return maxConcurrentWorkflowTaskReplies;
+  }
+
+  public Duration getLocalActivityInlineExecutionThreshold() {
+    return localActivityInlineExecutionThreshold;
+  }
+
+  public int getMaxWorkflowHistoryPrefetchPages() {
+    return maxWorkflowHistoryPrefetchPages;
+  }
 }
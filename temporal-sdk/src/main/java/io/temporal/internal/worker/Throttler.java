@@ -93,6 +93,25 @@ final class Throttler {
     }
   }
 
+  /**
+   * Non blocking version of {@link #throttle()}.
+   *
+   * @return 0 if the request is allowed and was recorded, otherwise the number of milliseconds to
+   *     wait before trying again
+   */
+  public synchronized long tryThrottle() {
+    long now = System.currentTimeMillis();
+    long checkPoint = checkPointTimes.get(index);
+    if (checkPoint > 0) {
+      long elapsed = now - checkPoint;
+      if (elapsed >= 0 && elapsed < rateInterval) {
+        return rateInterval - elapsed;
+      }
+    }
+    checkPointTimes.set(index++, now);
+    return 0;
+  }
+
   /**
    * When called on each request sleeps if called faster then configured average rate.
    *
@@ -21,6 +21,9 @@ package io.temporal.internal.worker;
 
 import static io.temporal.serviceclient.MetricsTag.METRICS_TAGS_CALL_OPTIONS_KEY;
 
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.uber.m3.tally.Scope;
 import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
@@ -34,7 +37,9 @@ import java.util.Objects;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-final class WorkflowPollTask implements Poller.PollTask<PollWorkflowTaskQueueResponse> {
+final class WorkflowPollTask
+    implements Poller.PollTask<PollWorkflowTaskQueueResponse>,
+        AsyncPoller.AsyncPollTask<PollWorkflowTaskQueueResponse> {
 
   private final Scope metricsScope;
   private final WorkflowServiceStubs service;
@@ -61,6 +66,36 @@ final class WorkflowPollTask implements Poller.PollTask<PollWorkflowTaskQueueRes
 
   @Override
   public PollWorkflowTaskQueueResponse poll() {
+    PollWorkflowTaskQueueRequest pollRequest = createPollRequest();
+    PollWorkflowTaskQueueResponse result;
+    try {
+      result =
+          service
+              .blockingStub()
+              .withOption(METRICS_TAGS_CALL_OPTIONS_KEY, metricsScope)
+              .pollWorkflowTaskQueue(pollRequest);
+    } catch (StatusRuntimeException e) {
+      return nullIfChannelShutdown(e);
+    }
+    return handleResponse(result);
+  }
+
+  @Override
+  public ListenableFuture<PollWorkflowTaskQueueResponse> pollAsync() {
+    PollWorkflowTaskQueueRequest pollRequest = createPollRequest();
+    ListenableFuture<PollWorkflowTaskQueueResponse> result =
+        service
+            .futureStub()
+            .withOption(METRICS_TAGS_CALL_OPTIONS_KEY, metricsScope)
+            .pollWorkflowTaskQueue(pollRequest);
+    return Futures.catching(
+        Futures.transform(result, this::handleResponse, MoreExecutors.directExecutor()),
+        StatusRuntimeException.class,
+        this::nullIfChannelShutdown,
+        MoreExecutors.directExecutor());
+  }
+
+  private PollWorkflowTaskQueueRequest createPollRequest() {
     PollWorkflowTaskQueueRequest pollRequest =
         PollWorkflowTaskQueueRequest.newBuilder()
             .setNamespace(namespace)
@@ -72,20 +107,18 @@ final class WorkflowPollTask implements Poller.PollTask<PollWorkflowTaskQueueRes
     if (log.isTraceEnabled()) {
       log.trace("poll request begin: " + pollRequest);
     }
-    PollWorkflowTaskQueueResponse result;
-    try {
-      result =
-          service
-              .blockingStub()
-              .withOption(METRICS_TAGS_CALL_OPTIONS_KEY, metricsScope)
-              .pollWorkflowTaskQueue(pollRequest);
-    } catch (StatusRuntimeException e) {
-      if (e.getStatus().getCode() == Status.Code.UNAVAILABLE
-          && e.getMessage().startsWith("UNAVAILABLE: Channel shutdown")) {
-        return null;
-      }
-      throw e;
+    return pollRequest;
+  }
+
+  private PollWorkflowTaskQueueResponse nullIfChannelShutdown(StatusRuntimeException e) {
+    if (e.getStatus().getCode() == Status.Code.UNAVAILABLE
+        && e.getMessage().startsWith("UNAVAILABLE: Channel shutdown")) {
+      return null;
     }
+    throw e;
+  }
+
+  private PollWorkflowTaskQueueResponse handleResponse(PollWorkflowTaskQueueResponse result) {
     if (log.isTraceEnabled()) {
       log.trace(
           "poll request returned workflow task: workflowType="
@@ -25,7 +25,6 @@ import com.google.common.base.Strings;
 import com.google.protobuf.ByteString;
 import com.uber.m3.tally.Scope;
 import com.uber.m3.tally.Stopwatch;
-import com.uber.m3.util.ImmutableMap;
 import io.temporal.api.common.v1.Payloads;
 import io.temporal.api.common.v1.WorkflowExecution;
 import io.temporal.api.common.v1.WorkflowType;
@@ -39,6 +38,7 @@ import io.temporal.api.workflowservice.v1.RespondQueryTaskCompletedRequest;
 import io.temporal.api.workflowservice.v1.RespondWorkflowTaskCompletedRequest;
 import io.temporal.api.workflowservice.v1.RespondWorkflowTaskCompletedResponse;
 import io.temporal.api.workflowservice.v1.RespondWorkflowTaskFailedRequest;
+import io.temporal.internal.common.InternalUtils;
 import io.temporal.internal.common.WorkflowExecutionHistory;
 import io.temporal.internal.common.WorkflowExecutionUtils;
 import io.temporal.internal.logging.LoggerTag;
@@ -46,12 +46,15 @@ import io.temporal.internal.metrics.MetricsType;
 import io.temporal.serviceclient.GrpcRetryer;
 import io.temporal.serviceclient.MetricsTag;
 import io.temporal.serviceclient.RpcRetryOptions;
+import io.temporal.serviceclient.TaggedScopeCache;
 import io.temporal.serviceclient.WorkflowServiceStubs;
 import io.temporal.workflow.Functions;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
@@ -61,6 +64,7 @@ public final class WorkflowWorker
     implements SuspendableWorker, Functions.Proc1<PollWorkflowTaskQueueResponse> {
 
   private static final String POLL_THREAD_NAME_PREFIX = "Workflow Poller taskQueue=";
+  private static final String WORKER_TYPE = "WorkflowWorker";
 
   private SuspendableWorker poller = new NoopSuspendableWorker();
   private PollTaskExecutor<PollWorkflowTaskQueueResponse> pollTaskExecutor;
@@ -71,6 +75,10 @@ public final class WorkflowWorker
   private final SingleWorkerOptions options;
   private final String stickyTaskQueueName;
   private final WorkflowRunLockManager runLocks = new WorkflowRunLockManager();
+  private final TaggedScopeCache workflowTypeScopes =
+      new TaggedScopeCache(MetricsTag.WORKFLOW_TYPE);
+  // Not null if workflow task completions are sent asynchronously
+  private AsyncWorkflowTaskResponder responder;
 
   public WorkflowWorker(
       WorkflowServiceStubs service,
@@ -99,26 +107,44 @@ public final class WorkflowWorker
               .build();
     }
     this.options = SingleWorkerOptions.newBuilder(options).setPollerOptions(pollerOptions).build();
+    if (options.getMaxConcurrentWorkflowTaskReplies() > 0) {
+      this.responder =
+          new AsyncWorkflowTaskResponder(
+              service, options.getMetricsScope(), options.getMaxConcurrentWorkflowTaskReplies());
+    }
   }
 
   @Override
   public void start() {
     if (handler.isAnyTypeSupported()) {
       pollTaskExecutor =
-          new PollTaskExecutor<>(namespace, taskQueue, options, new TaskHandlerImpl(handler));
-      poller =
-          new Poller<>(
+          new PollTaskExecutor<>(
+              namespace, taskQueue, WORKER_TYPE, options, new TaskHandlerImpl(handler));
+      WorkflowPollTask pollTask =
+          new WorkflowPollTask(
+              service,
+              namespace,
+              taskQueue,
+              options.getMetricsScope(),
               options.getIdentity(),
-              new WorkflowPollTask(
-                  service,
-                  namespace,
-                  taskQueue,
-                  options.getMetricsScope(),
-                  options.getIdentity(),
-                  options.getBinaryChecksum()),
-              pollTaskExecutor,
-              options.getPollerOptions(),
-              options.getMetricsScope());
+              options.getBinaryChecksum());
+      if (options.getPollerOptions().isAsyncPolling()) {
+        poller =
+            new AsyncPoller<>(
+                options.getIdentity(),
+                pollTask,
+                pollTaskExecutor,
+                options.getPollerOptions(),
+                options.getMetricsScope());
+      } else {
+        poller =
+            new Poller<>(
+                options.getIdentity(),
+                pollTask,
+                pollTaskExecutor,
+                options.getPollerOptions(),
+                options.getMetricsScope());
+      }
       poller.start();
       options.getMetricsScope().counter(MetricsType.WORKER_START_COUNTER).inc(1);
     }
@@ -244,7 +270,11 @@ public final class WorkflowWorker
       return;
     }
 
-    poller.awaitTermination(timeout, unit);
+    long timeoutMillis = unit.toMillis(timeout);
+    timeoutMillis = InternalUtils.awaitTermination(poller, timeoutMillis);
+    if (responder != null) {
+      responder.awaitCompletion(timeoutMillis);
+    }
   }
 
   @Override
@@ -288,9 +318,7 @@ public final class WorkflowWorker
     @Override
     public void handle(PollWorkflowTaskQueueResponse task) throws Exception {
       Scope metricsScope =
-          options
-              .getMetricsScope()
-              .tagged(ImmutableMap.of(MetricsTag.WORKFLOW_TYPE, task.getWorkflowType().getName()));
+          workflowTypeScopes.tagged(options.getMetricsScope(), task.getWorkflowType().getName());
 
       MDC.put(LoggerTag.WORKFLOW_ID, task.getWorkflowExecution().getWorkflowId());
       MDC.put(LoggerTag.WORKFLOW_TYPE, task.getWorkflowType().getName());
@@ -320,7 +348,7 @@ public final class WorkflowWorker
           } finally {
             sw.stop();
           }
-          nextTask = sendReply(service, metricsScope, nextTask.get().getTaskToken(), response);
+          nextTask = sendReply(service, metricsScope, nextTask.get(), response);
           if (nextTask.isPresent()) {
             metricsScope.counter(MetricsType.WORKFLOW_TASK_HEARTBEAT_COUNTER).inc(1);
           }
@@ -353,8 +381,10 @@ public final class WorkflowWorker
     private Optional<PollWorkflowTaskQueueResponse> sendReply(
         WorkflowServiceStubs service,
         Scope metricsScope,
-        ByteString taskToken,
-        WorkflowTaskHandler.Result response) {
+        PollWorkflowTaskQueueResponse task,
+        WorkflowTaskHandler.Result response)
+        throws InterruptedException {
+      ByteString taskToken = task.getTaskToken();
       RpcRetryOptions ro = response.getRequestRetryOptions();
       RespondWorkflowTaskCompletedRequest taskCompleted = response.getTaskCompleted();
       if (taskCompleted != null) {
@@ -368,10 +398,16 @@ public final class WorkflowWorker
                 .setBinaryChecksum(options.getBinaryChecksum())
                 .setTaskToken(taskToken)
                 .build();
-        Map<String, String> tags =
-            new ImmutableMap.Builder<String, String>(4)
-                .put(MetricsTag.WORKFLOW_TYPE, response.getWorkflowType())
-                .build();
+        Scope replyScope = workflowTypeScopes.tagged(metricsScope, response.getWorkflowType());
+        if (responder != null) {
+          // The executor thread moves on to the next task while the completion is in flight
+          @SuppressWarnings({"FutureReturnValueIgnored", "unused"})
+          CompletableFuture<RespondWorkflowTaskCompletedResponse> ignored =
+              responder
+                  .respondWorkflowTaskCompleted(request, ro, replyScope)
+                  .whenComplete((r, e) -> handleAsyncReply(task, metricsScope, r, e));
+          return Optional.empty();
+        }
         AtomicReference<RespondWorkflowTaskCompletedResponse> nextTask = new AtomicReference<>();
         GrpcRetryer.retry(
             ro,
@@ -379,7 +415,7 @@ public final class WorkflowWorker
                 nextTask.set(
                     service
                         .blockingStub()
-                        .withOption(METRICS_TAGS_CALL_OPTIONS_KEY, metricsScope.tagged(tags))
+                        .withOption(METRICS_TAGS_CALL_OPTIONS_KEY, replyScope)
                         .respondWorkflowTaskCompleted(request)));
         if (nextTask.get().hasWorkflowTask()) {
           return Optional.of(nextTask.get().getWorkflowTask());
@@ -418,5 +454,37 @@ public final class WorkflowWorker
       }
       return Optional.empty();
     }
+
+    private void handleAsyncReply(
+        PollWorkflowTaskQueueResponse task,
+        Scope metricsScope,
+        RespondWorkflowTaskCompletedResponse reply,
+        Throwable failure) {
+      if (failure != null) {
+        if (failure instanceof CompletionException && failure.getCause() != null) {
+          failure = failure.getCause();
+        }
+        if (!pollTaskExecutor.isShutdown()) {
+          options
+              .getPollerOptions()
+              .getUncaughtExceptionHandler()
+              .uncaughtException(Thread.currentThread(), wrapFailure(task, failure));
+        }
+        return;
+      }
+      if (!reply.hasWorkflowTask()) {
+        return;
+      }
+      metricsScope.counter(MetricsType.WORKFLOW_TASK_HEARTBEAT_COUNTER).inc(1);
+      // The next task of the run is processed as a newly polled one. It is queued if all the
+      // execution slots are taken, so the calling gRPC executor thread never blocks.
+      try {
+        pollTaskExecutor.enqueue(reply.getWorkflowTask());
+      } catch (RejectedExecutionException e) {
+        if (!pollTaskExecutor.isShutdown()) {
+          throw e;
+        }
+      }
+    }
   }
 }
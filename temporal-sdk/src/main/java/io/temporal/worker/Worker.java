@@ -44,7 +44,7 @@ import io.temporal.workflow.WorkflowMethod;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -63,7 +63,7 @@ public final class Worker implements Suspendable {
   private final WorkflowExecutorCache cache;
   private final String stickyTaskQueueName;
   private final Scope metricsScope;
-  private final ThreadPoolExecutor threadPoolExecutor;
+  private final ExecutorService threadPoolExecutor;
 
   /**
    * Creates worker that connects to an instance of the Temporal Service.
@@ -82,7 +82,7 @@ public final class Worker implements Suspendable {
       Scope metricsScope,
       WorkflowExecutorCache cache,
       String stickyTaskQueueName,
-      ThreadPoolExecutor threadPoolExecutor,
+      ExecutorService threadPoolExecutor,
       List<ContextPropagator> contextPropagators) {
 
     Objects.requireNonNull(client, "client should not be null");
@@ -165,6 +165,9 @@ public final class Worker implements Suspendable {
             PollerOptions.newBuilder()
                 .setMaximumPollRatePerSecond(options.getMaxWorkerActivitiesPerSecond())
                 .setPollThreadCount(options.getActivityPollThreadCount())
+                .setPollerAutoscaling(options.isPollerAutoscaling())
+                .setMinimumPollThreadCount(options.getMinimumActivityPollThreadCount())
+                .setAsyncPolling(options.isAsyncPolling())
                 .build())
         .setTaskExecutorThreadPoolSize(options.getMaxConcurrentActivityExecutionSize())
         .setMetricsScope(metricsScope)
@@ -189,9 +192,14 @@ public final class Worker implements Suspendable {
         .setPollerOptions(
             PollerOptions.newBuilder()
                 .setPollThreadCount(options.getWorkflowPollThreadCount())
+                .setPollerAutoscaling(options.isPollerAutoscaling())
+                .setMinimumPollThreadCount(options.getMinimumWorkflowPollThreadCount())
+                .setAsyncPolling(options.isAsyncPolling())
                 .build())
         .setDefaultDeadlockDetectionTimeout(options.getDefaultDeadlockDetectionTimeout())
         .setTaskExecutorThreadPoolSize(options.getMaxConcurrentWorkflowTaskExecutionSize())
+        .setMaxConcurrentWorkflowTaskReplies(options.getMaxConcurrentWorkflowTaskReplies())
+        .setMaxWorkflowHistoryPrefetchPages(options.getMaxWorkflowHistoryPrefetchPages())
         .setMetricsScope(metricsScope.tagged(tags))
         .setEnableLoggingInReplay(factoryOptions.isEnableLoggingInReplay())
         .setContextPropagators(contextPropagators)
@@ -210,6 +218,8 @@ public final class Worker implements Suspendable {
         .setBinaryChecksum(clientOptions.getBinaryChecksum())
         .setPollerOptions(PollerOptions.newBuilder().build())
         .setTaskExecutorThreadPoolSize(options.getMaxConcurrentLocalActivityExecutionSize())
+        .setLocalActivityInlineExecutionThreshold(
+            options.getLocalActivityInlineExecutionThreshold())
         .setMetricsScope(metricsScope)
         .setEnableLoggingInReplay(factoryOptions.isEnableLoggingInReplay())
         .setContextPropagators(contextPropagators)
@@ -28,6 +28,7 @@ import io.temporal.api.workflowservice.v1.PollWorkflowTaskQueueResponse;
 import io.temporal.client.WorkflowClient;
 import io.temporal.common.converter.DataConverter;
 import io.temporal.internal.common.InternalUtils;
+import io.temporal.internal.common.VirtualThreads;
 import io.temporal.internal.replay.WorkflowExecutorCache;
 import io.temporal.internal.worker.PollWorkflowTaskDispatcher;
 import io.temporal.internal.worker.Poller;
@@ -38,6 +39,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -65,7 +67,7 @@ public final class WorkerFactory {
   private final WorkflowClient workflowClient;
   private final UUID id =
       UUID.randomUUID(); // Guarantee uniqueness for stickyTaskQueueName when multiple factories
-  private final ThreadPoolExecutor workflowThreadPool;
+  private final ExecutorService workflowThreadPool;
   private final AtomicInteger workflowThreadCounter = new AtomicInteger();
   private final WorkerFactoryOptions factoryOptions;
 
@@ -91,15 +93,31 @@ public final class WorkerFactory {
     this.factoryOptions =
         WorkerFactoryOptions.newBuilder(factoryOptions).validateAndBuildWithDefaults();
 
-    workflowThreadPool =
-        new ThreadPoolExecutor(
-            0,
-            this.factoryOptions.getMaxWorkflowThreadCount(),
-            1,
-            TimeUnit.SECONDS,
-            new SynchronousQueue<>());
-    workflowThreadPool.setThreadFactory(
-        r -> new Thread(r, "workflow-thread-" + workflowThreadCounter.incrementAndGet()));
+    boolean virtualWorkflowThreads = false;
+    if (this.factoryOptions.isEnableVirtualWorkflowThreads()) {
+      virtualWorkflowThreads = VirtualThreads.isSupported();
+      if (!virtualWorkflowThreads) {
+        log.warn(
+            "Virtual threads are not supported by the current JVM, "
+                + "falling back to a platform thread pool for workflow threads");
+      }
+    }
+    if (virtualWorkflowThreads) {
+      // Virtual threads are not pooled, each workflow thread gets its own one that releases its
+      // carrier thread while the workflow thread is blocked.
+      workflowThreadPool = VirtualThreads.newThreadPerTaskExecutor("workflow-thread-");
+    } else {
+      ThreadPoolExecutor threadPool =
+          new ThreadPoolExecutor(
+              0,
+              this.factoryOptions.getMaxWorkflowThreadCount(),
+              1,
+              TimeUnit.SECONDS,
+              new SynchronousQueue<>());
+      threadPool.setThreadFactory(
+          r -> new Thread(r, "workflow-thread-" + workflowThreadCounter.incrementAndGet()));
+      workflowThreadPool = threadPool;
+    }
 
     metricsScope =
         this.workflowClient
@@ -109,7 +127,10 @@ public final class WorkerFactory {
             .tagged(MetricsTag.defaultTags(workflowClient.getOptions().getNamespace()));
 
     this.cache =
-        new WorkflowExecutorCache(this.factoryOptions.getWorkflowCacheSize(), metricsScope);
+        new WorkflowExecutorCache(
+            this.factoryOptions.getWorkflowCacheSize(),
+            this.factoryOptions.getWorkflowCacheMaxBytes(),
+            metricsScope);
     Scope stickyScope =
         metricsScope.tagged(
             new ImmutableMap.Builder<String, String>(1)
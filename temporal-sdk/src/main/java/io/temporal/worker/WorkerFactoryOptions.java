@@ -52,10 +52,12 @@ public class WorkerFactoryOptions {
 
     private Duration workflowHostLocalTaskQueueScheduleToStartTimeout;
     private int workflowCacheSize;
+    private long workflowCacheMaxBytes;
     private int maxWorkflowThreadCount;
     private WorkerInterceptor[] workerInterceptors;
     private boolean enableLoggingInReplay;
     private int workflowHostLocalPollThreadCount;
+    private boolean enableVirtualWorkflowThreads;
 
     private Builder() {}
 
@@ -66,10 +68,12 @@ public class WorkerFactoryOptions {
       this.workflowHostLocalTaskQueueScheduleToStartTimeout =
           options.workflowHostLocalTaskQueueScheduleToStartTimeout;
       this.workflowCacheSize = options.workflowCacheSize;
+      this.workflowCacheMaxBytes = options.workflowCacheMaxBytes;
       this.maxWorkflowThreadCount = options.maxWorkflowThreadCount;
       this.workerInterceptors = options.workerInterceptors;
       this.enableLoggingInReplay = options.enableLoggingInReplay;
       this.workflowHostLocalPollThreadCount = options.workflowHostLocalPollThreadCount;
+      this.enableVirtualWorkflowThreads = options.enableVirtualWorkflowThreads;
     }
 
     /**
@@ -85,6 +89,19 @@ public class WorkerFactoryOptions {
       return this;
     }
 
+    /**
+     * Byte budget of the workflow cache. Each cached workflow reports a rough estimate of the
+     * memory it retains (state machines, workflow thread stacks, payloads) and the least recently
+     * used workflows that are not being processed are evicted when the total estimate exceeds this
+     * value. Applied in addition to {@link #setWorkflowCacheSize(int)}.
+     *
+     * <p>Default is 0 which means that the cache is limited by the number of cached workflows only.
+     */
+    public Builder setWorkflowCacheMaxBytes(long workflowCacheMaxBytes) {
+      this.workflowCacheMaxBytes = workflowCacheMaxBytes;
+      return this;
+    }
+
     /**
      * Maximum number of threads available for workflow execution across all workers created by the
      * Factory. This includes cached workflows.
@@ -96,6 +113,20 @@ public class WorkerFactoryOptions {
       return this;
     }
 
+    /**
+     * Run workflow threads on virtual threads when the JVM supports them (JDK 21+). Blocked
+     * workflow threads of cached workflows don't hold platform threads in this mode, so {@link
+     * #setMaxWorkflowThreadCount(int)} is not applied and the number of cached workflows is limited
+     * only by {@link #setWorkflowCacheSize(int)} and {@link #setWorkflowCacheMaxBytes(long)}. Falls
+     * back to the bounded platform thread pool if virtual threads are not supported.
+     *
+     * <p>Default is false
+     */
+    public Builder setEnableVirtualWorkflowThreads(boolean enableVirtualWorkflowThreads) {
+      this.enableVirtualWorkflowThreads = enableVirtualWorkflowThreads;
+      return this;
+    }
+
     /**
      * Timeout for a workflow task routed to the the host that caches a workflow object. Once it
      * times out then it can be picked up by any worker.
@@ -125,46 +156,55 @@ public class WorkerFactoryOptions {
     public WorkerFactoryOptions build() {
       return new WorkerFactoryOptions(
           workflowCacheSize,
+          workflowCacheMaxBytes,
           maxWorkflowThreadCount,
           workflowHostLocalTaskQueueScheduleToStartTimeout,
           workerInterceptors,
           enableLoggingInReplay,
           workflowHostLocalPollThreadCount,
+          enableVirtualWorkflowThreads,
           false);
     }
 
     public WorkerFactoryOptions validateAndBuildWithDefaults() {
       return new WorkerFactoryOptions(
           workflowCacheSize,
+          workflowCacheMaxBytes,
           maxWorkflowThreadCount,
           workflowHostLocalTaskQueueScheduleToStartTimeout,
           workerInterceptors == null ? new WorkerInterceptor[0] : workerInterceptors,
           enableLoggingInReplay,
           workflowHostLocalPollThreadCount,
+          enableVirtualWorkflowThreads,
           true);
     }
   }
 
   private final int workflowCacheSize;
+  private final long workflowCacheMaxBytes;
   private final int maxWorkflowThreadCount;
   private final Duration workflowHostLocalTaskQueueScheduleToStartTimeout;
   private final WorkerInterceptor[] workerInterceptors;
   private final boolean enableLoggingInReplay;
   private final int workflowHostLocalPollThreadCount;
+  private final boolean enableVirtualWorkflowThreads;
 
   private WorkerFactoryOptions(
       int workflowCacheSize,
+      long workflowCacheMaxBytes,
       int maxWorkflowThreadCount,
       Duration workflowHostLocalTaskQueueScheduleToStartTimeout,
       WorkerInterceptor[] workerInterceptors,
       boolean enableLoggingInReplay,
       int workflowHostLocalPollThreadCount,
+      boolean enableVirtualWorkflowThreads,
       boolean validate) {
     if (validate) {
       Preconditions.checkState(workflowCacheSize >= 0, "negative workflowCacheSize");
       if (workflowCacheSize <= 0) {
         workflowCacheSize = DEFAULT_WORKFLOW_CACHE_SIZE;
       }
+      Preconditions.checkState(workflowCacheMaxBytes >= 0, "negative workflowCacheMaxBytes");
 
       Preconditions.checkState(maxWorkflowThreadCount >= 0, "negative maxWorkflowThreadCount");
       if (maxWorkflowThreadCount == 0) {
@@ -189,18 +229,24 @@ public class WorkerFactoryOptions {
       }
     }
     this.workflowCacheSize = workflowCacheSize;
+    this.workflowCacheMaxBytes = workflowCacheMaxBytes;
     this.maxWorkflowThreadCount = maxWorkflowThreadCount;
     this.workflowHostLocalTaskQueueScheduleToStartTimeout =
         workflowHostLocalTaskQueueScheduleToStartTimeout;
     this.workerInterceptors = workerInterceptors;
     this.enableLoggingInReplay = enableLoggingInReplay;
     this.workflowHostLocalPollThreadCount = workflowHostLocalPollThreadCount;
+    this.enableVirtualWorkflowThreads = enableVirtualWorkflowThreads;
   }
 
   public int getWorkflowCacheSize() {
     return workflowCacheSize;
   }
 
+  public long getWorkflowCacheMaxBytes() {
+    return workflowCacheMaxBytes;
+  }
+
   public int getMaxWorkflowThreadCount() {
     return maxWorkflowThreadCount;
   }
@@ -221,6 +267,10 @@ public class WorkerFactoryOptions {
     return workflowHostLocalPollThreadCount;
   }
 
+  public boolean isEnableVirtualWorkflowThreads() {
+    return enableVirtualWorkflowThreads;
+  }
+
   public Builder toBuilder() {
     return new Builder(this);
   }
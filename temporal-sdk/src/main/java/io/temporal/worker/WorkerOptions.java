@@ -22,6 +22,7 @@ package io.temporal.worker;
 import static java.lang.Double.compare;
 
 import com.google.common.base.Preconditions;
+import java.time.Duration;
 import java.util.Objects;
 
 public final class WorkerOptions {
@@ -60,6 +61,13 @@ public final class WorkerOptions {
     private double maxTaskQueueActivitiesPerSecond;
     private int workflowPollThreadCount;
     private int activityPollThreadCount;
+    private boolean pollerAutoscaling;
+    private int minimumWorkflowPollThreadCount;
+    private int minimumActivityPollThreadCount;
+    private boolean asyncPolling;
+    private int maxConcurrentWorkflowTaskReplies;
+    private int maxWorkflowHistoryPrefetchPages;
+    private Duration localActivityInlineExecutionThreshold;
     private boolean localActivityWorkerOnly;
     private long defaultDeadlockDetectionTimeout;
 
@@ -76,6 +84,13 @@ public final class WorkerOptions {
       maxTaskQueueActivitiesPerSecond = o.maxTaskQueueActivitiesPerSecond;
       workflowPollThreadCount = o.workflowPollThreadCount;
       activityPollThreadCount = o.activityPollThreadCount;
+      pollerAutoscaling = o.pollerAutoscaling;
+      minimumWorkflowPollThreadCount = o.minimumWorkflowPollThreadCount;
+      minimumActivityPollThreadCount = o.minimumActivityPollThreadCount;
+      asyncPolling = o.asyncPolling;
+      maxConcurrentWorkflowTaskReplies = o.maxConcurrentWorkflowTaskReplies;
+      maxWorkflowHistoryPrefetchPages = o.maxWorkflowHistoryPrefetchPages;
+      localActivityInlineExecutionThreshold = o.localActivityInlineExecutionThreshold;
       localActivityWorkerOnly = o.localActivityWorkerOnly;
       defaultDeadlockDetectionTimeout = o.defaultDeadlockDetectionTimeout;
     }
@@ -148,6 +163,27 @@ public final class WorkerOptions {
       return this;
     }
 
+    /**
+     * @param localActivityInlineExecutionThreshold Local activities with a schedule-to-close
+     *     timeout, or a start-to-close timeout if the former is not set, not longer than this
+     *     threshold are executed directly on the workflow task thread instead of being queued to
+     *     the local activity executor. Local retries of such activities are limited by the same
+     *     threshold. Inline local activities requested together run one after another. Default is
+     *     null, which disables inline execution.
+     * @return {@code this}
+     */
+    public Builder setLocalActivityInlineExecutionThreshold(
+        Duration localActivityInlineExecutionThreshold) {
+      if (localActivityInlineExecutionThreshold != null
+          && localActivityInlineExecutionThreshold.isNegative()) {
+        throw new IllegalArgumentException(
+            "Negative localActivityInlineExecutionThreshold value: "
+                + localActivityInlineExecutionThreshold);
+      }
+      this.localActivityInlineExecutionThreshold = localActivityInlineExecutionThreshold;
+      return this;
+    }
+
     /**
      * Optional: Sets the rate limiting on number of activities that can be executed per second.
      * This is managed by the server and controls activities per second for the entire task queue
@@ -185,6 +221,99 @@ public final class WorkerOptions {
       return this;
     }
 
+    /**
+     * If set to true the number of simultaneous poll requests on workflow and activity task queues
+     * is scaled between {@link #setMinimumWorkflowPollThreadCount(int)} and {@link
+     * #setWorkflowPollThreadCount(int)}, and between {@link
+     * #setMinimumActivityPollThreadCount(int)} and {@link #setActivityPollThreadCount(int)}
+     * respectively. Pollers are added while polls return tasks quickly and removed while polls
+     * mostly return empty or the task executor is saturated.
+     *
+     * <p>Default is false.
+     */
+    public Builder setPollerAutoscaling(boolean pollerAutoscaling) {
+      this.pollerAutoscaling = pollerAutoscaling;
+      return this;
+    }
+
+    /**
+     * @param minimumWorkflowPollThreadCount Number of simultaneous poll requests on workflow task
+     *     queue that are kept when {@link #setPollerAutoscaling(boolean)} is enabled. Raise it if
+     *     bursts of workflow tasks wait for pollers to be added. Must not exceed {@link
+     *     #setWorkflowPollThreadCount(int)}. Default is 1, which is chosen if set to zero.
+     * @return {@code this}
+     */
+    public Builder setMinimumWorkflowPollThreadCount(int minimumWorkflowPollThreadCount) {
+      if (minimumWorkflowPollThreadCount < 0) {
+        throw new IllegalArgumentException(
+            "Negative minimumWorkflowPollThreadCount value: " + minimumWorkflowPollThreadCount);
+      }
+      this.minimumWorkflowPollThreadCount = minimumWorkflowPollThreadCount;
+      return this;
+    }
+
+    /**
+     * @param minimumActivityPollThreadCount Number of simultaneous poll requests on activity task
+     *     queue that are kept when {@link #setPollerAutoscaling(boolean)} is enabled. Raise it if
+     *     bursts of activity tasks wait for pollers to be added. Must not exceed {@link
+     *     #setActivityPollThreadCount(int)}. Default is 1, which is chosen if set to zero.
+     * @return {@code this}
+     */
+    public Builder setMinimumActivityPollThreadCount(int minimumActivityPollThreadCount) {
+      if (minimumActivityPollThreadCount < 0) {
+        throw new IllegalArgumentException(
+            "Negative minimumActivityPollThreadCount value: " + minimumActivityPollThreadCount);
+      }
+      this.minimumActivityPollThreadCount = minimumActivityPollThreadCount;
+      return this;
+    }
+
+    /**
+     * If set to true workflow and activity task queues are polled using asynchronous gRPC calls.
+     * Outstanding polls don't occupy a thread each, so {@link #setWorkflowPollThreadCount(int)} and
+     * {@link #setActivityPollThreadCount(int)} define the number of concurrent polls and can be set
+     * much higher without an increase in the number of threads.
+     *
+     * <p>Default is false.
+     */
+    public Builder setAsyncPolling(boolean asyncPolling) {
+      this.asyncPolling = asyncPolling;
+      return this;
+    }
+
+    /**
+     * @param maxConcurrentWorkflowTaskReplies Maximum number of workflow task completions sent to
+     *     the service asynchronously at the same time. If set, executor threads hand off the
+     *     completion and move on to the next task instead of waiting for the network round trip.
+     *     Executor threads block when the limit is reached. Default is 0, which sends completions
+     *     synchronously from the executor thread.
+     * @return {@code this}
+     */
+    public Builder setMaxConcurrentWorkflowTaskReplies(int maxConcurrentWorkflowTaskReplies) {
+      if (maxConcurrentWorkflowTaskReplies < 0) {
+        throw new IllegalArgumentException(
+            "Negative maxConcurrentWorkflowTaskReplies value: " + maxConcurrentWorkflowTaskReplies);
+      }
+      this.maxConcurrentWorkflowTaskReplies = maxConcurrentWorkflowTaskReplies;
+      return this;
+    }
+
+    /**
+     * @param maxWorkflowHistoryPrefetchPages Maximum number of workflow history pages requested in
+     *     the background while the already received events are replayed. Pages are prefetched only
+     *     while the buffered ones take less than 16MB. Default is 0, which requests a page only
+     *     when the replay reaches it.
+     * @return {@code this}
+     */
+    public Builder setMaxWorkflowHistoryPrefetchPages(int maxWorkflowHistoryPrefetchPages) {
+      if (maxWorkflowHistoryPrefetchPages < 0) {
+        throw new IllegalArgumentException(
+            "Negative maxWorkflowHistoryPrefetchPages value: " + maxWorkflowHistoryPrefetchPages);
+      }
+      this.maxWorkflowHistoryPrefetchPages = maxWorkflowHistoryPrefetchPages;
+      return this;
+    }
+
     /**
      * If set to true worker would only handle workflow tasks and local activities. Non-local
      * activities will not be executed by this worker.
@@ -223,6 +352,13 @@ public final class WorkerOptions {
           maxTaskQueueActivitiesPerSecond,
           workflowPollThreadCount,
           activityPollThreadCount,
+          pollerAutoscaling,
+          minimumWorkflowPollThreadCount,
+          minimumActivityPollThreadCount,
+          asyncPolling,
+          maxConcurrentWorkflowTaskReplies,
+          maxWorkflowHistoryPrefetchPages,
+          localActivityInlineExecutionThreshold,
           localActivityWorkerOnly,
           defaultDeadlockDetectionTimeout);
     }
@@ -242,8 +378,30 @@ public final class WorkerOptions {
           maxTaskQueueActivitiesPerSecond >= 0, "negative taskQueueActivitiesPerSecond");
       Preconditions.checkState(workflowPollThreadCount >= 0, "negative workflowPollThreadCount");
       Preconditions.checkState(activityPollThreadCount >= 0, "negative activityPollThreadCount");
+      Preconditions.checkState(
+          minimumWorkflowPollThreadCount >= 0, "negative minimumWorkflowPollThreadCount");
+      Preconditions.checkState(
+          minimumActivityPollThreadCount >= 0, "negative minimumActivityPollThreadCount");
       Preconditions.checkState(
           defaultDeadlockDetectionTimeout >= 0, "negative defaultDeadlockDetectionTimeout");
+      int workflowPollThreadCount =
+          this.workflowPollThreadCount == 0
+              ? DEFAULT_WORKFLOW_POLL_THREAD_COUNT
+              : this.workflowPollThreadCount;
+      int activityPollThreadCount =
+          this.activityPollThreadCount == 0
+              ? DEFAULT_ACTIVITY_POLL_THREAD_COUNT
+              : this.activityPollThreadCount;
+      int minimumWorkflowPollThreadCount =
+          this.minimumWorkflowPollThreadCount == 0 ? 1 : this.minimumWorkflowPollThreadCount;
+      int minimumActivityPollThreadCount =
+          this.minimumActivityPollThreadCount == 0 ? 1 : this.minimumActivityPollThreadCount;
+      Preconditions.checkState(
+          minimumWorkflowPollThreadCount <= workflowPollThreadCount,
+          "minimumWorkflowPollThreadCount is greater than workflowPollThreadCount");
+      Preconditions.checkState(
+          minimumActivityPollThreadCount <= activityPollThreadCount,
+          "minimumActivityPollThreadCount is greater than activityPollThreadCount");
       return new WorkerOptions(
           maxWorkerActivitiesPerSecond,
           maxConcurrentActivityExecutionSize == 0
@@ -256,12 +414,15 @@ public final class WorkerOptions {
               ? DEFAULT_MAX_CONCURRENT_LOCAL_ACTIVITY_EXECUTION_SIZE
               : maxConcurrentLocalActivityExecutionSize,
           maxTaskQueueActivitiesPerSecond,
-          workflowPollThreadCount == 0
-              ? DEFAULT_WORKFLOW_POLL_THREAD_COUNT
-              : workflowPollThreadCount,
-          activityPollThreadCount == 0
-              ? DEFAULT_ACTIVITY_POLL_THREAD_COUNT
-              : activityPollThreadCount,
+          workflowPollThreadCount,
+          activityPollThreadCount,
+          pollerAutoscaling,
+          minimumWorkflowPollThreadCount,
+          minimumActivityPollThreadCount,
+          asyncPolling,
+          maxConcurrentWorkflowTaskReplies,
+          maxWorkflowHistoryPrefetchPages,
+          localActivityInlineExecutionThreshold,
           localActivityWorkerOnly,
           defaultDeadlockDetectionTimeout == 0
               ? DEFAULT_DEADLOCK_DETECTION_TIMEOUT
@@ -276,6 +437,13 @@ public final class WorkerOptions {
   private final double maxTaskQueueActivitiesPerSecond;
   private final int workflowPollThreadCount;
   private final int activityPollThreadCount;
+  private final boolean pollerAutoscaling;
+  private final int minimumWorkflowPollThreadCount;
+  private final int minimumActivityPollThreadCount;
+  private final boolean asyncPolling;
+  private final int maxConcurrentWorkflowTaskReplies;
+  private final int maxWorkflowHistoryPrefetchPages;
+  private final Duration localActivityInlineExecutionThreshold;
   private final boolean localActivityWorkerOnly;
   private final long defaultDeadlockDetectionTimeout;
 
@@ -287,6 +455,13 @@ public final class WorkerOptions {
       double maxTaskQueueActivitiesPerSecond,
       int workflowPollThreadCount,
       int activityPollThreadCount,
+      boolean pollerAutoscaling,
+      int minimumWorkflowPollThreadCount,
+      int minimumActivityPollThreadCount,
+      boolean asyncPolling,
+      int maxConcurrentWorkflowTaskReplies,
+      int maxWorkflowHistoryPrefetchPages,
+      Duration localActivityInlineExecutionThreshold,
       boolean localActivityWorkerOnly,
       long defaultDeadlockDetectionTimeout) {
     this.maxWorkerActivitiesPerSecond = maxWorkerActivitiesPerSecond;
@@ -296,6 +471,13 @@ public final class WorkerOptions {
     this.maxTaskQueueActivitiesPerSecond = maxTaskQueueActivitiesPerSecond;
     this.workflowPollThreadCount = workflowPollThreadCount;
     this.activityPollThreadCount = activityPollThreadCount;
+    this.pollerAutoscaling = pollerAutoscaling;
+    this.minimumWorkflowPollThreadCount = minimumWorkflowPollThreadCount;
+    this.minimumActivityPollThreadCount = minimumActivityPollThreadCount;
+    this.asyncPolling = asyncPolling;
+    this.maxConcurrentWorkflowTaskReplies = maxConcurrentWorkflowTaskReplies;
+    this.maxWorkflowHistoryPrefetchPages = maxWorkflowHistoryPrefetchPages;
+    this.localActivityInlineExecutionThreshold = localActivityInlineExecutionThreshold;
     this.localActivityWorkerOnly = localActivityWorkerOnly;
     this.defaultDeadlockDetectionTimeout = defaultDeadlockDetectionTimeout;
   }
@@ -328,6 +510,34 @@ public final class WorkerOptions {
     return activityPollThreadCount;
   }
 
+  public boolean isPollerAutoscaling() {
+    return pollerAutoscaling;
+  }
+
+  public int getMinimumWorkflowPollThreadCount() {
+    return minimumWorkflowPollThreadCount;
+  }
+
+  public int getMinimumActivityPollThreadCount() {
+    return minimumActivityPollThreadCount;
+  }
+
+  public boolean isAsyncPolling() {
+    return asyncPolling;
+  }
+
+  public int getMaxConcurrentWorkflowTaskReplies() {
+    return maxConcurrentWorkflowTaskReplies;
+  }
+
+  public int getMaxWorkflowHistoryPrefetchPages() {
+    return maxWorkflowHistoryPrefetchPages;
+  }
+
+  public Duration getLocalActivityInlineExecutionThreshold() {
+    return localActivityInlineExecutionThreshold;
+  }
+
   public long getDefaultDeadlockDetectionTimeout() {
     return defaultDeadlockDetectionTimeout;
   }
@@ -348,6 +558,14 @@ public final class WorkerOptions {
         && compare(that.maxTaskQueueActivitiesPerSecond, maxTaskQueueActivitiesPerSecond) == 0
         && workflowPollThreadCount == that.workflowPollThreadCount
         && activityPollThreadCount == that.activityPollThreadCount
+        && pollerAutoscaling == that.pollerAutoscaling
+        && minimumWorkflowPollThreadCount == that.minimumWorkflowPollThreadCount
+        && minimumActivityPollThreadCount == that.minimumActivityPollThreadCount
+        && asyncPolling == that.asyncPolling
+        && maxConcurrentWorkflowTaskReplies == that.maxConcurrentWorkflowTaskReplies
+        && maxWorkflowHistoryPrefetchPages == that.maxWorkflowHistoryPrefetchPages
+        && Objects.equals(
+            localActivityInlineExecutionThreshold, that.localActivityInlineExecutionThreshold)
         && localActivityWorkerOnly == that.localActivityWorkerOnly
         && defaultDeadlockDetectionTimeout == that.defaultDeadlockDetectionTimeout;
   }
@@ -362,6 +580,13 @@ public final class WorkerOptions {
         maxTaskQueueActivitiesPerSecond,
         workflowPollThreadCount,
         activityPollThreadCount,
+        pollerAutoscaling,
+        minimumWorkflowPollThreadCount,
+        minimumActivityPollThreadCount,
+        asyncPolling,
+        maxConcurrentWorkflowTaskReplies,
+        maxWorkflowHistoryPrefetchPages,
+        localActivityInlineExecutionThreshold,
         localActivityWorkerOnly,
         defaultDeadlockDetectionTimeout);
   }
@@ -383,6 +608,20 @@ public final class WorkerOptions {
         + workflowPollThreadCount
         + ", activityPollThreadCount="
         + activityPollThreadCount
+        + ", pollerAutoscaling="
+        + pollerAutoscaling
+        + ", minimumWorkflowPollThreadCount="
+        + minimumWorkflowPollThreadCount
+        + ", minimumActivityPollThreadCount="
+        + minimumActivityPollThreadCount
+        + ", asyncPolling="
+        + asyncPolling
+        + ", maxConcurrentWorkflowTaskReplies="
+        + maxConcurrentWorkflowTaskReplies
+        + ", maxWorkflowHistoryPrefetchPages="
+        + maxWorkflowHistoryPrefetchPages
+        + ", localActivityInlineExecutionThreshold="
+        + localActivityInlineExecutionThreshold
         + ", localActivityWorkerOnly="
         + localActivityWorkerOnly
         + ", defaultDeadlockDetectionTimeout="
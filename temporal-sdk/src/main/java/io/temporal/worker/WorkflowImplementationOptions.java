@@ -20,6 +20,7 @@
 package io.temporal.worker;
 
 import io.temporal.activity.ActivityOptions;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
@@ -46,6 +47,7 @@ public final class WorkflowImplementationOptions {
     private Class<? extends Throwable>[] failWorkflowExceptionTypes;
     private Map<String, ActivityOptions> activityOptions;
     private ActivityOptions defaultActivityOptions;
+    private Duration timerCoalescingGranularity;
 
     private Builder() {}
 
@@ -96,25 +98,58 @@ public final class WorkflowImplementationOptions {
       return this;
     }
 
+    /**
+     * Optional: Enables coalescing of workflow timers. Timers are rounded up to the next multiple
+     * of the granularity and all timers that fire at the same time share a single server timer,
+     * which reduces the history size of workflows that start many timers with close deadlines. A
+     * timer can fire up to the granularity later than requested, but never earlier. Each timer can
+     * still be canceled individually. The server timer is canceled when all the timers sharing it
+     * are canceled.
+     *
+     * <p>Changing this option changes the commands that workflow code produces. So it breaks the
+     * determinism of open workflows that already started timers.
+     *
+     * <p>Default is null, which disables coalescing.
+     */
+    public Builder setTimerCoalescingGranularity(Duration timerCoalescingGranularity) {
+      if (timerCoalescingGranularity != null && timerCoalescingGranularity.toMillis() <= 0) {
+        throw new IllegalArgumentException(
+            "Illegal timerCoalescingGranularity: " + timerCoalescingGranularity);
+      }
+      this.timerCoalescingGranularity = timerCoalescingGranularity;
+      return this;
+    }
+
     public WorkflowImplementationOptions build() {
       return new WorkflowImplementationOptions(
           failWorkflowExceptionTypes == null ? new Class[0] : failWorkflowExceptionTypes,
           activityOptions == null ? new HashMap<>() : activityOptions,
-          defaultActivityOptions);
+          defaultActivityOptions,
+          timerCoalescingGranularity);
     }
   }
 
   private final Class<? extends Throwable>[] failWorkflowExceptionTypes;
   private final Map<String, ActivityOptions> activityOptions;
   private final ActivityOptions defaultActivityOptions;
+  private final Duration timerCoalescingGranularity;
 
   public WorkflowImplementationOptions(
       Class<? extends Throwable>[] failWorkflowExceptionTypes,
       Map<String, ActivityOptions> activityOptions,
       ActivityOptions defaultActivityOptions) {
+    this(failWorkflowExceptionTypes, activityOptions, defaultActivityOptions, null);
+  }
+
+  public WorkflowImplementationOptions(
+      Class<? extends Throwable>[] failWorkflowExceptionTypes,
+      Map<String, ActivityOptions> activityOptions,
+      ActivityOptions defaultActivityOptions,
+      Duration timerCoalescingGranularity) {
     this.failWorkflowExceptionTypes = failWorkflowExceptionTypes;
     this.activityOptions = activityOptions;
     this.defaultActivityOptions = defaultActivityOptions;
+    this.timerCoalescingGranularity = timerCoalescingGranularity;
   }
 
   public Class<? extends Throwable>[] getFailWorkflowExceptionTypes() {
@@ -129,6 +164,10 @@ public final class WorkflowImplementationOptions {
     return defaultActivityOptions;
   }
 
+  public Duration getTimerCoalescingGranularity() {
+    return timerCoalescingGranularity;
+  }
+
   @Override
   public String toString() {
     return "WorkflowImplementationOptions{"
@@ -138,6 +177,8 @@ public final class WorkflowImplementationOptions {
         + activityOptions
         + ", defaultActivityOptions="
         + defaultActivityOptions
+        + ", timerCoalescingGranularity="
+        + timerCoalescingGranularity
         + '}';
   }
 
@@ -148,12 +189,13 @@ public final class WorkflowImplementationOptions {
     WorkflowImplementationOptions that = (WorkflowImplementationOptions) o;
     return Arrays.equals(failWorkflowExceptionTypes, that.failWorkflowExceptionTypes)
         && Objects.equals(activityOptions, that.activityOptions)
-        && Objects.equals(defaultActivityOptions, that.defaultActivityOptions);
+        && Objects.equals(defaultActivityOptions, that.defaultActivityOptions)
+        && Objects.equals(timerCoalescingGranularity, that.timerCoalescingGranularity);
   }
 
   @Override
   public int hashCode() {
-    int result = Objects.hash(activityOptions, defaultActivityOptions);
+    int result = Objects.hash(activityOptions, defaultActivityOptions, timerCoalescingGranularity);
     result = 31 * result + Arrays.hashCode(failWorkflowExceptionTypes);
     return result;
   }
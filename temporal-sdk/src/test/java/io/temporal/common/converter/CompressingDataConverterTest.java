@@ -0,0 +1,99 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.common.converter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.common.base.Strings;
+import com.google.protobuf.ByteString;
+import com.uber.m3.tally.NoopScope;
+import io.temporal.api.common.v1.Payload;
+import io.temporal.api.common.v1.Payloads;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import org.junit.Test;
+
+public class CompressingDataConverterTest {
+
+  private final DataConverter converter =
+      new CompressingDataConverter(DataConverter.getDefaultInstance());
+
+  @Test
+  public void testLargePayloadIsCompressed() {
+    String value = Strings.repeat("compressible ", 1000);
+    Optional<Payloads> data = converter.toPayloads(value, 1);
+    Payload compressed = data.get().getPayloads(0);
+    assertTrue(compressed.containsMetadata(EncodingKeys.METADATA_COMPRESSION_KEY));
+    assertTrue(compressed.getData().size() < value.length());
+    assertFalse(data.get().getPayloads(1).containsMetadata(EncodingKeys.METADATA_COMPRESSION_KEY));
+
+    assertEquals(value, converter.fromPayloads(0, data, String.class, String.class));
+    assertEquals(Integer.valueOf(1), converter.fromPayloads(1, data, Integer.class, Integer.class));
+    assertEquals(value, converter.fromPayload(compressed, String.class, String.class));
+  }
+
+  @Test
+  public void testSmallPayloadIsNotCompressed() {
+    Optional<Payload> payload = converter.toPayload("small");
+    assertFalse(payload.get().containsMetadata(EncodingKeys.METADATA_COMPRESSION_KEY));
+    assertEquals(DataConverter.getDefaultInstance().toPayload("small").get(), payload.get());
+  }
+
+  @Test
+  public void testIncompressiblePayloadIsNotCompressed() {
+    DataConverter converter =
+        new CompressingDataConverter(
+            DataConverter.getDefaultInstance(),
+            new DeflatePayloadCompression(),
+            0,
+            new NoopScope());
+    Optional<Payload> payload = converter.toPayload("x");
+    assertFalse(payload.get().containsMetadata(EncodingKeys.METADATA_COMPRESSION_KEY));
+  }
+
+  @Test
+  public void testUncompressedPayloadsAreReadable() {
+    String value = Strings.repeat("written before compression was enabled ", 100);
+    Optional<Payloads> data = DataConverter.getDefaultInstance().toPayloads(value);
+    assertEquals(value, converter.fromPayloads(0, data, String.class, String.class));
+  }
+
+  @Test
+  public void testUnknownCompression() {
+    Payload payload =
+        converter
+            .toPayload("value")
+            .get()
+            .toBuilder()
+            .putMetadata(
+                EncodingKeys.METADATA_COMPRESSION_KEY,
+                ByteString.copyFrom("unknown", StandardCharsets.UTF_8))
+            .build();
+    try {
+      converter.fromPayload(payload, String.class, String.class);
+      fail("unreachable");
+    } catch (DataConverterException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("unknown"));
+    }
+  }
+}
@@ -23,10 +23,13 @@ import static org.junit.Assert.*;
 
 import com.google.common.base.Objects;
 import com.google.common.reflect.TypeToken;
+import io.temporal.api.common.v1.Payload;
 import io.temporal.api.common.v1.Payloads;
+import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Test;
 
 public class EncodedValuesTest {
@@ -80,6 +83,52 @@ public class EncodedValuesTest {
     assertEquals(list, result);
   }
 
+  @Test
+  public void testImmutablePayloadsAreDeserializedOnAccessOnce() {
+    DataConverter defaultConverter = DefaultDataConverter.getDefaultInstance();
+    AtomicInteger deserialized = new AtomicInteger();
+    DataConverter converter =
+        new DataConverter() {
+          @Override
+          public <T> Optional<Payload> toPayload(T value) {
+            return defaultConverter.toPayload(value);
+          }
+
+          @Override
+          public <T> T fromPayload(Payload payload, Class<T> valueClass, Type valueType) {
+            deserialized.incrementAndGet();
+            return defaultConverter.fromPayload(payload, valueClass, valueType);
+          }
+
+          @Override
+          public Optional<Payloads> toPayloads(Object... values) {
+            return defaultConverter.toPayloads(values);
+          }
+
+          @Override
+          public <T> T fromPayloads(
+              int index, Optional<Payloads> content, Class<T> valueClass, Type valueType) {
+            deserialized.incrementAndGet();
+            return defaultConverter.fromPayloads(index, content, valueClass, valueType);
+          }
+        };
+    Pair pair = new Pair(10, "foo");
+    Values v = new EncodedValues(defaultConverter.toPayloads(pair, "bar"), converter);
+    assertEquals(0, deserialized.get());
+    String bar = v.get(1, String.class);
+    assertEquals("bar", bar);
+    assertSame(bar, v.get(1, String.class));
+    assertEquals(1, deserialized.get());
+    // Mutable results are never shared between callers
+    Pair result = v.get(0, Pair.class);
+    assertEquals(pair, result);
+    result.i = 20;
+    Pair result2 = v.get(0, Pair.class);
+    assertNotSame(result, result2);
+    assertEquals(pair, result2);
+    assertEquals(3, deserialized.get());
+  }
+
   @Test
   public void testEmptyParameter() {
     EncodedValues v = new EncodedValues(null);
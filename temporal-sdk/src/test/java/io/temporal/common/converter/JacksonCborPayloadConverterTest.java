@@ -0,0 +1,108 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.common.converter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import io.temporal.api.common.v1.Payload;
+import io.temporal.api.common.v1.Payloads;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Random;
+import org.junit.Test;
+
+public class JacksonCborPayloadConverterTest {
+
+  @Test
+  public void testRoundTrip() {
+    DataConverter converter = DefaultDataConverter.newCborInstance();
+    TestPayload value = new TestPayload(1L, Instant.now(), Arrays.asList(1.5, 2.5, 3.5));
+    Optional<Payloads> data = converter.toPayloads(value, "string", 10);
+    Payload payload = data.get().getPayloads(0);
+    assertEquals(
+        EncodingKeys.METADATA_ENCODING_CBOR,
+        payload.getMetadataOrThrow(EncodingKeys.METADATA_ENCODING_KEY));
+    assertEquals(value, converter.fromPayloads(0, data, TestPayload.class, TestPayload.class));
+    assertEquals("string", converter.fromPayloads(1, data, String.class, String.class));
+    assertEquals(
+        Integer.valueOf(10), converter.fromPayloads(2, data, Integer.class, Integer.class));
+  }
+
+  @Test
+  public void testReadsJson() {
+    TestPayload value = new TestPayload(2L, Instant.now(), Arrays.asList(0.1, 0.2));
+    Optional<Payloads> data = DefaultDataConverter.newDefaultInstance().toPayloads(value);
+    TestPayload converted =
+        DefaultDataConverter.newCborInstance()
+            .fromPayloads(0, data, TestPayload.class, TestPayload.class);
+    assertEquals(value, converted);
+  }
+
+  @Test
+  public void testNumericValuesAreSmallerThanJson() {
+    Random random = new Random(0);
+    List<Double> measurements = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      measurements.add(random.nextDouble() * 100);
+    }
+    TestPayload value = new TestPayload(4L, Instant.now(), measurements);
+    int jsonSize = new JacksonJsonPayloadConverter().toData(value).get().getData().size();
+    int cborSize = new JacksonCborPayloadConverter().toData(value).get().getData().size();
+    assertTrue("json: " + jsonSize + ", cbor: " + cborSize, cborSize < jsonSize * 3 / 4);
+  }
+
+  static class TestPayload {
+    private long id;
+    private Instant timestamp;
+    private List<Double> measurements;
+
+    public TestPayload() {}
+
+    TestPayload(long id, Instant timestamp, List<Double> measurements) {
+      this.id = id;
+      this.timestamp = timestamp;
+      this.measurements = measurements;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      TestPayload that = (TestPayload) o;
+      return id == that.id
+          && Objects.equals(timestamp, that.timestamp)
+          && Objects.equals(measurements, that.measurements);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(id, timestamp, measurements);
+    }
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.common.converter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.common.base.Strings;
+import com.google.protobuf.ByteString;
+import com.uber.m3.tally.NoopScope;
+import io.temporal.api.common.v1.Payload;
+import io.temporal.api.common.v1.Payloads;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class OffloadingDataConverterTest {
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private FileSystemPayloadStore fileStore;
+  private final AtomicInteger gets = new AtomicInteger();
+
+  @Before
+  public void setUp() throws IOException {
+    fileStore = new FileSystemPayloadStore(folder.getRoot().toPath());
+  }
+
+  @Test
+  public void testLargePayloadIsOffloaded() {
+    DataConverter converter = newConverter(0);
+    String value = Strings.repeat("large ", 1000);
+    Optional<Payloads> data = converter.toPayloads(value, "small");
+    Payload reference = data.get().getPayloads(0);
+    assertTrue(reference.containsMetadata(EncodingKeys.METADATA_PAYLOAD_STORE_KEY));
+    assertTrue(reference.getData().isEmpty());
+    Payload small = data.get().getPayloads(1);
+    assertFalse(small.containsMetadata(EncodingKeys.METADATA_PAYLOAD_STORE_KEY));
+    assertEquals(1, folder.getRoot().list().length);
+
+    assertEquals(value, converter.fromPayloads(0, data, String.class, String.class));
+    assertEquals("small", converter.fromPayloads(1, data, String.class, String.class));
+    assertEquals(1, gets.get());
+  }
+
+  @Test
+  public void testCachedDataIsNotFetched() {
+    DataConverter converter = newConverter(1024 * 1024);
+    String value = Strings.repeat("large ", 1000);
+    Optional<Payloads> data = converter.toPayloads(value);
+    for (int i = 0; i < 3; i++) {
+      assertEquals(value, converter.fromPayloads(0, data, String.class, String.class));
+    }
+    assertEquals(0, gets.get());
+
+    // Another worker that didn't store the payload
+    DataConverter otherConverter = newConverter(1024 * 1024);
+    for (int i = 0; i < 3; i++) {
+      assertEquals(value, otherConverter.fromPayloads(0, data, String.class, String.class));
+    }
+    assertEquals(1, gets.get());
+  }
+
+  @Test
+  public void testSamePayloadIsStoredOnce() {
+    DataConverter converter = newConverter(0);
+    String value = Strings.repeat("large ", 1000);
+    assertEquals(converter.toPayload(value), converter.toPayload(value));
+    assertEquals(1, folder.getRoot().list().length);
+  }
+
+  @Test
+  public void testInvalidKey() {
+    DataConverter converter = newConverter(0);
+    Payload payload =
+        converter
+            .toPayload("value")
+            .get()
+            .toBuilder()
+            .putMetadata(
+                EncodingKeys.METADATA_PAYLOAD_STORE_KEY,
+                ByteString.copyFrom("../secret", StandardCharsets.UTF_8))
+            .build();
+    try {
+      converter.fromPayload(payload, String.class, String.class);
+      fail("unreachable");
+    } catch (DataConverterException e) {
+      assertTrue(e.getCause() instanceof IOException);
+    }
+  }
+
+  private DataConverter newConverter(long cacheMaxBytes) {
+    PayloadStore store =
+        new PayloadStore() {
+          @Override
+          public String put(ByteString data) throws IOException {
+            return fileStore.put(data);
+          }
+
+          @Override
+          public ByteString get(String key) throws IOException {
+            gets.incrementAndGet();
+            return fileStore.get(key);
+          }
+        };
+    return new OffloadingDataConverter(
+        DataConverter.getDefaultInstance(), store, 1024, cacheMaxBytes, new NoopScope());
+  }
+}
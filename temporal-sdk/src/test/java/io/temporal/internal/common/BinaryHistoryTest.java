@@ -0,0 +1,97 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.internal.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import io.temporal.api.history.v1.HistoryEvent;
+import io.temporal.common.converter.DataConverterException;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class BinaryHistoryTest {
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private static File jsonHistoryFile() {
+    return new File(
+        BinaryHistoryTest.class
+            .getClassLoader()
+            .getResource("testAsyncActivityRetryHistory.json")
+            .getFile());
+  }
+
+  @Test
+  public void roundTripsUncompressed() throws Exception {
+    roundTrip(false);
+  }
+
+  @Test
+  public void roundTripsCompressed() throws Exception {
+    roundTrip(true);
+  }
+
+  private void roundTrip(boolean compress) throws Exception {
+    WorkflowExecutionHistory history = WorkflowExecutionUtils.readHistory(jsonHistoryFile());
+    File binary = folder.newFile();
+    WorkflowExecutionUtils.writeBinaryHistory(history, binary, compress);
+
+    assertTrue(BinaryHistoryReader.isBinaryHistory(binary.toPath()));
+    List<HistoryEvent> events = new ArrayList<>();
+    try (BinaryHistoryReader reader = new BinaryHistoryReader(binary.toPath())) {
+      reader.forEachRemaining(events::add);
+      assertFalse(reader.hasNext());
+    }
+    assertEquals(history.getEvents(), events);
+    assertEquals(history.getEvents(), WorkflowExecutionUtils.readHistory(binary).getEvents());
+  }
+
+  @Test
+  public void convertsJsonToBinary() throws Exception {
+    File json = jsonHistoryFile();
+    File binary = folder.newFile();
+    File compressed = folder.newFile();
+    WorkflowExecutionUtils.convertJsonHistoryToBinary(json, binary, false);
+    WorkflowExecutionUtils.convertJsonHistoryToBinary(json, compressed, true);
+
+    List<HistoryEvent> expected = WorkflowExecutionUtils.readHistory(json).getEvents();
+    assertEquals(expected, WorkflowExecutionUtils.readHistory(binary).getEvents());
+    assertEquals(expected, WorkflowExecutionUtils.readHistory(compressed).getEvents());
+    assertTrue(binary.length() < json.length());
+    assertTrue(compressed.length() < binary.length());
+  }
+
+  @Test
+  public void rejectsUnknownFiles() throws Exception {
+    File file = folder.newFile();
+    Files.write(file.toPath(), new byte[] {'T', 'H', 'S', 'T', 2, 0});
+    assertTrue(BinaryHistoryReader.isBinaryHistory(file.toPath()));
+    assertThrows(DataConverterException.class, () -> new BinaryHistoryReader(file.toPath()));
+    assertFalse(BinaryHistoryReader.isBinaryHistory(jsonHistoryFile().toPath()));
+  }
+}
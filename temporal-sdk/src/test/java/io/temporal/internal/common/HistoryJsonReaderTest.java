@@ -0,0 +1,85 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.internal.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.google.protobuf.util.JsonFormat;
+import io.temporal.api.history.v1.History;
+import io.temporal.api.history.v1.HistoryEvent;
+import io.temporal.common.converter.DataConverterException;
+import java.io.File;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class HistoryJsonReaderTest {
+
+  @Test
+  public void readsSameEventsAsJsonFormat() throws Exception {
+    File file =
+        new File(
+            HistoryJsonReaderTest.class
+                .getClassLoader()
+                .getResource("testAsyncActivityRetryHistory.json")
+                .getFile());
+    History.Builder expected = History.newBuilder();
+    JsonFormat.parser()
+        .merge(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8), expected);
+
+    List<HistoryEvent> events = new ArrayList<>();
+    try (HistoryJsonReader reader = WorkflowExecutionUtils.streamHistory(file)) {
+      reader.forEachRemaining(events::add);
+    }
+    assertEquals(expected.getEventsList(), events);
+    assertEquals(expected.getEventsList(), WorkflowExecutionUtils.readHistory(file).getEvents());
+  }
+
+  @Test
+  public void ignoresOtherTopLevelFields() {
+    String json =
+        "{\"workflowId\": \"wid\", \"runId\": {\"nested\": [1, 2]}, "
+            + "\"events\": [{\"eventId\": \"1\"}, {\"eventId\": \"2\"}], \"tail\": null}";
+    HistoryJsonReader reader = new HistoryJsonReader(new StringReader(json));
+    assertTrue(reader.hasNext());
+    assertEquals(1, reader.next().getEventId());
+    assertEquals(2, reader.next().getEventId());
+    assertFalse(reader.hasNext());
+    assertFalse(reader.hasNext());
+  }
+
+  @Test
+  public void failsOnMalformedJson() {
+    HistoryJsonReader reader =
+        new HistoryJsonReader(new StringReader("{\"events\": [{\"eventId\": \"1\"}"));
+    assertEquals(1, reader.next().getEventId());
+    assertThrows(DataConverterException.class, reader::hasNext);
+
+    HistoryJsonReader unknownField =
+        new HistoryJsonReader(new StringReader("{\"events\": [{\"unknown\": 1}]}"));
+    assertThrows(DataConverterException.class, unknownField::next);
+  }
+}
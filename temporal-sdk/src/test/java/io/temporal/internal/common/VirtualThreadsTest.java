@@ -0,0 +1,66 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.internal.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class VirtualThreadsTest {
+
+  @Test
+  public void testThreadFactoryCreatesNamedThreads() throws Exception {
+    assumeTrue(VirtualThreads.isSupported());
+    ThreadFactory factory = VirtualThreads.newThreadFactory("workflow-thread-");
+    CompletableFuture<String> name = new CompletableFuture<>();
+    Thread thread = factory.newThread(() -> name.complete(Thread.currentThread().getName()));
+    thread.start();
+    assertEquals("workflow-thread-1", name.get(10, TimeUnit.SECONDS));
+    assertTrue(thread.isDaemon());
+  }
+
+  @Test
+  public void testThreadPerTaskExecutorRunsTasksOnVirtualThreads() throws Exception {
+    assumeTrue(VirtualThreads.isSupported());
+    ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("workflow-thread-");
+    try {
+      Future<Thread> first = executor.submit(Thread::currentThread);
+      Future<Thread> second = executor.submit(Thread::currentThread);
+      assertNotSame(first.get(10, TimeUnit.SECONDS), second.get(10, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testThreadFactoryFailsWhenNotSupported() {
+    assumeFalse(VirtualThreads.isSupported());
+    VirtualThreads.newThreadFactory("workflow-thread-");
+  }
+}
@@ -23,9 +23,15 @@ import static io.temporal.testUtils.HistoryUtils.HOST_TASK_QUEUE;
 import static io.temporal.testUtils.HistoryUtils.NAMESPACE;
 import static io.temporal.testUtils.HistoryUtils.WORKFLOW_TYPE;
 import static junit.framework.TestCase.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import com.uber.m3.tally.NoopScope;
 import com.uber.m3.tally.RootScopeBuilder;
@@ -255,6 +261,135 @@ public class ReplayWorkflowRunTaskHandlerCacheTests {
     assertEquals(1, cache.size());
   }
 
+  @Test
+  public void evictAnyWillNotInvalidateEntriesInProcessing() throws Exception {
+    // Arrange
+    WorkflowExecutorCache cache = new WorkflowExecutorCache(50, new NoopScope());
+    WorkflowRunTaskHandler inProcessing = mock(WorkflowRunTaskHandler.class);
+    WorkflowRunTaskHandler idle = mock(WorkflowRunTaskHandler.class);
+    cache.addToCache("inProcessing", inProcessing);
+    cache.addToCache("idle", idle);
+    assertSame(
+        inProcessing, cache.getOrCreate(stickyTask("inProcessing"), metricsScope, () -> null));
+    WorkflowExecution execution = WorkflowExecution.newBuilder().setRunId("current").build();
+
+    // Act
+    boolean evictedIdle = cache.evictAnyNotInProcessing(execution, metricsScope);
+    boolean evictedInProcessing = cache.evictAnyNotInProcessing(execution, metricsScope);
+
+    // Assert
+    assertTrue(evictedIdle);
+    assertFalse(evictedInProcessing);
+    assertEquals(1, cache.size());
+    verify(idle).close();
+    verify(inProcessing, never()).close();
+
+    cache.markProcessingDone("inProcessing");
+    assertTrue(cache.evictAnyNotInProcessing(execution, metricsScope));
+    assertEquals(0, cache.size());
+    verify(inProcessing).close();
+  }
+
+  @Test
+  public void leastRecentlyUsedEntryIsEvictedWhenCacheIsFull() throws Exception {
+    // Arrange
+    WorkflowExecutorCache cache = new WorkflowExecutorCache(2, new NoopScope());
+    WorkflowRunTaskHandler first = mock(WorkflowRunTaskHandler.class);
+    WorkflowRunTaskHandler second = mock(WorkflowRunTaskHandler.class);
+    WorkflowRunTaskHandler third = mock(WorkflowRunTaskHandler.class);
+    cache.addToCache("first", first);
+    cache.addToCache("second", second);
+    // Touch "first" to make "second" the least recently used entry
+    assertSame(first, cache.getOrCreate(stickyTask("first"), metricsScope, () -> null));
+    cache.markProcessingDone("first");
+
+    // Act
+    cache.addToCache("third", third);
+
+    // Assert
+    assertEquals(2, cache.size());
+    verify(second).close();
+    verify(first, never()).close();
+    verify(third, never()).close();
+  }
+
+  @Test
+  public void entriesInProcessingAreNotEvictedWhenCacheIsFull() throws Exception {
+    // Arrange
+    WorkflowExecutorCache cache = new WorkflowExecutorCache(1, new NoopScope());
+    WorkflowRunTaskHandler first = mock(WorkflowRunTaskHandler.class);
+    WorkflowRunTaskHandler second = mock(WorkflowRunTaskHandler.class);
+    cache.addToCache("first", first);
+    assertSame(first, cache.getOrCreate(stickyTask("first"), metricsScope, () -> null));
+
+    // Act
+    cache.addToCache("second", second);
+
+    // Assert
+    assertEquals(2, cache.size());
+    verify(first, never()).close();
+
+    cache.markProcessingDone("first");
+    assertEquals(1, cache.size());
+    verify(first).close();
+    verify(second, never()).close();
+  }
+
+  @Test
+  public void leastRecentlyUsedEntriesAreEvictedWhenByteBudgetIsExceeded() throws Exception {
+    // Arrange
+    WorkflowExecutorCache cache = new WorkflowExecutorCache(10, 1000, new NoopScope());
+    WorkflowRunTaskHandler first = mockHandlerOfSize(400);
+    WorkflowRunTaskHandler second = mockHandlerOfSize(400);
+    WorkflowRunTaskHandler third = mockHandlerOfSize(400);
+    cache.addToCache("first", first);
+    cache.addToCache("second", second);
+    assertEquals(800, cache.getEstimatedBytes());
+
+    // Act
+    cache.addToCache("third", third);
+
+    // Assert
+    assertEquals(2, cache.size());
+    assertEquals(800, cache.getEstimatedBytes());
+    verify(first).close();
+    verify(second, never()).close();
+    verify(third, never()).close();
+  }
+
+  @Test
+  public void estimatedBytesAreRefreshedWhenProcessingIsDone() throws Exception {
+    // Arrange
+    WorkflowExecutorCache cache = new WorkflowExecutorCache(10, 1000, new NoopScope());
+    WorkflowRunTaskHandler idle = mockHandlerOfSize(400);
+    WorkflowRunTaskHandler growing = mockHandlerOfSize(100);
+    cache.addToCache("idle", idle);
+    cache.addToCache("growing", growing);
+    assertSame(growing, cache.getOrCreate(stickyTask("growing"), metricsScope, () -> null));
+
+    // Act
+    when(growing.getEstimatedRetainedSize()).thenReturn(900L);
+    cache.markProcessingDone("growing");
+
+    // Assert
+    assertEquals(1, cache.size());
+    assertEquals(900, cache.getEstimatedBytes());
+    verify(idle).close();
+    verify(growing, never()).close();
+  }
+
+  private static WorkflowRunTaskHandler mockHandlerOfSize(long estimatedRetainedSize) {
+    WorkflowRunTaskHandler handler = mock(WorkflowRunTaskHandler.class);
+    when(handler.getEstimatedRetainedSize()).thenReturn(estimatedRetainedSize);
+    return handler;
+  }
+
+  private static PollWorkflowTaskQueueResponse stickyTask(String runId) {
+    return PollWorkflowTaskQueueResponse.newBuilder()
+        .setWorkflowExecution(WorkflowExecution.newBuilder().setRunId(runId))
+        .build();
+  }
+
   private void assertCacheIsEmpty(WorkflowExecutorCache cache, String runId) throws Exception {
     Throwable ex = null;
     try {
@@ -316,6 +451,11 @@ public class ReplayWorkflowRunTaskHandlerCacheTests {
           public WorkflowImplementationOptions getWorkflowImplementationOptions() {
             return WorkflowImplementationOptions.newBuilder().build();
           }
+
+          @Override
+          public long estimateRetainedSize() {
+            return 0;
+          }
         },
         response,
         SingleWorkerOptions.newBuilder().build(),
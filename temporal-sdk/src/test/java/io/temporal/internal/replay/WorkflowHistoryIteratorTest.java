@@ -20,13 +20,21 @@
 package io.temporal.internal.replay;
 
 import com.google.protobuf.ByteString;
+import com.uber.m3.tally.NoopScope;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
 import io.temporal.api.history.v1.History;
 import io.temporal.api.workflowservice.v1.GetWorkflowExecutionHistoryResponse;
 import io.temporal.api.workflowservice.v1.PollWorkflowTaskQueueResponse;
 import io.temporal.testUtils.HistoryUtils;
 import java.nio.charset.Charset;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Assert;
 import org.junit.Test;
@@ -53,18 +61,23 @@ public class WorkflowHistoryIteratorTest {
 
     AtomicInteger timesCalledServer = new AtomicInteger(0);
     WorkflowHistoryIterator iterator =
-        new WorkflowHistoryIterator(null, "default", workflowTask, Duration.ofSeconds(10), null) {
-          GetWorkflowExecutionHistoryResponse queryWorkflowExecutionHistory() {
+        new WorkflowHistoryIterator(
+            null, "default", workflowTask, Duration.ofSeconds(10), new NoopScope()) {
+          @Override
+          CompletableFuture<GetWorkflowExecutionHistoryResponse> queryWorkflowExecutionHistoryAsync(
+              ByteString pageToken) {
             timesCalledServer.incrementAndGet();
             try {
-              if (EMPTY_PAGE_TOKEN.equals(nextPageToken)) {
-                return GetWorkflowExecutionHistoryResponse.newBuilder().build();
+              if (EMPTY_PAGE_TOKEN.equals(pageToken)) {
+                return CompletableFuture.completedFuture(
+                    GetWorkflowExecutionHistoryResponse.newBuilder().build());
               }
               History history = HistoryUtils.generateWorkflowTaskWithInitialHistory().getHistory();
-              return GetWorkflowExecutionHistoryResponse.newBuilder()
-                  .setHistory(history)
-                  .setNextPageToken(EMPTY_PAGE_TOKEN)
-                  .build();
+              return CompletableFuture.completedFuture(
+                  GetWorkflowExecutionHistoryResponse.newBuilder()
+                      .setHistory(history)
+                      .setNextPageToken(EMPTY_PAGE_TOKEN)
+                      .build());
             } catch (Exception e) {
               throw new RuntimeException(e);
             }
@@ -84,4 +97,125 @@ public class WorkflowHistoryIteratorTest {
     Assert.assertThrows(NoSuchElementException.class, iterator::next);
     Assert.assertEquals(2, timesCalledServer.get());
   }
+
+  @Test
+  public void prefetchesNextPagesWithinLimits() throws Exception {
+    History history = HistoryUtils.generateWorkflowTaskWithInitialHistory().getHistory();
+    PollWorkflowTaskQueueResponse workflowTask =
+        PollWorkflowTaskQueueResponse.newBuilder()
+            .setHistory(history)
+            .setNextPageToken(pageToken(1))
+            .build();
+
+    int pageCount = 4;
+    List<ByteString> requestedTokens = new ArrayList<>();
+    WorkflowHistoryIterator iterator =
+        new WorkflowHistoryIterator(
+            null, "default", workflowTask, Duration.ofSeconds(10), new NoopScope(), 2, 1) {
+          @Override
+          CompletableFuture<GetWorkflowExecutionHistoryResponse> queryWorkflowExecutionHistoryAsync(
+              ByteString pageToken) {
+            requestedTokens.add(pageToken);
+            int page = Integer.parseInt(pageToken.toStringUtf8().substring("page ".length()));
+            GetWorkflowExecutionHistoryResponse.Builder response =
+                GetWorkflowExecutionHistoryResponse.newBuilder().setHistory(history);
+            if (page < pageCount) {
+              response.setNextPageToken(pageToken(page + 1));
+            }
+            return CompletableFuture.completedFuture(response.build());
+          }
+        };
+
+    int eventCount = 0;
+    Assert.assertTrue(iterator.hasNext());
+    // The next page is requested before the first one is exhausted, but the 1 byte budget stops
+    // prefetching after it.
+    Assert.assertEquals(1, requestedTokens.size());
+    while (iterator.hasNext()) {
+      iterator.next();
+      eventCount++;
+      Assert.assertTrue(requestedTokens.size() <= eventCount / history.getEventsCount() + 1);
+    }
+    Assert.assertEquals(history.getEventsCount() * (pageCount + 1), eventCount);
+    Assert.assertEquals(pageCount, requestedTokens.size());
+    for (int i = 0; i < pageCount; i++) {
+      Assert.assertEquals(pageToken(i + 1), requestedTokens.get(i));
+    }
+  }
+
+  @Test
+  public void waitsForPendingPage() throws Exception {
+    History history = HistoryUtils.generateWorkflowTaskWithInitialHistory().getHistory();
+    PollWorkflowTaskQueueResponse workflowTask =
+        PollWorkflowTaskQueueResponse.newBuilder()
+            .setHistory(history)
+            .setNextPageToken(pageToken(1))
+            .build();
+    List<CompletableFuture<GetWorkflowExecutionHistoryResponse>> requests = new ArrayList<>();
+    WorkflowHistoryIterator iterator = newIteratorWithPendingRequests(workflowTask, requests);
+
+    for (int i = 0; i < history.getEventsCount(); i++) {
+      Assert.assertTrue(iterator.hasNext());
+      iterator.next();
+    }
+    Assert.assertEquals(1, requests.size());
+    CompletableFuture<Boolean> hasNext = CompletableFuture.supplyAsync(iterator::hasNext);
+    Assert.assertThrows(TimeoutException.class, () -> hasNext.get(200, TimeUnit.MILLISECONDS));
+    requests.get(0).complete(GetWorkflowExecutionHistoryResponse.newBuilder().build());
+    Assert.assertFalse(hasNext.get(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void closeCancelsPendingPages() {
+    History history = HistoryUtils.generateWorkflowTaskWithInitialHistory().getHistory();
+    PollWorkflowTaskQueueResponse workflowTask =
+        PollWorkflowTaskQueueResponse.newBuilder()
+            .setHistory(history)
+            .setNextPageToken(pageToken(1))
+            .build();
+    List<CompletableFuture<GetWorkflowExecutionHistoryResponse>> requests = new ArrayList<>();
+    WorkflowHistoryIterator iterator = newIteratorWithPendingRequests(workflowTask, requests);
+
+    Assert.assertTrue(iterator.hasNext());
+    Assert.assertEquals(1, requests.size());
+    iterator.close();
+    Assert.assertTrue(requests.get(0).isCancelled());
+    Assert.assertEquals(1, requests.size());
+  }
+
+  @Test
+  public void expiredPaginationDeadlineIsNotWrapped() {
+    PollWorkflowTaskQueueResponse workflowTask =
+        PollWorkflowTaskQueueResponse.newBuilder().setNextPageToken(pageToken(1)).build();
+    WorkflowHistoryIterator iterator =
+        new WorkflowHistoryIterator(
+            null, "default", workflowTask, Duration.ofSeconds(10), new NoopScope()) {
+          @Override
+          CompletableFuture<GetWorkflowExecutionHistoryResponse> queryWorkflowExecutionHistoryAsync(
+              ByteString pageToken) {
+            throw Status.DEADLINE_EXCEEDED.asRuntimeException();
+          }
+        };
+    StatusRuntimeException e = Assert.assertThrows(StatusRuntimeException.class, iterator::hasNext);
+    Assert.assertEquals(Status.Code.DEADLINE_EXCEEDED, e.getStatus().getCode());
+  }
+
+  private static WorkflowHistoryIterator newIteratorWithPendingRequests(
+      PollWorkflowTaskQueueResponse workflowTask,
+      List<CompletableFuture<GetWorkflowExecutionHistoryResponse>> requests) {
+    return new WorkflowHistoryIterator(
+        null, "default", workflowTask, Duration.ofSeconds(10), new NoopScope(), 2, Long.MAX_VALUE) {
+      @Override
+      CompletableFuture<GetWorkflowExecutionHistoryResponse> queryWorkflowExecutionHistoryAsync(
+          ByteString pageToken) {
+        CompletableFuture<GetWorkflowExecutionHistoryResponse> result = new CompletableFuture<>();
+        requests.add(result);
+        return result;
+      }
+    };
+  }
+
+  private static ByteString pageToken(int page) {
+    return ByteString.copyFromUtf8("page " + page);
+  }
 }
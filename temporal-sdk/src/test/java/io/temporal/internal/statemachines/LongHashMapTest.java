@@ -0,0 +1,72 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.internal.statemachines;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+
+public class LongHashMapTest {
+
+  @Test
+  public void putGetRemove() {
+    LongHashMap<String> map = new LongHashMap<>();
+    assertNull(map.put(5, "a"));
+    assertEquals("a", map.put(5, "b"));
+    assertNull(map.put(-7, "c"));
+    assertEquals("b", map.get(5));
+    assertEquals("c", map.get(-7));
+    assertNull(map.get(6));
+    assertEquals(2, map.size());
+    assertEquals("b", map.remove(5));
+    assertNull(map.remove(5));
+    assertNull(map.get(5));
+    assertEquals(1, map.size());
+  }
+
+  @Test
+  public void matchesHashMapUnderRandomOperations() {
+    Random random = new Random(42);
+    LongHashMap<Long> map = new LongHashMap<>();
+    Map<Long, Long> expected = new HashMap<>();
+    for (int i = 0; i < 200_000; i++) {
+      // Narrow key range to exercise collisions, growth and removals inside probe chains.
+      long key = random.nextInt(5_000) * 16L;
+      switch (random.nextInt(3)) {
+        case 0:
+          assertEquals(expected.put(key, (long) i), map.put(key, (long) i));
+          break;
+        case 1:
+          assertEquals(expected.remove(key), map.remove(key));
+          break;
+        default:
+          assertEquals(expected.get(key), map.get(key));
+      }
+      assertEquals(expected.size(), map.size());
+    }
+    for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+      assertEquals(entry.getValue(), map.get(entry.getKey()));
+    }
+  }
+}
@@ -61,6 +61,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import org.junit.After;
 import org.junit.Before;
@@ -122,6 +123,54 @@ public class DeterministicRunnerTest {
     assertTrue(d.isDone());
   }
 
+  @Test
+  public void testConditionNotReevaluatedWithoutStateChange() throws Throwable {
+    AtomicInteger evaluations = new AtomicInteger();
+    DeterministicRunner d =
+        new DeterministicRunnerImpl(
+            () -> {
+              status = "started";
+              WorkflowThread.await(
+                  "reason1",
+                  () -> {
+                    evaluations.incrementAndGet();
+                    return unblock1;
+                  });
+              status = "done";
+            });
+    d.runUntilAllBlocked(getDeadlockDetectionTimeout());
+    assertEquals("started", status);
+    assertEquals(1, evaluations.get());
+    // The state could be changed between the calls, so the condition is evaluated again.
+    d.runUntilAllBlocked(getDeadlockDetectionTimeout());
+    assertEquals(2, evaluations.get());
+    unblock1 = true;
+    d.runUntilAllBlocked(getDeadlockDetectionTimeout());
+    assertEquals("done", status);
+    assertTrue(d.isDone());
+  }
+
+  @Test
+  public void testConditionReevaluatedAfterOtherThreadProgress() throws Throwable {
+    DeterministicRunner d =
+        new DeterministicRunnerImpl(
+            () -> {
+              Async.procedure(
+                  () -> {
+                    WorkflowThread.await("reason1", () -> unblock1);
+                    unblock2 = true;
+                  });
+              WorkflowThread.await("reason2", () -> unblock2);
+              status = "done";
+            });
+    d.runUntilAllBlocked(getDeadlockDetectionTimeout());
+    assertFalse(d.isDone());
+    unblock1 = true;
+    d.runUntilAllBlocked(getDeadlockDetectionTimeout());
+    assertEquals("done", status);
+    assertTrue(d.isDone());
+  }
+
   /**
    * Async retry cannot be tested here as it relies on timer that is implemented outside of
    * Dispatcher.
@@ -777,6 +826,11 @@ public class DeterministicRunnerTest {
       return Optional.empty();
     }
 
+    @Override
+    public long getEstimatedRetainedSize() {
+      return 0;
+    }
+
     @Override
     public void close() {
       runner.close();
@@ -100,6 +100,35 @@ public class PromiseTest {
     trace.setExpected(expected);
   }
 
+  private boolean unblock;
+
+  @Test
+  public void testGetMultipleWaiters() throws Throwable {
+    DeterministicRunner r =
+        DeterministicRunner.newRunner(
+            () -> {
+              CompletablePromise<String> f = Workflow.newPromise();
+              trace.add("root begin");
+              WorkflowInternal.newThread(false, () -> trace.add("thread1 " + f.get())).start();
+              WorkflowInternal.newThread(false, () -> trace.add("thread2 " + f.get())).start();
+              WorkflowThread.await("unblock", () -> unblock);
+              f.complete("value");
+              trace.add("root done");
+            });
+    r.runUntilAllBlocked(getDeadlockDetectionTimeout());
+    // Waiting threads must not be switched to while nothing they wait for has changed.
+    r.runUntilAllBlocked(getDeadlockDetectionTimeout());
+    assertFalse(r.isDone());
+    unblock = true;
+    r.runUntilAllBlocked(getDeadlockDetectionTimeout());
+    assertTrue(r.isDone());
+    String[] expected =
+        new String[] {
+          "root begin", "root done", "thread1 value", "thread2 value",
+        };
+    trace.setExpected(expected);
+  }
+
   @Test
   public void testCancellableGet() throws Throwable {
     DeterministicRunner r =
@@ -81,6 +81,31 @@ public class WorkflowInternalQueueTest {
     r.close();
   }
 
+  @Test
+  public void testCompetingTakeAndPut() {
+    DeterministicRunner r =
+        DeterministicRunner.newRunner(
+            () -> {
+              WorkflowQueue<Integer> f = WorkflowInternal.newWorkflowQueue(1);
+              trace.add("root begin");
+              WorkflowInternal.newThread(false, () -> trace.add("thread1 take " + f.take()))
+                  .start();
+              WorkflowInternal.newThread(false, () -> trace.add("thread2 take " + f.take()))
+                  .start();
+              f.put(1);
+              f.put(2);
+              trace.add("root done");
+            });
+    r.runUntilAllBlocked(getDeadlockDetectionTimeout());
+    assertTrue(r.isDone());
+    String[] expected =
+        new String[] {
+          "root begin", "thread1 take 1", "root done", "thread2 take 2",
+        };
+    trace.setExpected(expected);
+    r.close();
+  }
+
   @Test
   public void testTakeCanceled() {
     DeterministicRunner r =
@@ -0,0 +1,193 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.internal.worker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.uber.m3.tally.NoopScope;
+import io.grpc.Status;
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+
+public class AsyncPollerTest {
+
+  private final BlockingQueue<SettableFuture<String>> polls = new LinkedBlockingQueue<>();
+  private final BlockingQueue<String> processed = new LinkedBlockingQueue<>();
+  private final AtomicInteger noCapacityPolls = new AtomicInteger();
+  private final AtomicInteger pollAttempts = new AtomicInteger();
+  private volatile Runnable capacityReleaseListener;
+  private CountDownLatch handlerLatch = new CountDownLatch(0);
+  private AsyncPoller<String> poller;
+
+  @After
+  public void tearDown() {
+    if (poller != null) {
+      poller.shutdownNow();
+      poller.awaitTermination(10, TimeUnit.SECONDS);
+    }
+  }
+
+  @Test
+  public void testPolledTasksAreProcessed() throws InterruptedException {
+    startPoller(1, Duration.ofMillis(100));
+    nextPoll().set("task1");
+    assertEquals("task1", processed.poll(10, TimeUnit.SECONDS));
+    nextPoll().set(null);
+    nextPoll().set("task2");
+    assertEquals("task2", processed.poll(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testSuspendAndResume() throws InterruptedException {
+    startPoller(1, Duration.ofMillis(100));
+    SettableFuture<String> poll = nextPoll();
+    poller.suspendPolling();
+    assertTrue(poller.isSuspended());
+    poll.set(null);
+    assertNull(polls.poll(500, TimeUnit.MILLISECONDS));
+    poller.resumePolling();
+    assertNotNull(polls.poll(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testNoPollWithoutExecutionSlot() throws InterruptedException {
+    handlerLatch = new CountDownLatch(1);
+    startPoller(1, Duration.ofMillis(100));
+    nextPoll().set("task1");
+    // The only slot is taken by the blocked task
+    assertNull(polls.poll(500, TimeUnit.MILLISECONDS));
+    // The poll loop waits for the slot release instead of checking for a free slot repeatedly
+    assertEquals(1, pollAttempts.get());
+    handlerLatch.countDown();
+    assertEquals("task1", processed.poll(10, TimeUnit.SECONDS));
+    assertNotNull(polls.poll(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testNoCapacityPollWaitsForRelease() throws InterruptedException {
+    noCapacityPolls.set(1);
+    startPoller(1, Duration.ofMillis(100));
+    assertNull(polls.poll(500, TimeUnit.MILLISECONDS));
+    assertEquals(1, pollAttempts.get());
+    capacityReleaseListener.run();
+    nextPoll().set("task1");
+    assertEquals("task1", processed.poll(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testPollFailureBackoff() throws InterruptedException {
+    startPoller(1, Duration.ofSeconds(1));
+    long start = System.nanoTime();
+    nextPoll().setException(Status.UNAVAILABLE.asRuntimeException());
+    SettableFuture<String> retry = nextPoll();
+    assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(500));
+    retry.set("task1");
+    assertEquals("task1", processed.poll(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testShutdownCancelsOutstandingPolls() throws InterruptedException {
+    startPoller(2, Duration.ofMillis(100));
+    SettableFuture<String> poll1 = nextPoll();
+    SettableFuture<String> poll2 = nextPoll();
+    poller.shutdown();
+    assertTrue(poll1.isCancelled());
+    assertTrue(poll2.isCancelled());
+    poller.awaitTermination(10, TimeUnit.SECONDS);
+    assertTrue(poller.isTerminated());
+    assertNull(polls.poll(200, TimeUnit.MILLISECONDS));
+  }
+
+  private void startPoller(int slots, Duration pollBackoffInitialInterval) {
+    PollerOptions pollerOptions =
+        PollerOptions.newBuilder()
+            .setPollThreadCount(slots)
+            .setPollBackoffInitialInterval(pollBackoffInitialInterval)
+            .setPollBackoffMaximumInterval(pollBackoffInitialInterval)
+            .setAsyncPolling(true)
+            .setPollThreadNamePrefix("Test Poller")
+            .build();
+    SingleWorkerOptions options =
+        SingleWorkerOptions.newBuilder()
+            .setTaskExecutorThreadPoolSize(slots)
+            .setPollerOptions(pollerOptions)
+            .build();
+    PollTaskExecutor<String> executor =
+        new PollTaskExecutor<>(
+            "namespace",
+            "taskQueue",
+            "test",
+            options,
+            new PollTaskExecutor.TaskHandler<String>() {
+              @Override
+              public void handle(String task) throws Exception {
+                handlerLatch.await();
+                processed.add(task);
+              }
+
+              @Override
+              public Throwable wrapFailure(String task, Throwable failure) {
+                return failure;
+              }
+            });
+    AsyncPoller.AsyncPollTask<String> pollTask =
+        new AsyncPoller.AsyncPollTask<String>() {
+          @Override
+          public ListenableFuture<String> pollAsync() {
+            return AsyncPollerTest.this.pollAsync();
+          }
+
+          @Override
+          public void setCapacityReleaseListener(Runnable listener) {
+            capacityReleaseListener = listener;
+          }
+        };
+    poller = new AsyncPoller<>("identity", pollTask, executor, pollerOptions, new NoopScope());
+    poller.start();
+  }
+
+  private ListenableFuture<String> pollAsync() {
+    pollAttempts.incrementAndGet();
+    if (noCapacityPolls.get() > 0) {
+      noCapacityPolls.decrementAndGet();
+      return null;
+    }
+    SettableFuture<String> result = SettableFuture.create();
+    polls.add(result);
+    return result;
+  }
+
+  private SettableFuture<String> nextPoll() throws InterruptedException {
+    SettableFuture<String> result = polls.poll(10, TimeUnit.SECONDS);
+    assertNotNull("poll expected", result);
+    return result;
+  }
+}
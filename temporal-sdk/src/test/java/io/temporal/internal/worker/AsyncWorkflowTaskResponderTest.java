@@ -0,0 +1,162 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.internal.worker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.uber.m3.tally.NoopScope;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.StreamObserver;
+import io.temporal.api.workflowservice.v1.PollWorkflowTaskQueueResponse;
+import io.temporal.api.workflowservice.v1.RespondWorkflowTaskCompletedRequest;
+import io.temporal.api.workflowservice.v1.RespondWorkflowTaskCompletedResponse;
+import io.temporal.api.workflowservice.v1.WorkflowServiceGrpc;
+import io.temporal.serviceclient.RpcRetryOptions;
+import io.temporal.serviceclient.WorkflowServiceStubs;
+import io.temporal.serviceclient.WorkflowServiceStubsOptions;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AsyncWorkflowTaskResponderTest {
+
+  private static final RpcRetryOptions NO_RETRIES =
+      RpcRetryOptions.newBuilder().setMaximumAttempts(1).validateBuildWithDefaults();
+
+  private final BlockingQueue<StreamObserver<RespondWorkflowTaskCompletedResponse>> calls =
+      new LinkedBlockingQueue<>();
+  private WorkflowServiceStubs service;
+
+  @Before
+  public void setUp() {
+    service =
+        WorkflowServiceStubs.newInstance(
+            new WorkflowServiceGrpc.WorkflowServiceImplBase() {
+              @Override
+              public void respondWorkflowTaskCompleted(
+                  RespondWorkflowTaskCompletedRequest request,
+                  StreamObserver<RespondWorkflowTaskCompletedResponse> responseObserver) {
+                calls.add(responseObserver);
+              }
+            },
+            WorkflowServiceStubsOptions.newBuilder().setDisableHealthCheck(true).build());
+  }
+
+  @After
+  public void tearDown() {
+    service.shutdownNow();
+    service.awaitTermination(1, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void testReplyIsAsync() throws Exception {
+    AsyncWorkflowTaskResponder responder =
+        new AsyncWorkflowTaskResponder(service, new NoopScope(), 1);
+    CompletableFuture<RespondWorkflowTaskCompletedResponse> result = respond(responder);
+    StreamObserver<RespondWorkflowTaskCompletedResponse> call = nextCall();
+    assertFalse(result.isDone());
+    RespondWorkflowTaskCompletedResponse response =
+        RespondWorkflowTaskCompletedResponse.newBuilder()
+            .setWorkflowTask(PollWorkflowTaskQueueResponse.newBuilder().setAttempt(1))
+            .build();
+    call.onNext(response);
+    call.onCompleted();
+    assertEquals(response, result.get(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testInFlightLimit() throws Exception {
+    AsyncWorkflowTaskResponder responder =
+        new AsyncWorkflowTaskResponder(service, new NoopScope(), 1);
+    CompletableFuture<RespondWorkflowTaskCompletedResponse> first = respond(responder);
+    StreamObserver<RespondWorkflowTaskCompletedResponse> firstCall = nextCall();
+    CompletableFuture<CompletableFuture<RespondWorkflowTaskCompletedResponse>> second =
+        CompletableFuture.supplyAsync(
+            () -> {
+              try {
+                return respond(responder);
+              } catch (InterruptedException e) {
+                throw new CompletionException(e);
+              }
+            });
+    // The second reply waits until the first one is delivered
+    assertNull(calls.poll(500, TimeUnit.MILLISECONDS));
+    assertFalse(second.isDone());
+    assertEquals(0, responder.awaitCompletion(100));
+
+    firstCall.onNext(RespondWorkflowTaskCompletedResponse.getDefaultInstance());
+    firstCall.onCompleted();
+    first.get(10, TimeUnit.SECONDS);
+    StreamObserver<RespondWorkflowTaskCompletedResponse> secondCall = nextCall();
+    secondCall.onNext(RespondWorkflowTaskCompletedResponse.getDefaultInstance());
+    secondCall.onCompleted();
+    second.get(10, TimeUnit.SECONDS).get(10, TimeUnit.SECONDS);
+    assertTrue(responder.awaitCompletion(10_000) > 0);
+  }
+
+  @Test
+  public void testFailureReleasesInFlightPermit() throws Exception {
+    AsyncWorkflowTaskResponder responder =
+        new AsyncWorkflowTaskResponder(service, new NoopScope(), 1);
+    CompletableFuture<RespondWorkflowTaskCompletedResponse> result = respond(responder);
+    nextCall().onError(Status.INVALID_ARGUMENT.asRuntimeException());
+    try {
+      result.get(10, TimeUnit.SECONDS);
+      fail("unreachable");
+    } catch (ExecutionException e) {
+      Throwable failure = e.getCause();
+      if (failure instanceof CompletionException) {
+        failure = failure.getCause();
+      }
+      assertTrue(failure.toString(), failure instanceof StatusRuntimeException);
+      assertEquals(
+          Status.Code.INVALID_ARGUMENT, ((StatusRuntimeException) failure).getStatus().getCode());
+    }
+    // The permit of the failed reply is returned
+    assertTrue(responder.awaitCompletion(10_000) > 0);
+    respond(responder);
+    assertNotNull(nextCall());
+  }
+
+  private CompletableFuture<RespondWorkflowTaskCompletedResponse> respond(
+      AsyncWorkflowTaskResponder responder) throws InterruptedException {
+    return responder.respondWorkflowTaskCompleted(
+        RespondWorkflowTaskCompletedRequest.getDefaultInstance(), NO_RETRIES, new NoopScope());
+  }
+
+  private StreamObserver<RespondWorkflowTaskCompletedResponse> nextCall()
+      throws InterruptedException {
+    StreamObserver<RespondWorkflowTaskCompletedResponse> result = calls.poll(10, TimeUnit.SECONDS);
+    assertNotNull("call expected", result);
+    return result;
+  }
+}
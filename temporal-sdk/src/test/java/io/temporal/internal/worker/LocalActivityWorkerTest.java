@@ -0,0 +1,192 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.internal.worker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.uber.m3.tally.Scope;
+import io.temporal.api.common.v1.ActivityType;
+import io.temporal.api.common.v1.RetryPolicy;
+import io.temporal.api.common.v1.WorkflowType;
+import io.temporal.api.workflowservice.v1.PollActivityTaskQueueResponse;
+import io.temporal.api.workflowservice.v1.RespondActivityTaskCompletedRequest;
+import io.temporal.api.workflowservice.v1.RespondActivityTaskFailedRequest;
+import io.temporal.internal.common.ProtobufTimeUtils;
+import io.temporal.internal.replay.ExecuteLocalActivityParameters;
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import org.junit.Test;
+
+public class LocalActivityWorkerTest {
+
+  private static final Duration THRESHOLD = Duration.ofMillis(300);
+  private static final Duration MAX_WAIT = Duration.ofSeconds(10);
+
+  private final BlockingQueue<ActivityTaskHandler.Result> results = new LinkedBlockingQueue<>();
+  private final BlockingQueue<Throwable> failures = new LinkedBlockingQueue<>();
+  private final AtomicInteger attempts = new AtomicInteger();
+  private volatile Thread handlerThread;
+  private volatile boolean failActivity;
+  private volatile boolean throwFromHandler;
+
+  // The worker is never started, so a task that isn't executed inline stays in the queue
+  private final BiFunction<LocalActivityWorker.Task, Duration, Boolean> scheduler =
+      newWorker().getLocalActivityTaskPoller();
+
+  @Test
+  public void testShortActivityIsExecutedInline() {
+    assertTrue(scheduler.apply(newTask(Duration.ofMillis(100), Duration.ZERO), MAX_WAIT));
+    assertSame(Thread.currentThread(), handlerThread);
+    ActivityTaskHandler.Result result = results.poll();
+    assertNotNull(result);
+    assertNotNull(result.getTaskCompleted());
+  }
+
+  @Test
+  public void testStartToCloseTimeoutIsUsedForEligibility() {
+    assertTrue(scheduler.apply(newTask(Duration.ZERO, Duration.ofMillis(100)), MAX_WAIT));
+    assertSame(Thread.currentThread(), handlerThread);
+  }
+
+  @Test
+  public void testLongActivityIsQueued() {
+    assertTrue(scheduler.apply(newTask(Duration.ofSeconds(5), Duration.ZERO), MAX_WAIT));
+    assertNull(handlerThread);
+    assertTrue(results.isEmpty());
+  }
+
+  @Test
+  public void testActivityWithoutTimeoutIsQueued() {
+    assertTrue(scheduler.apply(newTask(Duration.ZERO, Duration.ZERO), MAX_WAIT));
+    assertNull(handlerThread);
+  }
+
+  @Test
+  public void testActivityIsQueuedCloseToWorkflowTaskDeadline() {
+    Duration maxWaitAllowed = THRESHOLD.minusMillis(1);
+    assertTrue(scheduler.apply(newTask(Duration.ofMillis(100), Duration.ZERO), maxWaitAllowed));
+    assertNull(handlerThread);
+    assertTrue(results.isEmpty());
+  }
+
+  @Test
+  public void testInlineRetriesAreCappedByThreshold() {
+    failActivity = true;
+    long start = System.currentTimeMillis();
+    // The local retry threshold of the task is way above the inline execution threshold
+    assertTrue(scheduler.apply(newTask(Duration.ZERO, Duration.ofMillis(100)), MAX_WAIT));
+    long elapsed = System.currentTimeMillis() - start;
+    assertTrue(String.valueOf(elapsed), elapsed < Duration.ofSeconds(5).toMillis());
+    assertTrue(attempts.get() > 1);
+    ActivityTaskHandler.Result result = results.poll();
+    assertNotNull(result);
+    assertNotNull(result.getTaskFailed());
+    assertEquals(attempts.get(), result.getAttempt());
+    // The remaining retries are left to a workflow timer
+    assertEquals(Duration.ofMillis(10), result.getBackoff());
+  }
+
+  @Test
+  public void testInlineFailureIsReported() {
+    throwFromHandler = true;
+    assertTrue(scheduler.apply(newTask(Duration.ofMillis(100), Duration.ZERO), MAX_WAIT));
+    assertTrue(results.isEmpty());
+    Throwable failure = failures.poll();
+    assertNotNull(failure);
+    assertTrue(failure.getCause() instanceof IllegalStateException);
+  }
+
+  private LocalActivityWorker newWorker() {
+    SingleWorkerOptions options =
+        SingleWorkerOptions.newBuilder()
+            .setLocalActivityInlineExecutionThreshold(THRESHOLD)
+            .setPollerOptions(
+                PollerOptions.newBuilder()
+                    .setUncaughtExceptionHandler((thread, e) -> failures.add(e))
+                    .build())
+            .build();
+    return new LocalActivityWorker(
+        "namespace",
+        "taskQueue",
+        options,
+        new ActivityTaskHandler() {
+          @Override
+          public Result handle(
+              ActivityTask activityTask, Scope metricsScope, boolean isLocalActivity) {
+            handlerThread = Thread.currentThread();
+            attempts.incrementAndGet();
+            if (throwFromHandler) {
+              throw new IllegalStateException("simulated handler failure");
+            }
+            String activityId = activityTask.getResponse().getActivityId();
+            if (failActivity) {
+              return new Result(
+                  activityId,
+                  null,
+                  new Result.TaskFailedResult(
+                      RespondActivityTaskFailedRequest.getDefaultInstance(),
+                      new RuntimeException("simulated activity failure")),
+                  null,
+                  null,
+                  false);
+            }
+            return new Result(
+                activityId,
+                RespondActivityTaskCompletedRequest.getDefaultInstance(),
+                null,
+                null,
+                null,
+                false);
+          }
+
+          @Override
+          public boolean isAnyTypeSupported() {
+            return true;
+          }
+        });
+  }
+
+  private LocalActivityWorker.Task newTask(
+      Duration scheduleToCloseTimeout, Duration startToCloseTimeout) {
+    PollActivityTaskQueueResponse.Builder activityTask =
+        PollActivityTaskQueueResponse.newBuilder()
+            .setActivityId("activity1")
+            .setActivityType(ActivityType.newBuilder().setName("Activity"))
+            .setWorkflowType(WorkflowType.newBuilder().setName("Workflow"))
+            .setScheduleToCloseTimeout(ProtobufTimeUtils.toProtoDuration(scheduleToCloseTimeout))
+            .setStartToCloseTimeout(ProtobufTimeUtils.toProtoDuration(startToCloseTimeout))
+            .setScheduledTime(ProtobufTimeUtils.getCurrentProtoTime())
+            .setAttempt(1)
+            .setRetryPolicy(
+                RetryPolicy.newBuilder()
+                    .setInitialInterval(ProtobufTimeUtils.toProtoDuration(Duration.ofMillis(10)))
+                    .setBackoffCoefficient(1));
+    return new LocalActivityWorker.Task(
+        new ExecuteLocalActivityParameters(activityTask, Duration.ofMinutes(1), false),
+        results::add);
+  }
+}
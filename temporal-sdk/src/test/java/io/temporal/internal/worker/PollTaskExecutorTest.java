@@ -0,0 +1,215 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.internal.worker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.uber.m3.tally.Gauge;
+import com.uber.m3.tally.Scope;
+import io.temporal.internal.metrics.MetricsType;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+
+public class PollTaskExecutorTest {
+
+  private final BlockingQueue<String> processed = new LinkedBlockingQueue<>();
+  private final BlockingQueue<Throwable> failures = new LinkedBlockingQueue<>();
+  private final Map<String, Double> gauges = new ConcurrentHashMap<>();
+  private final CountDownLatch handlerLatch = new CountDownLatch(1);
+  private PollTaskExecutor<String> executor;
+
+  @After
+  public void tearDown() {
+    if (executor != null) {
+      handlerLatch.countDown();
+      executor.shutdownNow();
+      executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+  }
+
+  @Test
+  public void testEnqueueDoesNotBlockWithoutSlot() throws InterruptedException {
+    executor = newExecutor(1);
+    executor.process("task1");
+    // The only slot is taken by the blocked task1
+    executor.enqueue("task2");
+    assertFalse(executor.tryAcquireSlot());
+    assertNull(processed.poll(200, TimeUnit.MILLISECONDS));
+    handlerLatch.countDown();
+    assertEquals("task1", processed.poll(10, TimeUnit.SECONDS));
+    assertEquals("task2", processed.poll(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testEnqueuedTaskTakesReleasedSlot() throws InterruptedException {
+    executor = newExecutor(1);
+    executor.acquireSlot();
+    executor.enqueue("task1");
+    assertNull(processed.poll(200, TimeUnit.MILLISECONDS));
+    handlerLatch.countDown();
+    // The released slot is handed to the queued task
+    executor.releaseSlot();
+    assertEquals("task1", processed.poll(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testSlotIsReleasedOnHandlerFailure() throws InterruptedException {
+    handlerLatch.countDown();
+    executor = newExecutor(1);
+    executor.process("fail");
+    // Blocks until the failed task returns the only slot
+    executor.process("task1");
+    assertEquals("task1", processed.poll(10, TimeUnit.SECONDS));
+    Throwable failure = failures.poll(10, TimeUnit.SECONDS);
+    assertTrue(String.valueOf(failure), failure instanceof IllegalStateException);
+    assertAllSlotsReleased(1);
+  }
+
+  @Test
+  public void testSlotIsReleasedOnRejection() throws InterruptedException {
+    executor = newExecutor(2);
+    executor.acquireSlot();
+    assertSlots(2, 1);
+    executor.shutdown();
+    try {
+      executor.processWithSlot("task1");
+      fail("unreachable");
+    } catch (RejectedExecutionException e) {
+      // expected
+    }
+    assertSlots(2, 0);
+    try {
+      executor.process("task2");
+      fail("unreachable");
+    } catch (RejectedExecutionException e) {
+      // expected
+    }
+    assertAllSlotsReleased(2);
+  }
+
+  @Test
+  public void testSlotGauges() throws InterruptedException {
+    executor = newExecutor(3);
+    assertSlots(3, 0);
+    executor.process("task1");
+    executor.process("task2");
+    assertSlots(3, 2);
+    assertTrue(executor.tryAcquireSlot());
+    assertSlots(3, 3);
+    assertFalse(executor.tryAcquireSlot());
+    assertSlots(3, 3);
+    executor.releaseSlot();
+    assertSlots(3, 2);
+    handlerLatch.countDown();
+    assertEquals("task1", processed.poll(10, TimeUnit.SECONDS));
+    assertEquals("task2", processed.poll(10, TimeUnit.SECONDS));
+    assertAllSlotsReleased(3);
+  }
+
+  @Test
+  public void testSlotReleaseListener() throws InterruptedException {
+    executor = newExecutor(1);
+    AtomicInteger releases = new AtomicInteger();
+    executor.setSlotReleaseListener(releases::incrementAndGet);
+    executor.acquireSlot();
+    executor.releaseSlot();
+    assertEquals(1, releases.get());
+    executor.process("task1");
+    handlerLatch.countDown();
+    assertEquals("task1", processed.poll(10, TimeUnit.SECONDS));
+    // Waits for task1 to release its slot and releases the slot once more
+    assertAllSlotsReleased(1);
+    assertEquals(3, releases.get());
+  }
+
+  /** Takes all the slots, which waits for the running tasks to complete, and gives them back. */
+  private void assertAllSlotsReleased(int slots) throws InterruptedException {
+    for (int i = 0; i < slots; i++) {
+      executor.acquireSlot();
+    }
+    assertSlots(slots, slots);
+    for (int i = 0; i < slots; i++) {
+      executor.releaseSlot();
+    }
+    assertSlots(slots, 0);
+  }
+
+  private void assertSlots(int slots, int used) {
+    assertEquals(slots - used, gauges.get(MetricsType.WORKER_TASK_SLOTS_AVAILABLE), 0);
+    assertEquals(used, gauges.get(MetricsType.WORKER_TASK_SLOTS_USED), 0);
+  }
+
+  private PollTaskExecutor<String> newExecutor(int slots) {
+    Scope metricsScope = mock(Scope.class);
+    when(metricsScope.tagged(any())).thenReturn(metricsScope);
+    when(metricsScope.gauge(anyString()))
+        .thenAnswer(
+            invocation -> {
+              String name = invocation.getArgument(0);
+              return (Gauge) value -> gauges.put(name, value);
+            });
+    SingleWorkerOptions options =
+        SingleWorkerOptions.newBuilder()
+            .setTaskExecutorThreadPoolSize(slots)
+            .setMetricsScope(metricsScope)
+            .setPollerOptions(
+                PollerOptions.newBuilder()
+                    .setPollThreadNamePrefix("Test Poller")
+                    .setUncaughtExceptionHandler((thread, e) -> failures.add(e))
+                    .build())
+            .build();
+    return new PollTaskExecutor<>(
+        "namespace",
+        "taskQueue",
+        "test",
+        options,
+        new PollTaskExecutor.TaskHandler<String>() {
+          @Override
+          public void handle(String task) throws Exception {
+            handlerLatch.await();
+            if (task.equals("fail")) {
+              throw new IllegalStateException("simulated failure");
+            }
+            processed.add(task);
+          }
+
+          @Override
+          public Throwable wrapFailure(String task, Throwable failure) {
+            return failure;
+          }
+        });
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.internal.worker;
+
+import static org.junit.Assert.assertEquals;
+
+import com.uber.m3.tally.NoopScope;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+
+public class PollerAutoscalerTest {
+
+  private static final long FAST_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+  private final AtomicLong clock = new AtomicLong();
+  private final PollerAutoscaler autoscaler =
+      new PollerAutoscaler(1, 3, new NoopScope(), clock::get);
+
+  @Test
+  public void scalesUpOnBacklog() {
+    runWindow(false, 0.1);
+    assertEquals(2, autoscaler.getTargetPollerCount());
+    runWindow(false, 0.1);
+    runWindow(false, 0.1);
+    assertEquals(3, autoscaler.getTargetPollerCount());
+  }
+
+  @Test
+  public void scalesDownOnEmptyPolls() {
+    runWindow(false, 0.1);
+    runWindow(false, 0.1);
+    assertEquals(3, autoscaler.getTargetPollerCount());
+    runWindow(true, 0.1);
+    assertEquals(2, autoscaler.getTargetPollerCount());
+    runWindow(true, 0.1);
+    runWindow(true, 0.1);
+    assertEquals(1, autoscaler.getTargetPollerCount());
+  }
+
+  @Test
+  public void scalesDownWhenExecutorIsSaturated() {
+    runWindow(false, 0.1);
+    assertEquals(2, autoscaler.getTargetPollerCount());
+    runWindow(false, 1.0);
+    assertEquals(1, autoscaler.getTargetPollerCount());
+  }
+
+  @Test
+  public void waitsForDecisionWindow() {
+    for (int i = 0; i < 100; i++) {
+      autoscaler.recordPoll(false, FAST_POLL_NANOS, 0.1);
+    }
+    assertEquals(1, autoscaler.getTargetPollerCount());
+  }
+
+  private void runWindow(boolean empty, double executorUtilization) {
+    for (int i = 0; i < PollerAutoscaler.MIN_POLLS_PER_DECISION; i++) {
+      autoscaler.recordPoll(empty, FAST_POLL_NANOS, executorUtilization);
+    }
+    clock.addAndGet(PollerAutoscaler.DECISION_WINDOW_NANOS);
+    autoscaler.recordPoll(empty, FAST_POLL_NANOS, executorUtilization);
+  }
+}
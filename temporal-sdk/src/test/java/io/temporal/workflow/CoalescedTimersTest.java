@@ -0,0 +1,97 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.workflow;
+
+import io.temporal.api.common.v1.WorkflowExecution;
+import io.temporal.api.enums.v1.EventType;
+import io.temporal.client.WorkflowStub;
+import io.temporal.failure.CanceledFailure;
+import io.temporal.worker.WorkflowImplementationOptions;
+import io.temporal.workflow.shared.SDKTestWorkflowRule;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class CoalescedTimersTest {
+
+  private static final Duration GRANULARITY = Duration.ofHours(1);
+
+  @Rule
+  public SDKTestWorkflowRule testWorkflowRule =
+      SDKTestWorkflowRule.newBuilder()
+          .setWorkflowTypes(
+              WorkflowImplementationOptions.newBuilder()
+                  .setTimerCoalescingGranularity(GRANULARITY)
+                  .build(),
+              TestCoalescedTimersImpl.class)
+          .build();
+
+  @Test
+  public void testCoalescedTimers() {
+    TestCoalescedTimers workflowStub =
+        testWorkflowRule.newWorkflowStubTimeoutOptions(TestCoalescedTimers.class);
+    Assert.assertEquals(10, workflowStub.execute());
+    WorkflowExecution execution = WorkflowStub.fromTyped(workflowStub).getExecution();
+    Assert.assertEquals(
+        1,
+        testWorkflowRule.getHistoryEvents(execution, EventType.EVENT_TYPE_TIMER_STARTED).size());
+    Assert.assertEquals(
+        1, testWorkflowRule.getHistoryEvents(execution, EventType.EVENT_TYPE_TIMER_FIRED).size());
+    testWorkflowRule.assertNoHistoryEvent(execution, EventType.EVENT_TYPE_TIMER_CANCELED);
+  }
+
+  @WorkflowInterface
+  public interface TestCoalescedTimers {
+    @WorkflowMethod
+    int execute();
+  }
+
+  public static class TestCoalescedTimersImpl implements TestCoalescedTimers {
+
+    @Override
+    public int execute() {
+      long granularity = GRANULARITY.toMillis();
+      long now = Workflow.currentTimeMillis();
+      // All timers up to the end of the current granularity window fire together.
+      long delay = (now / granularity + 1) * granularity - now;
+      List<Promise<Void>> timers = new ArrayList<>();
+      for (int i = 0; i < 10; i++) {
+        timers.add(Workflow.newTimer(Duration.ofMillis(Math.max(1, delay - i * 1000))));
+      }
+      List<Promise<Void>> canceled = new ArrayList<>();
+      CancellationScope scope =
+          Workflow.newCancellationScope(
+              () -> canceled.add(Workflow.newTimer(Duration.ofMillis(delay))));
+      scope.run();
+      scope.cancel();
+      try {
+        canceled.get(0).get();
+        return -1;
+      } catch (CanceledFailure e) {
+        // expected
+      }
+      Promise.allOf(timers).get();
+      return timers.size();
+    }
+  }
+}
@@ -100,6 +100,17 @@ public final class BackoffThrottler {
     }
   }
 
+  /**
+   * @return time in milliseconds {@link #throttle()} would sleep, 0 if there were no failures since
+   *     the last success call
+   */
+  public long getSleepTimeMillis() {
+    if (failureCount.get() > 0) {
+      return calculateSleepTime();
+    }
+    return 0;
+  }
+
   /** Resent failure count to 0. */
   public void success() {
     failureCount.set(0);
@@ -24,7 +24,6 @@ import static io.temporal.serviceclient.MetricsTag.STATUS_CODE;
 
 import com.uber.m3.tally.Scope;
 import com.uber.m3.tally.Stopwatch;
-import com.uber.m3.util.ImmutableMap;
 import io.grpc.CallOptions;
 import io.grpc.Channel;
 import io.grpc.ClientCall;
@@ -44,7 +43,9 @@ import java.util.Map;
 class GrpcMetricsInterceptor implements ClientInterceptor {
 
   private final Scope defaultScope;
-  private final Map<MethodDescriptor<?, ?>, Map<String, String>> methodTags = new HashMap<>();
+  private final Map<MethodDescriptor<?, ?>, String> operationNames = new HashMap<>();
+  private final TaggedScopeCache operationScopes = new TaggedScopeCache(OPERATION_NAME);
+  private final TaggedScopeCache statusCodeScopes = new TaggedScopeCache(STATUS_CODE);
 
   GrpcMetricsInterceptor(Scope scope) {
     this.defaultScope = scope.tagged(MetricsTag.defaultTags(MetricsTag.DEFAULT_VALUE));
@@ -54,9 +55,7 @@ class GrpcMetricsInterceptor implements ClientInterceptor {
     for (MethodDescriptor<?, ?> method : methods) {
       int beginIndex = serviceName.length() + 1;
       String name = method.getFullMethodName().substring(beginIndex);
-      Map<String, String> tags =
-          new ImmutableMap.Builder<String, String>(1).put(OPERATION_NAME, name).build();
-      methodTags.put(method, tags);
+      operationNames.put(method, name);
     }
   }
 
@@ -67,14 +66,14 @@ class GrpcMetricsInterceptor implements ClientInterceptor {
     if (scope == null) {
       scope = defaultScope;
     }
-    Map<String, String> tags = methodTags.get(method);
-    scope = scope.tagged(tags);
-    return new MetricsClientCall<>(next, method, callOptions, scope);
+    scope = operationScopes.tagged(scope, operationNames.get(method));
+    return new MetricsClientCall<>(next, method, callOptions, scope, statusCodeScopes);
   }
 
   private static class MetricsClientCall<ReqT, RespT>
       extends ForwardingClientCall.SimpleForwardingClientCall<ReqT, RespT> {
     private final Scope metricsScope;
+    private final TaggedScopeCache statusCodeScopes;
     private final Stopwatch sw;
     private final boolean longPoll;
 
@@ -82,9 +81,11 @@ class GrpcMetricsInterceptor implements ClientInterceptor {
         Channel next,
         MethodDescriptor<ReqT, RespT> method,
         CallOptions callOptions,
-        Scope metricsScope) {
+        Scope metricsScope,
+        TaggedScopeCache statusCodeScopes) {
       super(next.newCall(method, callOptions));
       this.metricsScope = metricsScope;
+      this.statusCodeScopes = statusCodeScopes;
       longPoll = LongPollUtil.isLongPoll(method, callOptions);
       if (longPoll) {
         metricsScope.counter(MetricsType.TEMPORAL_LONG_REQUEST).inc(1);
@@ -109,11 +110,7 @@ class GrpcMetricsInterceptor implements ClientInterceptor {
             public void onClose(Status status, Metadata trailers) {
               if (!status.isOk()) {
                 Status.Code code = status.getCode();
-                Scope scope =
-                    metricsScope.tagged(
-                        new ImmutableMap.Builder<String, String>(1)
-                            .put(STATUS_CODE, String.valueOf(code))
-                            .build());
+                Scope scope = statusCodeScopes.tagged(metricsScope, code.name());
                 if (longPoll) {
                   scope.counter(MetricsType.TEMPORAL_LONG_REQUEST_FAILURE).inc(1);
                 } else {
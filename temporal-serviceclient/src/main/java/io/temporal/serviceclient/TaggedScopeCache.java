@@ -0,0 +1,81 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.serviceclient;
+
+import com.uber.m3.tally.Scope;
+import com.uber.m3.util.ImmutableMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded cache of metric scopes tagged with a single tag. {@link Scope#tagged(Map)} allocates the
+ * tag map and the key of the tagged scope on every call, which adds up on per task and per RPC
+ * paths. Looking up an already tagged scope in this cache doesn't allocate.
+ *
+ * <p>Parent scopes are compared by identity, which is stable as tagging the same scope with the
+ * same tags returns the same instance. Use nested lookups to add multiple tags.
+ *
+ * <p>Note: This class shouldn't be accessed in any way by the application code.
+ */
+public final class TaggedScopeCache {
+
+  public static final int DEFAULT_MAX_SIZE = 1000;
+
+  private final String tagName;
+  private final int maxSize;
+  private final Map<Scope, Map<String, Scope>> scopes = new ConcurrentHashMap<>();
+  private final AtomicInteger size = new AtomicInteger();
+
+  public TaggedScopeCache(String tagName) {
+    this(tagName, DEFAULT_MAX_SIZE);
+  }
+
+  /**
+   * @param tagName name of the tag to add
+   * @param maxSize maximum number of cached scopes. The cache is cleared when it is exceeded, so
+   *     tags with an unexpectedly high cardinality don't leak memory.
+   */
+  public TaggedScopeCache(String tagName, int maxSize) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("Illegal maxSize: " + maxSize);
+    }
+    this.tagName = tagName;
+    this.maxSize = maxSize;
+  }
+
+  /** @return scope tagged with tagValue, same as {@code scope.tagged(tagName -> tagValue)} */
+  public Scope tagged(Scope scope, String tagValue) {
+    Map<String, Scope> byValue = scopes.get(scope);
+    if (byValue != null) {
+      Scope result = byValue.get(tagValue);
+      if (result != null) {
+        return result;
+      }
+    }
+    Scope result = scope.tagged(ImmutableMap.of(tagName, tagValue));
+    if (size.incrementAndGet() > maxSize) {
+      scopes.clear();
+      size.set(1);
+    }
+    scopes.computeIfAbsent(scope, (s) -> new ConcurrentHashMap<>()).put(tagValue, result);
+    return result;
+  }
+}
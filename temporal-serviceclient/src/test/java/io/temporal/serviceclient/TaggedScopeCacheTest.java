@@ -0,0 +1,77 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.serviceclient;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+
+import com.uber.m3.tally.RootScopeBuilder;
+import com.uber.m3.tally.Scope;
+import com.uber.m3.tally.StatsReporter;
+import com.uber.m3.util.Duration;
+import com.uber.m3.util.ImmutableMap;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TaggedScopeCacheTest {
+
+  private Scope scope;
+
+  @Before
+  public void setUp() {
+    scope =
+        new RootScopeBuilder()
+            .reporter(mock(StatsReporter.class))
+            .reportEvery(Duration.ofSeconds(10));
+  }
+
+  @After
+  public void tearDown() {
+    scope.close();
+  }
+
+  @Test
+  public void testTagged() {
+    TaggedScopeCache cache = new TaggedScopeCache("tag");
+    Scope tagged = cache.tagged(scope, "value1");
+    assertSame(scope.tagged(ImmutableMap.of("tag", "value1")), tagged);
+    assertSame(tagged, cache.tagged(scope, "value1"));
+    assertNotSame(tagged, cache.tagged(scope, "value2"));
+  }
+
+  @Test
+  public void testNestedTags() {
+    TaggedScopeCache cache1 = new TaggedScopeCache("tag1");
+    TaggedScopeCache cache2 = new TaggedScopeCache("tag2");
+    Scope tagged = cache2.tagged(cache1.tagged(scope, "value1"), "value2");
+    assertSame(scope.tagged(ImmutableMap.of("tag1", "value1", "tag2", "value2")), tagged);
+  }
+
+  @Test
+  public void testMaxSize() {
+    TaggedScopeCache cache = new TaggedScopeCache("tag", 2);
+    for (int i = 0; i < 10; i++) {
+      String value = "value" + i;
+      assertSame(scope.tagged(ImmutableMap.of("tag", value)), cache.tagged(scope, value));
+    }
+  }
+}
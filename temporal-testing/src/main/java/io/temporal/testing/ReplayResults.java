@@ -0,0 +1,165 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.testing;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Aggregated outcome of replaying many histories through {@link
+ * WorkflowReplayer#replayWorkflowExecutions(Iterable, int, Class, Class[])}.
+ */
+public final class ReplayResults {
+
+  /** History that failed to load or replay. */
+  public static final class ReplayFailure {
+    private final String historyName;
+    private final Throwable error;
+    private final Duration replayDuration;
+
+    ReplayFailure(String historyName, Throwable error, Duration replayDuration) {
+      this.historyName = historyName;
+      this.error = error;
+      this.replayDuration = replayDuration;
+    }
+
+    /**
+     * @return path of the failed history file, or {@code histories[i]} where {@code i} is the index
+     *     of the failed history in the replayed iterable
+     */
+    public String getHistoryName() {
+      return historyName;
+    }
+
+    /**
+     * @return replay failure, usually caused by workflow code that is not deterministic with the
+     *     history
+     */
+    public Throwable getError() {
+      return error;
+    }
+
+    /** @return time spent replaying the history before it failed */
+    public Duration getReplayDuration() {
+      return replayDuration;
+    }
+
+    @Override
+    public String toString() {
+      return "ReplayFailure{"
+          + "historyName='"
+          + historyName
+          + '\''
+          + ", error="
+          + error
+          + ", replayDuration="
+          + replayDuration
+          + '}';
+    }
+  }
+
+  private final List<ReplayFailure> failures = new ArrayList<>();
+  private int replayedCount;
+  private Duration totalReplayDuration = Duration.ZERO;
+  private Duration maxReplayDuration = Duration.ZERO;
+  private String slowestHistoryName;
+  private Duration wallClockDuration = Duration.ZERO;
+
+  ReplayResults() {}
+
+  synchronized void addSuccess(String historyName, Duration replayDuration) {
+    addReplay(historyName, replayDuration);
+  }
+
+  synchronized void addFailure(String historyName, Throwable error, Duration replayDuration) {
+    addReplay(historyName, replayDuration);
+    failures.add(new ReplayFailure(historyName, error, replayDuration));
+  }
+
+  private void addReplay(String historyName, Duration replayDuration) {
+    replayedCount++;
+    totalReplayDuration = totalReplayDuration.plus(replayDuration);
+    if (replayDuration.compareTo(maxReplayDuration) > 0) {
+      maxReplayDuration = replayDuration;
+      slowestHistoryName = historyName;
+    }
+  }
+
+  synchronized void setWallClockDuration(Duration wallClockDuration) {
+    this.wallClockDuration = wallClockDuration;
+  }
+
+  /** @return number of replayed histories including the failed ones */
+  public synchronized int getReplayedCount() {
+    return replayedCount;
+  }
+
+  /** @return histories that failed to replay in no particular order */
+  public synchronized List<ReplayFailure> getFailures() {
+    return Collections.unmodifiableList(new ArrayList<>(failures));
+  }
+
+  public synchronized boolean hadAnyFailure() {
+    return !failures.isEmpty();
+  }
+
+  /** @return sum of the replay times of all histories */
+  public synchronized Duration getTotalReplayDuration() {
+    return totalReplayDuration;
+  }
+
+  /** @return replay time of the slowest history */
+  public synchronized Duration getMaxReplayDuration() {
+    return maxReplayDuration;
+  }
+
+  /** @return name of the slowest history or null if nothing was replayed */
+  public synchronized String getSlowestHistoryName() {
+    return slowestHistoryName;
+  }
+
+  /** @return elapsed time of the whole bulk replay */
+  public synchronized Duration getWallClockDuration() {
+    return wallClockDuration;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "ReplayResults{"
+        + "replayedCount="
+        + replayedCount
+        + ", failedCount="
+        + failures.size()
+        + ", wallClockDuration="
+        + wallClockDuration
+        + ", totalReplayDuration="
+        + totalReplayDuration
+        + ", maxReplayDuration="
+        + maxReplayDuration
+        + ", slowestHistoryName='"
+        + slowestHistoryName
+        + '\''
+        + ", failures="
+        + failures
+        + '}';
+  }
+}
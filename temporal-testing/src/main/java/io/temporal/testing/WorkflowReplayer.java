@@ -19,17 +19,42 @@
 
 package io.temporal.testing;
 
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.ObjectArrays;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.temporal.api.history.v1.WorkflowExecutionStartedEventAttributes;
 import io.temporal.api.taskqueue.v1.TaskQueue;
 import io.temporal.internal.common.WorkflowExecutionHistory;
 import io.temporal.internal.common.WorkflowExecutionUtils;
 import io.temporal.worker.Worker;
+import io.temporal.worker.WorkerFactoryOptions;
 import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 /** Replays a workflow given its history. Useful for backwards compatibility testing. */
 public final class WorkflowReplayer {
 
+  private static final String BULK_REPLAY_TASK_QUEUE = "WorkflowReplayer";
+
+  // Replayed workflows are not needed after the replay, so the cache only has to hold one.
+  private static final TestEnvironmentOptions BULK_REPLAY_ENVIRONMENT_OPTIONS =
+      TestEnvironmentOptions.newBuilder()
+          .setWorkerFactoryOptions(
+              WorkerFactoryOptions.newBuilder().setWorkflowCacheSize(1).build())
+          .build();
+
   /**
    * Replays workflow from a resource that contains a json serialized history.
    *
@@ -48,7 +73,7 @@ public final class WorkflowReplayer {
   /**
    * Replays workflow from a file
    *
-   * @param historyFile file that contains a json serialized history.
+   * @param historyFile file that contains a json or binary serialized history.
    * @param workflowClass s workflow implementation class to replay
    * @param moreWorkflowClasses optional additional workflow implementation classes
    * @throws Exception if replay failed for any reason.
@@ -107,4 +132,135 @@ public final class WorkflowReplayer {
         ObjectArrays.concat(moreWorkflowClasses, workflowClass));
     worker.replayWorkflowExecution(history);
   }
+
+  /**
+   * Replays workflows from json or binary history files using {@code parallelism} threads. Each
+   * thread replays through its own test environment and worker, so replays don't share any state.
+   * Files are read lazily by the replay threads and at most {@code 2 * parallelism} of them are
+   * waiting for a replay at any time. Replay failures don't stop the remaining replays and are
+   * collected into the returned {@link ReplayResults}.
+   *
+   * @param historyFiles files that contain json or binary serialized histories
+   * @param parallelism number of histories that are replayed concurrently, usually the number of
+   *     available processors
+   * @param workflowClass workflow implementation class to replay
+   * @param moreWorkflowClasses optional additional workflow implementation classes
+   * @return failed histories and replay timings
+   * @throws InterruptedException if interrupted while waiting for the replays to complete
+   */
+  public static ReplayResults replayWorkflowExecutions(
+      Stream<File> historyFiles,
+      int parallelism,
+      Class<?> workflowClass,
+      Class<?>... moreWorkflowClasses)
+      throws InterruptedException {
+    Iterator<HistorySource> sources =
+        Iterators.transform(
+            historyFiles.iterator(),
+            file ->
+                new HistorySource(file.getPath(), () -> WorkflowExecutionUtils.readHistory(file)));
+    return replayWorkflowExecutions(
+        sources, parallelism, ObjectArrays.concat(moreWorkflowClasses, workflowClass));
+  }
+
+  /**
+   * Replays workflows from {@link WorkflowExecutionHistory} objects using {@code parallelism}
+   * threads. See {@link #replayWorkflowExecutions(Stream, int, Class, Class[])}.
+   *
+   * @param histories histories to replay, failures are reported by their index in this iterable
+   * @param parallelism number of histories that are replayed concurrently
+   * @param workflowClass workflow implementation class to replay
+   * @param moreWorkflowClasses optional additional workflow implementation classes
+   * @return failed histories and replay timings
+   * @throws InterruptedException if interrupted while waiting for the replays to complete
+   */
+  public static ReplayResults replayWorkflowExecutions(
+      Iterable<WorkflowExecutionHistory> histories,
+      int parallelism,
+      Class<?> workflowClass,
+      Class<?>... moreWorkflowClasses)
+      throws InterruptedException {
+    AtomicInteger index = new AtomicInteger();
+    Iterator<HistorySource> sources =
+        Iterators.transform(
+            histories.iterator(),
+            history ->
+                new HistorySource("histories[" + index.getAndIncrement() + "]", () -> history));
+    return replayWorkflowExecutions(
+        sources, parallelism, ObjectArrays.concat(moreWorkflowClasses, workflowClass));
+  }
+
+  private static ReplayResults replayWorkflowExecutions(
+      Iterator<HistorySource> sources, int parallelism, Class<?>[] workflowClasses)
+      throws InterruptedException {
+    Preconditions.checkArgument(parallelism > 0, "parallelism must be positive");
+    ReplayResults results = new ReplayResults();
+    List<TestWorkflowEnvironment> environments = Collections.synchronizedList(new ArrayList<>());
+    ThreadLocal<Worker> workers =
+        ThreadLocal.withInitial(
+            () -> {
+              TestWorkflowEnvironment testEnv =
+                  TestWorkflowEnvironment.newInstance(BULK_REPLAY_ENVIRONMENT_OPTIONS);
+              environments.add(testEnv);
+              Worker worker = testEnv.newWorker(BULK_REPLAY_TASK_QUEUE);
+              worker.registerWorkflowImplementationTypes(workflowClasses);
+              return worker;
+            });
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            parallelism, new ThreadFactoryBuilder().setNameFormat("replayer-%d").build());
+    // Bounds the number of histories that are loaded or waiting for a replay thread.
+    Semaphore pending = new Semaphore(2 * parallelism);
+    long start = System.nanoTime();
+    try {
+      while (sources.hasNext()) {
+        HistorySource source = sources.next();
+        pending.acquire();
+        executor.execute(
+            () -> {
+              try {
+                replay(source, workers, results);
+              } finally {
+                pending.release();
+              }
+            });
+      }
+      executor.shutdown();
+      while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+        // Replays have no deadline, keep waiting until the last one completes.
+      }
+    } finally {
+      executor.shutdownNow();
+      synchronized (environments) {
+        for (TestWorkflowEnvironment testEnv : environments) {
+          testEnv.close();
+        }
+      }
+    }
+    results.setWallClockDuration(Duration.ofNanos(System.nanoTime() - start));
+    return results;
+  }
+
+  private static void replay(
+      HistorySource source, ThreadLocal<Worker> workers, ReplayResults results) {
+    long start = System.nanoTime();
+    try {
+      WorkflowExecutionHistory history = source.loader.call();
+      start = System.nanoTime();
+      workers.get().replayWorkflowExecution(history);
+      results.addSuccess(source.name, Duration.ofNanos(System.nanoTime() - start));
+    } catch (Throwable e) {
+      results.addFailure(source.name, e, Duration.ofNanos(System.nanoTime() - start));
+    }
+  }
+
+  private static final class HistorySource {
+    final String name;
+    final Callable<WorkflowExecutionHistory> loader;
+
+    HistorySource(String name, Callable<WorkflowExecutionHistory> loader) {
+      this.name = name;
+      this.loader = loader;
+    }
+  }
 }
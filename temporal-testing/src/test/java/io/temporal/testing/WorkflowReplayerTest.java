@@ -0,0 +1,156 @@
+/*
+ *  Copyright (C) 2020 Temporal Technologies, Inc. All Rights Reserved.
+ *
+ *  Copyright 2012-2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ *  Modifications copyright (C) 2017 Uber Technologies, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License"). You may not
+ *  use this file except in compliance with the License. A copy of the License is
+ *  located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ *  or in the "license" file accompanying this file. This file is distributed on
+ *  an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ *  express or implied. See the License for the specific language governing
+ *  permissions and limitations under the License.
+ */
+
+package io.temporal.testing;
+
+import static org.junit.Assert.*;
+
+import io.temporal.api.common.v1.WorkflowExecution;
+import io.temporal.api.workflowservice.v1.GetWorkflowExecutionHistoryRequest;
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowOptions;
+import io.temporal.client.WorkflowStub;
+import io.temporal.internal.common.WorkflowExecutionHistory;
+import io.temporal.internal.common.WorkflowExecutionUtils;
+import io.temporal.worker.Worker;
+import io.temporal.workflow.Workflow;
+import io.temporal.workflow.WorkflowInterface;
+import io.temporal.workflow.WorkflowMethod;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class WorkflowReplayerTest {
+
+  @WorkflowInterface
+  public interface SleepingWorkflow {
+    @WorkflowMethod
+    String execute();
+  }
+
+  public static class SleepingWorkflowImpl implements SleepingWorkflow {
+    @Override
+    public String execute() {
+      Workflow.sleep(Duration.ofMinutes(1));
+      return "done";
+    }
+  }
+
+  @WorkflowInterface
+  public interface OtherWorkflow {
+    @WorkflowMethod
+    void execute();
+  }
+
+  public static class OtherWorkflowImpl implements OtherWorkflow {
+    @Override
+    public void execute() {}
+  }
+
+  private static final String TASK_QUEUE = "WorkflowReplayerTest";
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private TestWorkflowEnvironment testEnv;
+  private WorkflowExecutionHistory history;
+  // Workflow type of this history is not registered for the replays, so its replay fails.
+  private WorkflowExecutionHistory unknownTypeHistory;
+
+  @Before
+  public void setUp() {
+    testEnv = TestWorkflowEnvironment.newInstance();
+    Worker worker = testEnv.newWorker(TASK_QUEUE);
+    worker.registerWorkflowImplementationTypes(SleepingWorkflowImpl.class, OtherWorkflowImpl.class);
+    testEnv.start();
+    WorkflowClient client = testEnv.getWorkflowClient();
+    WorkflowOptions options = WorkflowOptions.newBuilder().setTaskQueue(TASK_QUEUE).build();
+
+    SleepingWorkflow sleeping = client.newWorkflowStub(SleepingWorkflow.class, options);
+    WorkflowExecution execution = WorkflowClient.start(sleeping::execute);
+    assertEquals("done", WorkflowStub.fromTyped(sleeping).getResult(String.class));
+    history = getHistory(execution);
+
+    OtherWorkflow other = client.newWorkflowStub(OtherWorkflow.class, options);
+    WorkflowExecution otherExecution = WorkflowClient.start(other::execute);
+    WorkflowStub.fromTyped(other).getResult(Void.class);
+    unknownTypeHistory = getHistory(otherExecution);
+  }
+
+  @After
+  public void tearDown() {
+    testEnv.close();
+  }
+
+  @Test
+  public void testParallelReplayOfHistories() throws InterruptedException {
+    List<WorkflowExecutionHistory> histories = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      histories.add(history);
+    }
+    histories.add(unknownTypeHistory);
+
+    ReplayResults results =
+        WorkflowReplayer.replayWorkflowExecutions(histories, 3, SleepingWorkflowImpl.class);
+    assertEquals(7, results.getReplayedCount());
+    assertEquals(results.toString(), 1, results.getFailures().size());
+    assertEquals("histories[6]", results.getFailures().get(0).getHistoryName());
+    assertTrue(results.getMaxReplayDuration().compareTo(Duration.ZERO) > 0);
+  }
+
+  @Test
+  public void testParallelReplayOfHistoryFiles() throws Exception {
+    File jsonFile = folder.newFile("history.json");
+    Files.write(jsonFile.toPath(), history.toJson().getBytes(StandardCharsets.UTF_8));
+    File binaryFile = folder.newFile("history.bin");
+    WorkflowExecutionUtils.writeBinaryHistory(history, binaryFile, true);
+    File unknownTypeFile = folder.newFile("unknownType.json");
+    Files.write(
+        unknownTypeFile.toPath(), unknownTypeHistory.toJson().getBytes(StandardCharsets.UTF_8));
+
+    ReplayResults results =
+        WorkflowReplayer.replayWorkflowExecutions(
+            Stream.of(jsonFile, binaryFile, unknownTypeFile), 2, SleepingWorkflowImpl.class);
+    assertEquals(3, results.getReplayedCount());
+    assertEquals(results.toString(), 1, results.getFailures().size());
+    assertEquals(unknownTypeFile.getPath(), results.getFailures().get(0).getHistoryName());
+  }
+
+  private WorkflowExecutionHistory getHistory(WorkflowExecution execution) {
+    GetWorkflowExecutionHistoryRequest request =
+        GetWorkflowExecutionHistoryRequest.newBuilder()
+            .setNamespace(testEnv.getNamespace())
+            .setExecution(execution)
+            .build();
+    return new WorkflowExecutionHistory(
+        testEnv
+            .getWorkflowService()
+            .blockingStub()
+            .getWorkflowExecutionHistory(request)
+            .getHistory());
+  }
+}